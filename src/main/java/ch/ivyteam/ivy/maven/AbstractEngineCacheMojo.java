@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven;
+
+import org.apache.maven.plugins.annotations.Parameter;
+
+/**
+ * A MOJO that maintains the engines of the {@link #engineCacheDirectory}.
+ * 
+ * @since 7.4.0
+ */
+public abstract class AbstractEngineCacheMojo extends AbstractEngineMojo
+{
+  /**
+   * Maximum total size in bytes of all engines in the {@link #engineCacheDirectory}. If the cache exceeds it, 
+   * the least recently used engines are evicted by the installation of an engine into the cache and by the 
+   * <code>clean-engine-cache</code> goal. Engines used by a running build are never evicted.
+   * <code>0</code> does not limit the size.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.cache.max.size", defaultValue="0")
+  long maxCacheSize;
+
+  /**
+   * Maximum number of engines in the {@link #engineCacheDirectory}. If the cache exceeds it, 
+   * the least recently used engines are evicted by the installation of an engine into the cache and by the 
+   * <code>clean-engine-cache</code> goal. Engines used by a running build are never evicted.
+   * <code>0</code> does not limit the number of engines.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.cache.max.engines", defaultValue="0")
+  int maxCachedEngines;
+
+  /**
+   * Maximum time in seconds to wait for the engine installation of another build on the same machine. 
+   * Concurrent builds which share an {@link #engineDirectory} or {@link #engineCacheDirectory} install the engine
+   * one after the other, so that the waiting builds can reuse the installed engine.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.install.lock.timeout", defaultValue="600")
+  long installLockTimeout;
+
+}
@@ -17,6 +17,9 @@
 package ch.ivyteam.ivy.maven;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.apache.maven.artifact.versioning.InvalidVersionSpecificationException;
@@ -25,7 +28,9 @@ import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Parameter;
 
-import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+import ch.ivyteam.ivy.maven.engine.cache.EngineUsage;
+import ch.ivyteam.ivy.maven.engine.cache.EngineVersionIndex;
+import ch.ivyteam.ivy.maven.engine.cache.PartialEngine;
 
 /**
  * A MOJO that relies on an unpacked ivy engine.
@@ -51,8 +56,9 @@ public abstract class AbstractEngineMojo extends AbstractMojo
   File engineDirectory;
   
   /**
-   * Location where ivy engines in required version can be extracted to. 
-   * <p>If the Engine does not yet exist, it can be automatically downloaded. 
+   * Location where ivy engines in required version can be extracted to.
+   * <p>If the Engine does not yet exist, it can be automatically downloaded.
+   * Downloaded engines are stored in sub-directories named by their version and the SHA-256 of their archive.
    */
   @Parameter(defaultValue = "${settings.localRepository}/.cache/ivy", property="ivy.engine.cache.directory")
   protected File engineCacheDirectory;
@@ -70,6 +76,15 @@ public abstract class AbstractEngineMojo extends AbstractMojo
   @Parameter(property="ivy.engine.version", defaultValue = DEFAULT_VERSION, required = true)
   protected String ivyVersion;
 
+  /**
+   * Set to <code>true</code> to launch engine JVMs, i.e. the {@link AbstractProjectCompileMojo#useBuildDaemon build daemon}
+   * and the test engine, with a class data sharing archive. The first JVM records the classes it loads into
+   * the archive, which lets subsequent JVMs start faster. Requires Java 13 or newer.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.class.data.sharing", defaultValue="false")
+  protected boolean classDataSharing;
+
   /** testing only: avoid restriction to minimal version! */
   boolean restrictVersionToMinimalCompatible = true;
   
@@ -93,9 +108,30 @@ public abstract class AbstractEngineMojo extends AbstractMojo
     if (!isEngineDirectoryIdentified())
     {
       engineDirectory = findMatchingEngineInCacheDirectory();
+      if (engineDirectory != null && !recordUsageOfCachedEngine(engineDirectory))
+      { // evicted by another build in the meantime
+        engineDirectory = findMatchingEngineInCacheDirectory();
+      }
     }
     return engineDirectory;
   }
+
+  /**
+   * Protects an engine of the {@link #engineCacheDirectory} from eviction while this build is running.
+   * @return <code>false</code> if the engine was evicted before
+   */
+  protected final boolean recordUsageOfCachedEngine(File engineDir)
+  {
+    try
+    {
+      return EngineUsage.record(engineDir);
+    }
+    catch (IOException ex)
+    {
+      getLog().warn("Failed to record usage of cached engine '" + engineDir + "'.", ex);
+      return true;
+    }
+  }
   
   protected final boolean isEngineDirectoryIdentified()
   {
@@ -111,32 +147,39 @@ public abstract class AbstractEngineMojo extends AbstractMojo
     
     File engineDirToTake = null;
     ArtifactVersion versionOfEngineToTake = null;
-    for (File engineDirCandidate : engineCacheDirectory.listFiles())
+    for (Entry<File, ArtifactVersion> engineDirCandidate : getCachedEngineVersions().entrySet())
     {
-      if (!engineDirCandidate.isDirectory())
-      {
-        continue;
-      }
-
-      ArtifactVersion candidateVersion = getInstalledEngineVersion(engineDirCandidate);
+      ArtifactVersion candidateVersion = engineDirCandidate.getValue();
       if (candidateVersion == null || !getIvyVersionRange().containsVersion(candidateVersion))
       {
         continue;
       }
       if (versionOfEngineToTake == null || versionOfEngineToTake.compareTo(candidateVersion) < 0)
       {
-        engineDirToTake = engineDirCandidate;
+        engineDirToTake = engineDirCandidate.getKey();
         versionOfEngineToTake = candidateVersion;
       }
     }
     return engineDirToTake;
   }
 
+  private Map<File, ArtifactVersion> getCachedEngineVersions() throws MojoExecutionException
+  {
+    try
+    {
+      return EngineVersionIndex.of(engineCacheDirectory, getLog()).getEngineVersions();
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Cannot evaluate engine versions in cache '" + engineCacheDirectory + "'", ex);
+    }
+  }
+
   protected final ArtifactVersion getInstalledEngineVersion(File engineDir) throws MojoExecutionException
   {
     try
     {
-      return new EngineVersionEvaluator(getLog(), engineDir).evaluateVersion();
+      return EngineVersionIndex.evaluateVersion(engineDir, getLog());
     }
     catch (Exception ex)
     {
@@ -144,6 +187,31 @@ public abstract class AbstractEngineMojo extends AbstractMojo
     }
   }
   
+  /**
+   * Unpacks the remaining files of an engine that was installed with a partial extraction profile.
+   */
+  protected final void completePartialEngine(File engineDir) throws MojoExecutionException
+  {
+    if (engineDir == null)
+    {
+      return;
+    }
+    try
+    {
+      PartialEngine partialEngine = PartialEngine.read(engineDir);
+      if (partialEngine != null)
+      {
+        getLog().info("Engine " + engineDir + " was installed with extraction profile '" + partialEngine.getProfile() 
+                + "'. Unpacking the remaining files.");
+        partialEngine.complete(Runtime.getRuntime().availableProcessors(), getLog());
+      }
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to complete partially installed engine '" + engineDir + "'.", ex);
+    }
+  }
+  
   protected final VersionRange getIvyVersionRange() throws MojoExecutionException
   {
     try
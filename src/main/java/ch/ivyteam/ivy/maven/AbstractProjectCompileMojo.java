@@ -17,6 +17,7 @@
 package ch.ivyteam.ivy.maven;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -38,7 +39,11 @@ import org.apache.maven.repository.RepositorySystem;
 import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory;
 import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.MavenContext;
 import ch.ivyteam.ivy.maven.engine.MavenProjectBuilderProxy;
+import ch.ivyteam.ivy.maven.engine.OsgiBootOptions;
+import ch.ivyteam.ivy.maven.engine.OsgiConfigurationArea;
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
 import ch.ivyteam.ivy.maven.engine.Slf4jSimpleEngineProperties;
+import ch.ivyteam.ivy.maven.engine.daemon.BuildDaemonClient;
 
 public abstract class AbstractProjectCompileMojo extends AbstractEngineMojo
 {
@@ -66,55 +71,200 @@ public abstract class AbstractProjectCompileMojo extends AbstractEngineMojo
   @Parameter(property = "ivy.compiler.engine.start.timeout", defaultValue = "60")
   private int timeoutEngineStartInSeconds;
 
+  /**
+   * Set to <code>true</code> to build in a local daemon process, which boots the engine once and keeps it running
+   * for subsequent Maven invocations with the same engine. The daemon exits after {@link #buildDaemonIdleTimeout}.
+   * It boots with the {@link #osgiWarmStart} and {@link #osgiMinimalBootstrap} options of the build that launched it, 
+   * and is only shared by builds with the same options. Running daemons are stopped with the
+   * <code>stop-build-daemons</code> goal.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.compiler.daemon", defaultValue = "false")
+  boolean useBuildDaemon;
+
+  /**
+   * Time in seconds after which an unused build daemon exits. See {@link #useBuildDaemon}.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.compiler.daemon.idle.timeout", defaultValue = "10800")
+  long buildDaemonIdleTimeout;
+
+  /**
+   * Maximum number of project builds that run concurrently inside the engine when modules are built in parallel
+   * (<code>mvn -T</code>). Further builds wait until a running build completes.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.compiler.engine.max.concurrent", defaultValue = "1")
+  int maxConcurrentEngineBuilds;
+
+  /**
+   * Set to <code>true</code> to let the OSGi framework persist its resolved bundles in a configuration area of the
+   * {@link #engineCacheDirectory}, so that subsequent builds with the same engine skip the bundle resolution. 
+   * The area is renewed once the engine plugins change. By default the engine boots from its own OSGi configuration area.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.compiler.osgi.warm.start", defaultValue = "false")
+  boolean osgiWarmStart;
+
+  /**
+   * Set to <code>true</code> to boot only the OSGi framework at start level 1 and then start the build bundle 
+   * together with the bundles it is wired to, instead of the whole engine application. 
+   * Bundle activation timings are logged in debug mode.
+   * The start level of these bundles is lowered to 1 in the OSGi configuration area; combine it with 
+   * {@link #osgiWarmStart} to keep the configuration area of the engine unchanged.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.compiler.osgi.minimal.bootstrap", defaultValue = "false")
+  boolean osgiMinimalBootstrap;
+
   @Component
   private RepositorySystem repository;
   
   @Parameter(defaultValue = "${localRepository}")
   protected ArtifactRepository localRepository;
   
+  /** shared by all modules of a reactor, guarded by the class lock */
   private static MavenProjectBuilderProxy builder;
+  /** compilations of parallel modules that rely on the engine logging properties */
+  private static int activeCompilations = 0;
 
   @Override
   public final void execute() throws MojoExecutionException, MojoFailureException
   {
-    Slf4jSimpleEngineProperties.install();
+    installEngineLogging();
     try
     {
-      compile(getMavenProjectBuilder());
+      File engineDir = identifyAndGetEngineDirectory();
+      if (isUpToDate(engineDir))
+      {
+        writeEngineClasspathJar(getEngineClassloaderFactory(), engineDir);
+        shareEngineDirectory(engineDir);
+        return;
+      }
+      compile(getMavenProjectBuilder(engineDir));
     }
     catch (Exception ex)
     {
       throw new MojoExecutionException("Failed to compile project '"+project.getBasedir()+"'.", ex);
     }
     finally
+    {
+      resetEngineLogging();
+    }
+  }
+
+  private static synchronized void installEngineLogging()
+  {
+    if (activeCompilations++ == 0)
+    {
+      Slf4jSimpleEngineProperties.install();
+    }
+  }
+
+  private static synchronized void resetEngineLogging()
+  {
+    if (--activeCompilations == 0)
     {
       Slf4jSimpleEngineProperties.reset();
     }
   }
   
-  protected abstract void compile(MavenProjectBuilderProxy projectBuilder) throws Exception;
+  protected abstract void compile(ProjectBuilder projectBuilder) throws Exception;
 
-  private MavenProjectBuilderProxy getMavenProjectBuilder() throws Exception
+  /**
+   * @param engineDir the engine to build with
+   * @return <code>true</code> if the results of a previous build are still valid, so that the engine is not started.
+   * @since 7.4.0
+   */
+  protected boolean isUpToDate(File engineDir) throws Exception
+  {
+    return false;
+  }
+
+  private ProjectBuilder getMavenProjectBuilder(File engineDir) throws Exception
   {
     EngineClassLoaderFactory classLoaderFactory = getEngineClassloaderFactory();
 
-    File engineDir = identifyAndGetEngineDirectory();
-    if (builder == null)
+    if (useBuildDaemon)
+    {
+      writeEngineClasspathJar(classLoaderFactory, engineDir);
+      shareEngineDirectory(engineDir);
+      return BuildDaemonClient.create(new File(engineCacheDirectory, BuildDaemonClient.DAEMONS_DIRECTORY), engineDir, classLoaderFactory.getEngineClassLoaderClasspath(engineDir),
+              getOsgiAreasDirectory(), osgiMinimalBootstrap, buildApplicationDirectory, timeoutEngineStartInSeconds, buildDaemonIdleTimeout, getLog())
+              .withClassDataSharing(classDataSharing);
+    }
+    MavenProjectBuilderProxy engineBuilder = getOrCreateBuilder(classLoaderFactory, engineDir);
+    writeEngineClasspathJar(classLoaderFactory, engineDir);
+    shareEngineDirectory(engineDir);
+    return engineBuilder;
+  }
+
+  private MavenProjectBuilderProxy getOrCreateBuilder(EngineClassLoaderFactory classLoaderFactory, File engineDir) throws Exception
+  {
+    synchronized (AbstractProjectCompileMojo.class)
+    {
+      if (builder == null)
+      {
+        MavenProjectBuilderProxy newBuilder = new MavenProjectBuilderProxy(
+                classLoaderFactory,
+                buildApplicationDirectory,
+                engineDir,
+                getOsgiBootOptions(engineDir),
+                getLog(),
+                timeoutEngineStartInSeconds);
+        newBuilder.setMaxConcurrentBuilds(maxConcurrentEngineBuilds);
+        builder = newBuilder;
+      }
+      return builder;
+    }
+  }
+
+  private OsgiBootOptions getOsgiBootOptions(File engineDir) throws IOException
+  {
+    File configurationArea = null;
+    File areasDir = getOsgiAreasDirectory();
+    if (areasDir != null)
+    {
+      configurationArea = OsgiConfigurationArea.acquire(areasDir, engineDir, getLog());
+    }
+    return new OsgiBootOptions(configurationArea, osgiMinimalBootstrap);
+  }
+
+  /**
+   * @return the directory of the configuration areas to warm start from, <code>null</code> if disabled.
+   */
+  private File getOsgiAreasDirectory()
+  {
+    if (osgiWarmStart && engineCacheDirectory != null)
     {
-      builder = new MavenProjectBuilderProxy(
-              classLoaderFactory,
-              buildApplicationDirectory,
-              engineDir,
-              getLog(),
-              timeoutEngineStartInSeconds);
+      return new File(engineCacheDirectory, OsgiConfigurationArea.AREAS_DIRECTORY);
     }
-    classLoaderFactory.writeEngineClasspathJar(engineDir);
-    // share engine directory as property for custom follow up plugins:
+    return null;
+  }
+
+  /**
+   * includes the jars that the framework unpacked into a warm start configuration area
+   */
+  private void writeEngineClasspathJar(EngineClassLoaderFactory classLoaderFactory, File engineDir) throws IOException
+  {
+    List<File> unpackedBundleJars = new ArrayList<>();
+    File areasDir = getOsgiAreasDirectory();
+    if (areasDir != null && engineDir != null)
+    {
+      unpackedBundleJars = OsgiConfigurationArea.getUnpackedBundleJars(OsgiConfigurationArea.locate(areasDir, engineDir));
+    }
+    classLoaderFactory.writeEngineClasspathJar(engineDir, unpackedBundleJars);
+  }
+
+  /**
+   * share engine directory as property for custom follow up plugins
+   */
+  private void shareEngineDirectory(File engineDir)
+  {
     if (engineDir != null)
     {
       project.getProperties().put(AbstractEngineMojo.ENGINE_DIRECTORY_PROPERTY, engineDir.getAbsolutePath());
     }
-    return builder;
   }
 
   private EngineClassLoaderFactory getEngineClassloaderFactory()
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import ch.ivyteam.ivy.maven.engine.cache.EngineEviction;
+import ch.ivyteam.ivy.maven.engine.cache.InstallLock;
+
+/**
+ * Evicts the least recently used engines from the {@link #engineCacheDirectory} until it fits into the configured
+ * budget. Engines used by a running build are never evicted.
+ *
+ * <p>Command line invocation is supported. E.g.</p>
+ * <pre>mvn com.axonivy.ivy.ci:project-build-plugin:7.4.0:clean-engine-cache
+ * -Divy.engine.cache.max.engines=2</pre>
+ *
+ * @since 7.4.0
+ */
+@Mojo(name=CleanEngineCacheMojo.GOAL, requiresProject=false)
+public class CleanEngineCacheMojo extends AbstractEngineCacheMojo
+{
+  public static final String GOAL = "clean-engine-cache";
+
+  @Override
+  public void execute() throws MojoExecutionException
+  {
+    if (maxCacheSize <= 0 && maxCachedEngines <= 0)
+    {
+      getLog().info("Skipping engine cache cleanup: neither 'ivy.engine.cache.max.size' nor 'ivy.engine.cache.max.engines' is set.");
+      return;
+    }
+    if (engineCacheDirectory == null || !engineCacheDirectory.isDirectory())
+    {
+      getLog().info("Engine cache '" + engineCacheDirectory + "' does not exist.");
+      return;
+    }
+    File lockFile = new File(engineCacheDirectory, InstallEngineMojo.CACHE_LOCK_FILE);
+    try(InstallLock lock = InstallLock.acquire(lockFile, TimeUnit.SECONDS.toMillis(installLockTimeout), getLog()))
+    {
+      List<File> evicted = new EngineEviction(engineCacheDirectory, getLog()).evict(maxCacheSize, maxCachedEngines);
+      getLog().info("Evicted " + evicted.size() + " engines from cache '" + engineCacheDirectory + "'.");
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to clean engine cache '" + engineCacheDirectory + "'.", ex);
+    }
+  }
+
+}
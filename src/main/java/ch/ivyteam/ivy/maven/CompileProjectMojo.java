@@ -18,15 +18,21 @@ package ch.ivyteam.ivy.maven;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
+import org.apache.maven.artifact.versioning.ArtifactVersion;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 
-import ch.ivyteam.ivy.maven.engine.MavenProjectBuilderProxy;
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+import ch.ivyteam.ivy.maven.engine.cache.IarJarCache;
+import ch.ivyteam.ivy.maven.util.BuildFingerprint;
 import ch.ivyteam.ivy.maven.util.ClasspathJar;
 import ch.ivyteam.ivy.maven.util.SharedFile;
 
@@ -40,6 +46,9 @@ import ch.ivyteam.ivy.maven.util.SharedFile;
 public class CompileProjectMojo extends AbstractProjectCompileMojo
 {
   public static final String GOAL = "compileProject";
+
+  /** written by the engine into the project directory, therefore not an input of the build */
+  private static final List<String> GENERATED_DIRS = Arrays.asList("classes", "classes-test", "src_dataClasses", "src_wsproc");
   
   /** 
    * Set to <code>true</code> to bypass the generation of <b>ivy data classes</b>+<b>webservice processes</b> and compilation of <b>java sources</b>.
@@ -54,17 +63,97 @@ public class CompileProjectMojo extends AbstractProjectCompileMojo
    */
   @Parameter(property="ivy.script.validation.skip", defaultValue="true")
   boolean skipScriptValidation;
+
+  /**
+   * Set to <code>false</code> to always compile the project. By default the engine is not started if the sources
+   * of the project, its dependencies, the engine and the compiler options are unchanged since the last compilation.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.compiler.incremental", defaultValue="true")
+  boolean incremental;
+
+  /**
+   * Set to <code>false</code> to let the engine create the IAR-JARs of all IAR dependencies in every build.
+   * By default they are shared among builds in the {@link #engineCacheDirectory}, keyed by the checksum of the IAR
+   * and the engine version.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.compiler.iar.jar.cache", defaultValue="true")
+  boolean cacheIarJars;
+
+  /** of the inputs of this build */
+  private String fingerprint;
+
+  @Override
+  protected boolean isUpToDate(File engineDir) throws Exception
+  {
+    if (skipCompilation || !incremental || engineDir == null)
+    { // without a known engine the build can not be fingerprinted
+      return false;
+    }
+    fingerprint = computeFingerprint(engineDir);
+    if (BuildFingerprint.matches(new SharedFile(project).getCompileFingerprint(), fingerprint) && hasBuildOutput())
+    {
+      getLog().info("Skipping compilation of ivy Project: it is unchanged since the last compilation.");
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return <code>true</code> if the results of the last compilation, which later goals rely on, still exist.
+   */
+  private boolean hasBuildOutput()
+  {
+    if (!new File(project.getBasedir(), "classes").isDirectory())
+    {
+      return false;
+    }
+    if (getDependencies("iar").isEmpty())
+    {
+      return true;
+    }
+    File iarJarClasspath = new SharedFile(project).getIarDependencyClasspathJar();
+    return iarJarClasspath.isFile() 
+            && new ClasspathJar(iarJarClasspath).getFiles().stream().allMatch(File::isFile);
+  }
+
+  private String computeFingerprint(File engineDir) throws Exception
+  {
+    List<File> excludedDirs = GENERATED_DIRS.stream()
+            .map(dir -> new File(project.getBasedir(), dir).getAbsoluteFile())
+            .collect(Collectors.toList());
+    excludedDirs.add(new File(project.getBuild().getDirectory()).getAbsoluteFile());
+    excludedDirs.add(new File(project.getBasedir(), ".git").getAbsoluteFile());
+
+    BuildFingerprint buildFingerprint = new BuildFingerprint()
+            .add("engine", engineDir.getCanonicalPath())
+            .add("engine.version", getInstalledEngineVersion(engineDir))
+            .add("skipScriptValidation", skipScriptValidation)
+            .addOptions(getOptions());
+    for (File dependency : getDependencies("iar"))
+    {
+      buildFingerprint.addFile(dependency);
+    }
+    for (File dependency : getDependencies("jar"))
+    {
+      buildFingerprint.addFile(dependency);
+    }
+    return buildFingerprint.addDirectory(project.getBasedir(), excludedDirs).compute();
+  }
   
   @Override
-  protected void compile(MavenProjectBuilderProxy projectBuilder) throws Exception
+  protected void compile(ProjectBuilder projectBuilder) throws Exception
   {
     if (skipCompilation)
     {
       return;
     }
     
+    File fingerprintFile = new SharedFile(project).getCompileFingerprint();
+    Files.deleteIfExists(fingerprintFile.toPath());
     getLog().info("Compiling ivy Project...");
-    List<File> iarJars = projectBuilder.createIarJars(getDependencies("iar"));
+    List<File> iarJars = createIarJars(projectBuilder, getDependencies("iar"));
     Map<String, String> options = getOptions();
     projectBuilder.compile(project.getBasedir(), iarJars, options);
     
@@ -78,8 +167,26 @@ public class CompileProjectMojo extends AbstractProjectCompileMojo
     }
     
     writeDependencyIarJar(iarJars);
+    if (fingerprint != null)
+    {
+      BuildFingerprint.store(fingerprintFile, fingerprint);
+    }
   }
   
+  private List<File> createIarJars(ProjectBuilder projectBuilder, List<File> iars) throws Exception
+  {
+    ArtifactVersion engineVersion = null;
+    if (cacheIarJars && engineCacheDirectory != null)
+    {
+      engineVersion = getInstalledEngineVersion(identifyAndGetEngineDirectory());
+    }
+    if (engineVersion == null)
+    { // IAR-JARs are only shared among engines of a known version
+      return projectBuilder.createIarJars(iars);
+    }
+    return new IarJarCache(engineCacheDirectory, engineVersion.toString(), getLog()).getIarJars(iars, projectBuilder);
+  }
+
   private void writeDependencyIarJar(Collection<File> iarJarDepenencies) throws IOException
   {
     if (iarJarDepenencies == null)
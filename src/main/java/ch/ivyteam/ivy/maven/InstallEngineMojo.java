@@ -18,31 +18,48 @@ package ch.ivyteam.ivy.maven;
 
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
-import java.util.Scanner;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.SystemUtils;
 import org.apache.maven.artifact.versioning.ArtifactVersion;
-import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.apache.maven.artifact.versioning.VersionRange;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+import ch.ivyteam.ivy.maven.engine.cache.CachedEngine;
+import ch.ivyteam.ivy.maven.engine.cache.EngineCache;
+import ch.ivyteam.ivy.maven.engine.cache.EngineEviction;
+import ch.ivyteam.ivy.maven.engine.cache.EngineLinker;
+import ch.ivyteam.ivy.maven.engine.cache.EngineVersionIndex;
+import ch.ivyteam.ivy.maven.engine.cache.InstallLock;
+import ch.ivyteam.ivy.maven.engine.cache.PartialEngine;
+import ch.ivyteam.ivy.maven.engine.download.EngineListPage;
+import ch.ivyteam.ivy.maven.engine.download.SegmentedDownload;
+import ch.ivyteam.ivy.maven.engine.unpack.EngineArchiveExtractor;
+import ch.ivyteam.ivy.maven.engine.unpack.ExtractionProfile;
+import ch.ivyteam.ivy.maven.engine.unpack.StreamingZipExtractor;
 import ch.ivyteam.ivy.maven.util.UrlRedirectionResolver;
-import net.lingala.zip4j.core.ZipFile;
-import net.lingala.zip4j.exception.ZipException;
 
 /**
  * Downloads an AXON.IVY Engine from the NET if it does not yet exists in the correct version.
@@ -57,11 +74,13 @@ import net.lingala.zip4j.exception.ZipException;
  * @since 6.0.0
  */
 @Mojo(name=InstallEngineMojo.GOAL, requiresProject=false)
-public class InstallEngineMojo extends AbstractEngineMojo
+public class InstallEngineMojo extends AbstractEngineCacheMojo
 {
   public static final String GOAL = "installEngine";
   public static final String ENGINE_LIST_URL_PROPERTY = "ivy.engine.list.url";
   public static final String DEFAULT_ARCH = "Slim_All_x64";
+  static final String CACHE_LOCK_FILE = ".install.lock";
+  private static final String ENGINE_LIST_CACHE_FILE = ".index/engine-list.properties";
   
   /**
    * URL where a packed ivy Engine can be downloaded. E.g.
@@ -103,6 +122,91 @@ public class InstallEngineMojo extends AbstractEngineMojo
   @Parameter(property="ivy.engine.auto.install", defaultValue="true") 
   boolean autoInstallEngine;
 
+  /**
+   * Number of concurrent connections used to download the engine. 
+   * A value greater than <code>1</code> enables the segmented download: the engine is fetched in
+   * HTTP Range chunks of {@link #downloadChunkSize} bytes, which are kept next to the downloaded file
+   * until the download is complete. An interrupted download is resumed on the next run.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.download.segments", defaultValue="1")
+  int downloadSegments;
+
+  /**
+   * Size in bytes of a single HTTP Range chunk of a segmented download. See {@link #downloadSegments}.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.download.chunk.size", defaultValue="8388608")
+  long downloadChunkSize;
+
+  /**
+   * Unpacks the engine while it is downloaded, instead of downloading it to a temporary file first. 
+   * The archive never hits the disk and the installation time approaches the download time.
+   * The integrity of the archive is verified after the last byte arrived. 
+   * The {@link #downloadSegments segmented download} is not used in this mode.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.install.streaming", defaultValue="false")
+  boolean streamingInstall;
+
+  /**
+   * Number of threads used to unpack a downloaded engine. 
+   * A value greater than <code>1</code> inflates the entries of the engine concurrently.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.unpack.threads", defaultValue="1")
+  int unpackThreads;
+
+  /**
+   * Re-validates the files of an engine from the {@link #engineCacheDirectory} against the file hashes 
+   * which were recorded when it was installed. A corrupt engine is removed and installed again.
+   * Without verification a completely installed engine of the cache is trusted as is.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.cache.verify", defaultValue="false")
+  boolean verifyCachedEngine;
+
+  /**
+   * Time in seconds during which the engine links of the {@link #engineListPageUrl} are resolved from a copy in the
+   * {@link #engineCacheDirectory}. Afterwards the page is re-validated with a conditional request.
+   * <code>0</code> re-validates the page on every engine download.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.list.cache.ttl", defaultValue="86400")
+  long engineListCacheTtl;
+
+  /**
+   * Resolves the engine download link only from the copy of the {@link #engineListPageUrl} in the
+   * {@link #engineCacheDirectory}, without requesting the page.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.list.offline", defaultValue="${settings.offline}")
+  boolean engineListOffline;
+
+  /**
+   * Installs the engine into an explicit {@link #engineDirectory} from the {@link #engineCacheDirectory}. 
+   * The engine is downloaded into the cache first, if the cache holds no engine in the required version.
+   * The library trees of the engine (e.g. <code>system/plugins</code>, <code>lib</code>) are hard-linked, 
+   * all other files are copied. If hard links are not supported, e.g. across file systems, all files are copied.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.install.link", defaultValue="false")
+  boolean linkEngineFromCache;
+
+  /**
+   * Selects the files of the engine archive which are unpacked during the installation.
+   * Possible values are:
+   * <ul>
+   *    <li>full: the complete engine</li>
+   *    <li>compile: only the libraries and the OSGi configuration area that are required to compile projects</li>
+   * </ul>
+   * A partially unpacked engine keeps its archive. The remaining files are unpacked as soon as a goal requires
+   * the complete engine, e.g. <code>start-test-engine</code> or an installation with the <code>full</code> profile.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.install.profile", defaultValue="full")
+  String installProfile;
+
   @Override
   public void execute() throws MojoExecutionException
   {
@@ -111,6 +215,77 @@ public class InstallEngineMojo extends AbstractEngineMojo
   }
 
   private void ensureEngineIsInstalled() throws MojoExecutionException
+  {
+    File lockFile = getInstallLockFile();
+    try(InstallLock lock = InstallLock.acquire(lockFile, TimeUnit.SECONDS.toMillis(installLockTimeout), getLog()))
+    {
+      if (lock.getStaleOwner() != null)
+      {
+        removeStaleInstallation();
+      }
+      installEngineIfRequired();
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to coordinate the engine installation with other builds via '" + lockFile + "'.", ex);
+    }
+  }
+
+  /**
+   * @return lock for the explicit {@link #engineDirectory} next to it, or the lock of the {@link #engineCacheDirectory}.
+   */
+  private File getInstallLockFile()
+  {
+    if (isEngineDirectoryIdentified())
+    {
+      File engineDir = getRawEngineDirectory().getAbsoluteFile();
+      return new File(engineDir.getParentFile(), engineDir.getName() + ".lock");
+    }
+    return getCacheLockFile();
+  }
+
+  private File getCacheLockFile()
+  {
+    return new File(engineCacheDirectory, CACHE_LOCK_FILE);
+  }
+
+  /**
+   * @return marker next to the explicit {@link #engineDirectory}, which exists while an installation changes its content.
+   */
+  private File getInstallMarkerFile()
+  {
+    File engineDir = getRawEngineDirectory().getAbsoluteFile();
+    return new File(engineDir.getParentFile(), engineDir.getName() + ".installing");
+  }
+
+  private void removeStaleInstallation() throws MojoExecutionException
+  {
+    if (isEngineDirectoryIdentified())
+    {
+      removeStagingDirectories();
+      if (!getInstallMarkerFile().exists())
+      { // interrupted before the engine directory was touched, e.g. while checking the version or downloading
+        return;
+      }
+      if (!autoInstallEngine)
+      {
+        getLog().warn("Engine in '" + getRawEngineDirectory() + "' is possibly incomplete: its installation was interrupted.");
+        return;
+      }
+      getLog().warn("Removing possibly incomplete engine in '" + getRawEngineDirectory() + "'.");
+      if (getRawEngineDirectory().isDirectory())
+      {
+        removeOldEngineContent();
+      }
+      getInstallMarkerFile().delete();
+    }
+    else
+    {
+      new EngineCache(engineCacheDirectory, getLog()).discardStagingDirectories();
+    }
+  }
+
+  private void installEngineIfRequired() throws MojoExecutionException
   {
     VersionRange ivyVersionRange = getIvyVersionRange();
     if (identifyAndGetEngineDirectory() == null)
@@ -119,6 +294,15 @@ public class InstallEngineMojo extends AbstractEngineMojo
     }
     else
     {
+      if (verifyCachedEngine && removeCorruptCachedEngine())
+      {
+        if (getRawEngineDirectory().getParentFile().equals(engineCacheDirectory))
+        {
+          engineDirectory = null;
+        }
+        handleNoInstalledEngine();
+        return;
+      }
       if (engineDirectoryIsEmpty())
       {
         getRawEngineDirectory().mkdirs();
@@ -130,6 +314,10 @@ public class InstallEngineMojo extends AbstractEngineMojo
       {
         handleWrongIvyVersion(installedEngineVersion);
       }
+      else if (getExtractionProfile() == ExtractionProfile.FULL)
+      {
+        completePartialEngine(getRawEngineDirectory());
+      }
     }
   }
 
@@ -153,19 +341,14 @@ public class InstallEngineMojo extends AbstractEngineMojo
     {
       getLog().info("Will automatically download Engine now.");
       EngineDownloader engineDownloader = new EngineDownloader();
-      File downloadZip = engineDownloader.downloadEngine();
-      if (cleanEngineDir)
+      if (isEngineDirectoryIdentified())
       {
-        removeOldEngineContent();
+        installEngine(engineDownloader, cleanEngineDir);
       }
-      if (!isEngineDirectoryIdentified())
+      else
       {
-        String engineZipFileName = engineDownloader.getZipFileNameFromDownloadUrl();
-        engineDirectory = new File(engineCacheDirectory, ivyEngineVersionOfZip(engineZipFileName));
-        engineDirectory.mkdirs();
+        engineDirectory = installEngineIntoCache(engineDownloader);
       }
-      unpackEngine(downloadZip);
-      downloadZip.delete();
       
       ArtifactVersion installedEngineVersion = getInstalledEngineVersion(getRawEngineDirectory());
       if (installedEngineVersion == null)
@@ -186,6 +369,293 @@ public class InstallEngineMojo extends AbstractEngineMojo
     }
   }
 
+  private void installEngine(EngineDownloader engineDownloader, boolean cleanEngineDir) throws MojoExecutionException
+  {
+    installEngineContent(engineDownloader, cleanEngineDir);
+    getInstallMarkerFile().delete();
+  }
+
+  private void installEngineContent(EngineDownloader engineDownloader, boolean cleanEngineDir) throws MojoExecutionException
+  {
+    if (linkEngineFromCache)
+    {
+      File cachedEngine = provideEngineInCache(engineDownloader);
+      if (getExtractionProfile() == ExtractionProfile.FULL)
+      {
+        completePartialEngine(cachedEngine);
+      }
+      prepareEngineDirectory(cleanEngineDir);
+      linkEngine(cachedEngine);
+    }
+    else if (streamingInstall)
+    {
+      URL engineUrl = engineDownloader.getEngineDownloadUrl();
+      File stagingDir = createStagingDirectory();
+      try
+      { // the engine directory stays untouched if the download fails
+        engineDownloader.downloadAndUnpackEngine(engineUrl, stagingDir);
+        prepareEngineDirectory(cleanEngineDir);
+        moveIntoEngineDirectory(stagingDir);
+      }
+      finally
+      {
+        FileUtils.deleteQuietly(stagingDir);
+      }
+    }
+    else
+    {
+      File downloadZip = engineDownloader.downloadEngine();
+      prepareEngineDirectory(cleanEngineDir);
+      unpackEngine(downloadZip, getRawEngineDirectory());
+      keepArchiveOfPartialEngine(downloadZip, getRawEngineDirectory());
+      downloadZip.delete();
+    }
+  }
+
+  /**
+   * Must be called right before the content of the engine directory is changed: an installation that is killed
+   * from now on leaves the {@link #getInstallMarkerFile() marker} behind, so that the next build cleans up.
+   */
+  private void prepareEngineDirectory(boolean cleanEngineDir) throws MojoExecutionException
+  {
+    try
+    {
+      FileUtils.touch(getInstallMarkerFile());
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to mark the installation of engine '" + getRawEngineDirectory() + "'.", ex);
+    }
+    if (cleanEngineDir)
+    {
+      removeOldEngineContent();
+    }
+    getRawEngineDirectory().mkdirs();
+  }
+
+  /**
+   * @return an empty directory next to the engine directory, so that its content can be moved into place.
+   */
+  private File createStagingDirectory() throws MojoExecutionException
+  {
+    File engineDir = getRawEngineDirectory().getAbsoluteFile();
+    try
+    {
+      Files.createDirectories(engineDir.getParentFile().toPath());
+      return Files.createTempDirectory(engineDir.getParentFile().toPath(), getStagingPrefix()).toFile();
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to create staging directory for engine '" + engineDir + "'.", ex);
+    }
+  }
+
+  private String getStagingPrefix()
+  {
+    return "." + getRawEngineDirectory().getAbsoluteFile().getName() + ".staging-";
+  }
+
+  /**
+   * Removes the staging directories of an installation that was killed before it could clean up.
+   */
+  private void removeStagingDirectories()
+  {
+    String prefix = getStagingPrefix();
+    File[] stagingDirs = getRawEngineDirectory().getAbsoluteFile().getParentFile()
+            .listFiles(file -> file.isDirectory() && file.getName().startsWith(prefix));
+    if (stagingDirs == null)
+    {
+      return;
+    }
+    for (File stagingDir : stagingDirs)
+    {
+      getLog().debug("Removing engine staging directory " + stagingDir);
+      FileUtils.deleteQuietly(stagingDir);
+    }
+  }
+
+  private void moveIntoEngineDirectory(File stagingDir) throws MojoExecutionException
+  {
+    try
+    {
+      moveInto(stagingDir, getRawEngineDirectory());
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to move unpacked engine from '" + stagingDir + "' to '" + getRawEngineDirectory() + "'.", ex);
+    }
+  }
+
+  /**
+   * Moves the content of the source into the target directory. Existing files of the target are replaced, 
+   * all others are kept.
+   */
+  static void moveInto(File sourceDir, File targetDir) throws IOException
+  {
+    File[] children = sourceDir.listFiles();
+    if (children == null)
+    {
+      return;
+    }
+    Files.createDirectories(targetDir.toPath());
+    for (File child : children)
+    {
+      File target = new File(targetDir, child.getName());
+      if (child.isDirectory() && target.isDirectory())
+      {
+        moveInto(child, target);
+      }
+      else
+      {
+        if (target.isDirectory())
+        {
+          FileUtils.deleteDirectory(target);
+        }
+        Files.move(child.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  /**
+   * @return a matching engine of the {@link #engineCacheDirectory}, which is installed if it does not yet exist.
+   */
+  private File provideEngineInCache(EngineDownloader engineDownloader) throws MojoExecutionException
+  {
+    File lockFile = getCacheLockFile();
+    try(InstallLock lock = InstallLock.acquire(lockFile, TimeUnit.SECONDS.toMillis(installLockTimeout), getLog()))
+    {
+      if (lock.getStaleOwner() != null)
+      {
+        new EngineCache(engineCacheDirectory, getLog()).discardStagingDirectories();
+      }
+      File cachedEngine = findMatchingEngineInCacheDirectory();
+      if (cachedEngine == null)
+      {
+        cachedEngine = installEngineIntoCache(engineDownloader);
+      }
+      else
+      {
+        recordUsageOfCachedEngine(cachedEngine);
+      }
+      return cachedEngine;
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to coordinate the engine installation with other builds via '" + lockFile + "'.", ex);
+    }
+  }
+
+  private void linkEngine(File cachedEngine) throws MojoExecutionException
+  {
+    try
+    {
+      new EngineLinker(getLog()).link(cachedEngine, getRawEngineDirectory());
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to link engine '" + cachedEngine + "' into '" + getRawEngineDirectory() + "'.", ex);
+    }
+  }
+
+  /**
+   * Unpacks the engine into a staging directory of the {@link EngineCache}, which is published 
+   * under the SHA-256 of the engine archive once it is complete.
+   * @return the installed engine directory
+   */
+  private File installEngineIntoCache(EngineDownloader engineDownloader) throws MojoExecutionException
+  {
+    EngineCache cache = new EngineCache(engineCacheDirectory, getLog());
+    File stagingDir = null;
+    try
+    {
+      CachedEngine cachedEngine;
+      if (streamingInstall)
+      {
+        URL engineUrl = engineDownloader.getEngineDownloadUrl();
+        stagingDir = cache.createStagingDirectory();
+        String sha256 = engineDownloader.downloadAndUnpackEngine(engineUrl, stagingDir);
+        cachedEngine = cache.commit(stagingDir, getCacheEntryName(engineDownloader), sha256);
+      }
+      else
+      {
+        File downloadZip = engineDownloader.downloadEngine();
+        String sha256 = EngineCache.sha256(downloadZip);
+        cachedEngine = cache.find(sha256);
+        if (cachedEngine == null)
+        {
+          stagingDir = cache.createStagingDirectory();
+          unpackEngine(downloadZip, stagingDir);
+          keepArchiveOfPartialEngine(downloadZip, stagingDir);
+          cachedEngine = cache.commit(stagingDir, getCacheEntryName(engineDownloader), sha256);
+        }
+        else
+        {
+          getLog().info("Engine archive is already unpacked in " + cachedEngine.getDirectory());
+        }
+        downloadZip.delete();
+      }
+      EngineVersionIndex.of(engineCacheDirectory, getLog()).put(cachedEngine.getDirectory(), cachedEngine.getVersion());
+      recordUsageOfCachedEngine(cachedEngine.getDirectory());
+      evictCachedEngines();
+      return cachedEngine.getDirectory();
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to install engine into cache '" + engineCacheDirectory + "'.", ex);
+    }
+    finally
+    {
+      if (stagingDir != null && stagingDir.exists())
+      { // never leave a partially unpacked engine behind
+        cache.discard(stagingDir);
+      }
+    }
+  }
+
+  /**
+   * Evicts the least recently used engines if the cache exceeds its budget. 
+   * Must only be called while holding the {@link InstallLock} of the cache.
+   */
+  private void evictCachedEngines() throws IOException
+  {
+    new EngineEviction(engineCacheDirectory, getLog()).evict(maxCacheSize, maxCachedEngines);
+  }
+
+  private static String getCacheEntryName(EngineDownloader engineDownloader)
+  {
+    return ivyEngineVersionOfZip(engineDownloader.getZipFileNameFromDownloadUrl());
+  }
+
+  /**
+   * @return <code>true</code> if the engine files no longer match the manifest of the engine cache. 
+   * The corrupt engine is removed.
+   */
+  private boolean removeCorruptCachedEngine() throws MojoExecutionException
+  {
+    File engineDir = getRawEngineDirectory();
+    try
+    {
+      CachedEngine cachedEngine = CachedEngine.read(engineDir);
+      if (cachedEngine == null)
+      {
+        return false;
+      }
+      List<String> changedFiles = cachedEngine.verify();
+      if (changedFiles.isEmpty())
+      {
+        return false;
+      }
+      getLog().warn("Engine in '" + engineDir + "' is corrupt: " + changedFiles.size() 
+              + " files differ from its manifest, e.g. '" + changedFiles.get(0) + "'. Removing it.");
+      FileUtils.deleteDirectory(engineDir);
+      return true;
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to verify engine in '" + engineDir + "'.", ex);
+    }
+  }
+
   static String ivyEngineVersionOfZip(String engineZipFileName)
   {
     Matcher matcher = Pattern.compile("[a-zA-Z]*(([\\d]+\\.?)+)*").matcher(engineZipFileName);
@@ -217,20 +687,52 @@ public class InstallEngineMojo extends AbstractEngineMojo
     return !getRawEngineDirectory().isDirectory() || ArrayUtils.isEmpty(getRawEngineDirectory().listFiles());
   }
 
-  private void unpackEngine(File downloadZip) throws MojoExecutionException
+  private void unpackEngine(File downloadZip, File targetDir) throws MojoExecutionException
   {
+    ExtractionProfile profile = getExtractionProfile();
+    getLog().info("Unpacking engine " + downloadZip.getAbsolutePath() + " to " + targetDir.getAbsolutePath()
+            + " with extraction profile '" + profile + "'");
     try
     {
-      String targetLocation = getRawEngineDirectory().getAbsolutePath();
-      getLog().info("Unpacking engine " + downloadZip.getAbsolutePath() + " to " + targetLocation);
-      ZipFile engineZip = new ZipFile(downloadZip);
-      engineZip.extractAll(targetLocation);
+      new EngineArchiveExtractor(downloadZip, unpackThreads, getLog()).extract(targetDir, profile);
     }
-    catch (ZipException ex)
+    catch (IOException ex)
     {
       throw new MojoExecutionException("Failed to unpack downloaded engine '" + downloadZip + "'.", ex);
     }
   }
+
+  /**
+   * Moves the archive of a partially unpacked engine into the engine directory, so that it can be completed later.
+   */
+  private void keepArchiveOfPartialEngine(File downloadZip, File engineDir) throws MojoExecutionException
+  {
+    ExtractionProfile profile = getExtractionProfile();
+    if (profile == ExtractionProfile.FULL)
+    {
+      return;
+    }
+    try
+    {
+      PartialEngine.record(engineDir, profile, downloadZip);
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to keep engine archive '" + downloadZip + "' in '" + engineDir + "'.", ex);
+    }
+  }
+
+  private ExtractionProfile getExtractionProfile() throws MojoExecutionException
+  {
+    try
+    {
+      return ExtractionProfile.fromName(installProfile);
+    }
+    catch (IllegalArgumentException ex)
+    {
+      throw new MojoExecutionException(ex.getMessage(), ex);
+    }
+  }
   
   File getDownloadDirectory()
   {
@@ -242,16 +744,77 @@ public class InstallEngineMojo extends AbstractEngineMojo
     private String zipFileName = null;
     
     private File downloadEngine() throws MojoExecutionException
+    {
+      return downloadEngineFromUrl(getEngineDownloadUrl());
+    }
+
+    private URL getEngineDownloadUrl() throws MojoExecutionException
     {
       URL downloadUrlToUse = (engineDownloadUrl != null) ? engineDownloadUrl : findEngineDownloadUrlFromListPage();
-      return downloadEngineFromUrl(downloadUrlToUse);
+      zipFileName = StringUtils.substringAfterLast(downloadUrlToUse.toExternalForm(), "/");
+      return downloadUrlToUse;
     }
   
     private URL findEngineDownloadUrlFromListPage() throws MojoExecutionException
     {
-      try (InputStream pageStream = new UrlRedirectionResolver().followRedirections(engineListPageUrl))
+      File cacheFile = new File(engineCacheDirectory, ENGINE_LIST_CACHE_FILE);
+      EngineListPage cachedPage = loadCachedEngineListPage(cacheFile);
+      if (cachedPage != null && (engineListOffline || cachedPage.isFresh(TimeUnit.SECONDS.toMillis(engineListCacheTtl))))
+      {
+        URL engineUrl = cachedPage.findEngineUrl(getIvyVersionRange(), osArchitecture);
+        if (engineUrl != null || engineListOffline)
+        {
+          return requireEngineLink(engineUrl);
+        }
+        getLog().debug("Cached engine list page has no link to the required engine.");
+      }
+      if (engineListOffline)
+      {
+        throw new MojoExecutionException("Can not resolve the engine download link in offline mode: the list page "
+                + engineListPageUrl + " is not cached in '" + cacheFile + "'.");
+      }
+
+      EngineListPage page = fetchEngineListPage(cachedPage);
+      try
       {
-        return findEngineDownloadUrl(pageStream);
+        page.store(cacheFile);
+      }
+      catch (IOException ex)
+      {
+        getLog().warn("Failed to cache engine list page in '" + cacheFile + "'.", ex);
+      }
+      return requireEngineLink(page.findEngineUrl(getIvyVersionRange(), osArchitecture));
+    }
+
+    private EngineListPage loadCachedEngineListPage(File cacheFile)
+    {
+      try
+      {
+        return EngineListPage.load(cacheFile, engineListPageUrl);
+      }
+      catch (IOException | RuntimeException ex)
+      {
+        getLog().warn("Ignoring unreadable engine list page cache '" + cacheFile + "'.", ex);
+        return null;
+      }
+    }
+
+    private EngineListPage fetchEngineListPage(EngineListPage cachedPage) throws MojoExecutionException
+    {
+      UrlRedirectionResolver resolver = new UrlRedirectionResolver();
+      String eTag = cachedPage == null ? null : cachedPage.getETag();
+      long lastModified = cachedPage == null ? 0 : cachedPage.getLastModified();
+      try (InputStream pageStream = resolver.followRedirections(engineListPageUrl, eTag, lastModified))
+      {
+        if (pageStream == null)
+        {
+          getLog().debug("Engine list page " + engineListPageUrl + " is not modified.");
+          cachedPage.revalidated();
+          return cachedPage;
+        }
+        EngineListPage page = EngineListPage.parse(engineListPageUrl, pageStream);
+        page.setValidators(resolver.getETag(), resolver.getLastModified());
+        return page;
       }
       catch (IOException ex)
       {
@@ -261,38 +824,27 @@ public class InstallEngineMojo extends AbstractEngineMojo
     
     URL findEngineDownloadUrl(InputStream htmlStream) throws MojoExecutionException, MalformedURLException
     {
-      String engineFileNameRegex = "AxonIvyEngine[^.]+?\\.[^.]+?\\.+[^_]*?_"+osArchitecture+"\\.zip";
-      Pattern enginePattern = Pattern.compile("href=[\"|'][^\"']*?"+engineFileNameRegex+"[\"|']");
-      try(Scanner scanner = new Scanner(htmlStream))
+      try
       {
-        String engineLink = null;
-        while (StringUtils.isBlank(engineLink))
-        {
-          String engineLinkMatch = scanner.findWithinHorizon(enginePattern, 0);
-          if (engineLinkMatch == null)
-          {
-            throw new MojoExecutionException("Could not find a link to engine for version '"+ivyVersion+"' on site '"+engineListPageUrl+"'");
-          }
-          String versionString = StringUtils.substringBetween(engineLinkMatch, "AxonIvyEngine", "_"+osArchitecture);
-          ArtifactVersion version = new DefaultArtifactVersion(EngineVersionEvaluator.toReleaseVersion(versionString));
-          if (getIvyVersionRange().containsVersion(version))
-          {
-            engineLink = StringUtils.replace(engineLinkMatch, "\"", "'");
-            engineLink = StringUtils.substringBetween(engineLink, "href='", "'");
-          }
-        }
-        return toAbsoluteLink(engineListPageUrl, engineLink);
+        return requireEngineLink(EngineListPage.parse(engineListPageUrl, htmlStream).findEngineUrl(getIvyVersionRange(), osArchitecture));
+      }
+      catch (MalformedURLException ex)
+      {
+        throw ex;
+      }
+      catch (IOException ex)
+      {
+        throw new MojoExecutionException("Failed to read engine list page " + engineListPageUrl, ex);
       }
     }
-  
-    private URL toAbsoluteLink(URL baseUrl, String parsedEngineArchivLink) throws MalformedURLException
+
+    private URL requireEngineLink(URL engineUrl) throws MojoExecutionException
     {
-      boolean isAbsoluteLink = StringUtils.startsWithAny(parsedEngineArchivLink, "http://", "https://");
-      if (isAbsoluteLink)
+      if (engineUrl == null)
       {
-        return new URL(parsedEngineArchivLink);
+        throw new MojoExecutionException("Could not find a link to engine for version '"+ivyVersion+"' on site '"+engineListPageUrl+"'");
       }
-      return new URL(baseUrl, parsedEngineArchivLink);
+      return engineUrl;
     }
   
     private File downloadEngineFromUrl(URL engineUrl) throws MojoExecutionException
@@ -301,7 +853,18 @@ public class InstallEngineMojo extends AbstractEngineMojo
       {
         File downloadZip = evaluateTargetFile(engineUrl);
         getLog().info("Starting engine download from "+engineUrl);
-        Files.copy(engineUrl.openStream(), downloadZip.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        if (downloadSegments > 1)
+        {
+          File partsDir = new File(getDownloadDirectory(), zipFileName + SegmentedDownload.PARTS_DIR_SUFFIX);
+          new SegmentedDownload(engineUrl, downloadSegments, downloadChunkSize, getLog()).download(partsDir, downloadZip);
+        }
+        else
+        {
+          try(InputStream download = engineUrl.openStream())
+          {
+            Files.copy(download, downloadZip.toPath(), StandardCopyOption.REPLACE_EXISTING);
+          }
+        }
         return downloadZip;
       }
       catch (IOException ex)
@@ -311,9 +874,49 @@ public class InstallEngineMojo extends AbstractEngineMojo
       }
     }
 
+    /**
+     * @param targetDir a staging directory, which the caller discards if the download fails
+     * @return the SHA-256 of the downloaded archive
+     */
+    private String downloadAndUnpackEngine(URL engineUrl, File targetDir) throws MojoExecutionException
+    {
+      getLog().info("Starting engine download from "+engineUrl+" and unpacking it to "+targetDir);
+      ExtractionProfile profile = getExtractionProfile();
+      StreamingZipExtractor extractor = new StreamingZipExtractor(targetDir, profile);
+      try
+      {
+        URLConnection connection = engineUrl.openConnection();
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        File keptArchive = new File(targetDir, PartialEngine.ARCHIVE);
+        try(InputStream response = connection.getInputStream())
+        {
+          InputStream download = response;
+          if (profile != ExtractionProfile.FULL)
+          { // the remaining entries are unpacked later
+            download = new TeeInputStream(response, new FileOutputStream(keptArchive), true);
+          }
+          try(InputStream archive = new DigestInputStream(download, digest))
+          {
+            extractor.extract(archive, connection.getContentLengthLong());
+          }
+        }
+        if (profile != ExtractionProfile.FULL)
+        {
+          PartialEngine.record(targetDir, profile, keptArchive);
+        }
+        getLog().info("Unpacked " + extractor.getExtractedEntryCount() + " of " + extractor.getEntryCount() 
+                + " entries from " + extractor.getByteCount() + " downloaded bytes.");
+        return Hex.encodeHexString(digest.digest());
+      }
+      catch (IOException ex)
+      {
+        throw new MojoExecutionException("Failed to download and unpack engine from '" + engineUrl + "' to '"
+                + targetDir + "'", ex);
+      }
+    }
+
     private File evaluateTargetFile(URL engineUrl)
     {
-      zipFileName = StringUtils.substringAfterLast(engineUrl.toExternalForm(), "/");
       File downloadZip = new File(getDownloadDirectory(), zipFileName);
       int tempFileSuffix = 0;
       while (downloadZip.exists())
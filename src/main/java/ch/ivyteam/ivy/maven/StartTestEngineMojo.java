@@ -19,6 +19,7 @@ package ch.ivyteam.ivy.maven;
 import java.io.File;
 
 import org.apache.commons.exec.Executor;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -26,8 +27,13 @@ import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
 
 import ch.ivyteam.ivy.maven.engine.EngineControl;
+import ch.ivyteam.ivy.maven.engine.EngineControl.Property;
+import ch.ivyteam.ivy.maven.engine.EngineJvmProfile;
 import ch.ivyteam.ivy.maven.engine.EngineMojoContext;
+import ch.ivyteam.ivy.maven.engine.EnginePool;
+import ch.ivyteam.ivy.maven.engine.EnginePoolListener;
 import ch.ivyteam.ivy.maven.engine.EngineVmOptions;
+import ch.ivyteam.ivy.maven.engine.MavenProperties;
 
 /**
  * Starts the Axon.ivy Engine for integration testing.
@@ -39,6 +45,8 @@ public class StartTestEngineMojo extends AbstractEngineMojo
 {
   public static final String GOAL = "start-test-engine";
   public static final String IVY_ENGINE_START_TIMEOUT_SECONDS = "ivy.engine.start.timeout.seconds";
+  static final String ENGINE_POOL_PROPERTY = "ivy.engine.pool";
+  static final String ENGINE_POOL_LEASE_TIMEOUT_PROPERTY = "ivy.engine.pool.lease.timeout";
 
   @Parameter(property = "project", required = true, readonly = true)
   MavenProject project;
@@ -51,6 +59,20 @@ public class StartTestEngineMojo extends AbstractEngineMojo
   @Parameter(property = "ivy.engine.start.additional.classpath", required = false, defaultValue = "")
   String additionalClasspath;
 
+  /**
+   * Tunes the JVM that runs the Engine with the flags of a profile:
+   * <ul>
+   * <li><code>none</code>: JVM defaults</li>
+   * <li><code>throughput</code>: parallel GC with a pre-committed {@link #maxmem} heap, for long running test suites</li>
+   * <li><code>low-latency</code>: G1 GC with short pauses, for tests that measure response times</li>
+   * <li><code>tiny</code>: serial GC, C1 compiler only and a small code cache, for constrained CI agents</li>
+   * </ul>
+   * The {@link #additionalVmOptions} overrule the flags of the profile.
+   * @since 7.4.0
+   */
+  @Parameter(property = "ivy.engine.start.jvm.profile", defaultValue = "none")
+  String jvmProfile;
+
   /** Additional options for the JVM that runs the Engine. To modify the classpath or the max heap use the provided properties. **/
   @Parameter(property = "ivy.engine.start.additional.vmoptions", required = false, defaultValue = "")
   String additionalVmOptions;
@@ -63,6 +85,35 @@ public class StartTestEngineMojo extends AbstractEngineMojo
   @Parameter(property=IVY_ENGINE_START_TIMEOUT_SECONDS, defaultValue="120")
   Integer startTimeoutInSeconds;
 
+  /**
+   * Set to <code>true</code> to wait until the engine serves HTTP requests on its {@link EngineControl.Property#TEST_ENGINE_URL URL}.
+   * Otherwise the engine counts as started as soon as it logs its URL.
+   * @since 7.4.0
+   */
+  @Parameter(property="ivy.engine.start.readiness.probe", defaultValue="false")
+  boolean readinessProbe;
+
+  /**
+   * Set to <code>true</code> to share the started engine with the following modules of the reactor, which
+   * lease it from the {@link EnginePool} instead of starting an engine of their own. The {@link StopTestEngineMojo}
+   * of the module that completes last stops the pooled engine.
+   * @since 7.4.0
+   */
+  @Parameter(property=ENGINE_POOL_PROPERTY, defaultValue="false")
+  boolean pooled;
+
+  /**
+   * Maximum time in seconds to wait until other modules of the reactor release the {@link #pooled} engine.
+   * In parallel builds (<code>mvn -T</code>) it must cover the integration tests of the modules that lease the 
+   * engine concurrently.
+   * @since 7.4.0
+   */
+  @Parameter(property=ENGINE_POOL_LEASE_TIMEOUT_PROPERTY, defaultValue="300")
+  long leaseTimeoutInSeconds;
+
+  @Parameter(property = "session", readonly = true)
+  MavenSession session;
+
   /** Set to <code>true</code> to skip the engine start. */
   @Parameter(property="maven.test.skip", defaultValue="false")
   boolean skipTest;
@@ -78,7 +129,14 @@ public class StartTestEngineMojo extends AbstractEngineMojo
 
     try
     {
-      startEngine();
+      if (pooled)
+      {
+        leaseEngine();
+      }
+      else
+      {
+        startEngine();
+      }
     }
     catch (Exception ex)
     {
@@ -88,10 +146,46 @@ public class StartTestEngineMojo extends AbstractEngineMojo
 
   Executor startEngine() throws Exception
   {
-    EngineVmOptions vmOptions = new EngineVmOptions(maxmem, additionalClasspath, additionalVmOptions);
-    EngineControl engineControl = new EngineControl(new EngineMojoContext(
-            identifyAndGetEngineDirectory(), project, getLog(), engineLogFile, vmOptions, startTimeoutInSeconds));
-    return engineControl.start();
+    return createEngineControl().start();
+  }
+
+  private void leaseEngine() throws Exception
+  {
+    EngineControl engineControl = createEngineControl();
+    File engineDir = identifyAndGetEngineDirectory();
+    EnginePool pool = EnginePool.session();
+    EnginePoolListener.install(session, pool);
+    String url = pool.lease(engineDir, project, engineControl.toPooledEngine(), leaseTimeoutInSeconds, getLog());
+    MavenProperties properties = new MavenProperties(project, getLog());
+    properties.setMavenProperty(Property.TEST_ENGINE_URL, url);
+    File logFile = pool.getLogFile(engineDir);
+    if (logFile != null)
+    { // of the module that started the engine
+      properties.setMavenProperty(Property.TEST_ENGINE_LOG, logFile.getAbsolutePath());
+    }
+  }
+
+  private EngineJvmProfile getJvmProfile() throws MojoExecutionException
+  {
+    try
+    {
+      return EngineJvmProfile.fromName(jvmProfile);
+    }
+    catch (IllegalArgumentException ex)
+    {
+      throw new MojoExecutionException(ex.getMessage(), ex);
+    }
+  }
+
+  private EngineControl createEngineControl() throws Exception
+  {
+    EngineVmOptions vmOptions = new EngineVmOptions(maxmem, additionalClasspath, additionalVmOptions, classDataSharing,
+            getJvmProfile());
+    File engineDir = identifyAndGetEngineDirectory();
+    completePartialEngine(engineDir);
+    return new EngineControl(new EngineMojoContext(
+            engineDir, project, getLog(), engineLogFile, vmOptions, startTimeoutInSeconds))
+            .withReadinessProbe(readinessProbe);
   }
 
 }
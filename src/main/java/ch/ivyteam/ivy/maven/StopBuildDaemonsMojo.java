@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+
+import ch.ivyteam.ivy.maven.engine.daemon.BuildDaemonClient;
+
+/**
+ * Stops the {@link AbstractProjectCompileMojo#useBuildDaemon build daemons} of all engines in the 
+ * {@link #engineCacheDirectory}. Otherwise a daemon only exits after its idle timeout.
+ *
+ * <p>Command line invocation is supported. E.g.</p>
+ * <pre>mvn com.axonivy.ivy.ci:project-build-plugin:7.4.0:stop-build-daemons</pre>
+ *
+ * @since 7.4.0
+ */
+@Mojo(name=StopBuildDaemonsMojo.GOAL, requiresProject=false)
+public class StopBuildDaemonsMojo extends AbstractEngineMojo
+{
+  public static final String GOAL = "stop-build-daemons";
+
+  @Override
+  public void execute() throws MojoExecutionException
+  {
+    if (engineCacheDirectory == null)
+    {
+      getLog().info("No engine cache directory is configured: no build daemons to stop.");
+      return;
+    }
+    File daemonsDir = new File(engineCacheDirectory, BuildDaemonClient.DAEMONS_DIRECTORY);
+    try
+    {
+      int stopped = BuildDaemonClient.stopAll(daemonsDir, getLog());
+      getLog().info("Stopped " + stopped + " build daemons of '" + engineCacheDirectory + "'.");
+    }
+    catch (IOException ex)
+    {
+      throw new MojoExecutionException("Failed to stop build daemons in '" + daemonsDir + "'.", ex);
+    }
+  }
+
+}
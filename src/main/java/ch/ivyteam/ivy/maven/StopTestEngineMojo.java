@@ -16,6 +16,10 @@
 
 package ch.ivyteam.ivy.maven;
 
+import java.io.File;
+
+import org.apache.maven.execution.MavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugins.annotations.Mojo;
@@ -24,6 +28,7 @@ import org.apache.maven.project.MavenProject;
 
 import ch.ivyteam.ivy.maven.engine.EngineControl;
 import ch.ivyteam.ivy.maven.engine.EngineMojoContext;
+import ch.ivyteam.ivy.maven.engine.EnginePool;
 import ch.ivyteam.ivy.maven.engine.EngineVmOptions;
 
 /**
@@ -55,6 +60,26 @@ public class StopTestEngineMojo extends AbstractEngineMojo
   @Parameter(property="ivy.engine.stop.timeout.seconds", defaultValue="45")
   Integer stopTimeoutInSeconds;
   
+  /**
+   * Set to <code>true</code> if the engine was started as {@link StartTestEngineMojo#pooled pooled} engine. The lease of
+   * the module is released and the engine is only stopped by the module that completes after all other modules of
+   * the reactor. If modules complete concurrently in a parallel build (<code>mvn -T</code>), none of them may be the 
+   * last one: the engine then keeps running until Maven exits and is stopped by its shutdown hook.
+   * @since 7.4.0
+   */
+  @Parameter(property=StartTestEngineMojo.ENGINE_POOL_PROPERTY, defaultValue="false")
+  boolean pooled;
+
+  /**
+   * Maximum time in seconds to wait until other modules of the reactor release the {@link #pooled} engine.
+   * @since 7.4.0
+   */
+  @Parameter(property=StartTestEngineMojo.ENGINE_POOL_LEASE_TIMEOUT_PROPERTY, defaultValue="300")
+  long leaseTimeoutInSeconds;
+
+  @Parameter(property = "session", readonly = true)
+  MavenSession session;
+
   /** Set to <code>true</code> to skip the engine stop. */
   @Parameter(property="maven.test.skip", defaultValue="false")
   boolean skipTest;
@@ -70,7 +95,14 @@ public class StopTestEngineMojo extends AbstractEngineMojo
     
     try
     {
-      createEngineController().stop();
+      if (pooled)
+      {
+        releasePooledEngine();
+      }
+      else
+      {
+        createEngineController().stop();
+      }
     }
     catch (Exception ex)
     {
@@ -78,9 +110,42 @@ public class StopTestEngineMojo extends AbstractEngineMojo
     }
   }
 
+  private void releasePooledEngine() throws Exception
+  {
+    File engineDir = identifyAndGetEngineDirectory();
+    EnginePool.session().release(engineDir);
+    if (!isLastRunningProjectOfReactor())
+    {
+      getLog().info("Released pooled engine " + engineDir + ": it keeps running for the following modules.");
+      return;
+    }
+    getLog().info("Stopping pooled engine " + engineDir + " after all other modules of the reactor completed.");
+    if (!EnginePool.session().stop(engineDir, createEngineController().toPooledEngine(), leaseTimeoutInSeconds))
+    { // started by another Maven process
+      createEngineController().stop();
+    }
+  }
+
+  /**
+   * Modules of parallel builds complete in any order, so the reactor order does not tell which module is the last
+   * one. Maven records the build summary of each module once it completed: if all other modules have one, no module
+   * will lease the engine anymore.
+   */
+  private boolean isLastRunningProjectOfReactor()
+  {
+    if (session == null || session.getProjects() == null || session.getResult() == null)
+    {
+      return true;
+    }
+    MavenExecutionResult result = session.getResult();
+    return session.getProjects().stream()
+            .filter(other -> !other.equals(project))
+            .allMatch(other -> result.getBuildSummary(other) != null);
+  }
+
   public EngineControl createEngineController() throws MojoExecutionException
   {
-    EngineVmOptions vmOptions = new EngineVmOptions(maxmem, additionalClasspath, additionalVmOptions);
+    EngineVmOptions vmOptions = new EngineVmOptions(maxmem, additionalClasspath, additionalVmOptions, classDataSharing);
     EngineControl engineControl = new EngineControl(new EngineMojoContext(
             identifyAndGetEngineDirectory(), project, getLog(), null, vmOptions, stopTimeoutInSeconds));
     return engineControl;
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Measures how long the bundles of the engine take to activate, by listening reflectively to the bundle events
+ * of the OSGi framework. Activations which started before the listener was registered are not measured: 
+ * the framework offers no listener registration before it is launched, so only activations after the launch, 
+ * e.g. of the minimal bootstrap or of JDT, are timed. For a full engine boot, {@link #reportStates(Object, Log)} 
+ * reports which bundles the launch activated.
+ *
+ * @since 7.4.0
+ */
+class BundleActivationTimings
+{
+  /** org.osgi.framework.BundleEvent constants */
+  private static final int STARTED = 0x00000002;
+  private static final int STARTING = 0x00000080;
+  /** org.osgi.framework.Bundle states */
+  private static final Map<Integer, String> STATES = new LinkedHashMap<>();
+  static
+  {
+    STATES.put(0x00000020, "active");
+    STATES.put(0x00000008, "starting");
+    STATES.put(0x00000004, "resolved");
+    STATES.put(0x00000002, "installed");
+  }
+  private static final int REPORTED_BUNDLES = 10;
+
+  private final Map<String, Long> starting = new ConcurrentHashMap<>();
+  private final Map<String, Long> durations = new ConcurrentHashMap<>();
+
+  /**
+   * @param bundleContext the system bundle context of the framework
+   */
+  void register(Object bundleContext) throws Exception
+  {
+    ClassLoader frameworkLoader = bundleContext.getClass().getClassLoader();
+    Class<?> listenerType = frameworkLoader.loadClass("org.osgi.framework.SynchronousBundleListener");
+    Class<?> bundleListenerType = frameworkLoader.loadClass("org.osgi.framework.BundleListener");
+    Object listener = Proxy.newProxyInstance(frameworkLoader, new Class<?>[]{listenerType}, new EventHandler());
+    bundleContext.getClass().getMethod("addBundleListener", bundleListenerType).invoke(bundleContext, listener);
+  }
+
+  private void onEvent(Object bundleEvent) throws Exception
+  {
+    int type = (Integer) bundleEvent.getClass().getMethod("getType").invoke(bundleEvent);
+    if (type != STARTING && type != STARTED)
+    {
+      return;
+    }
+    Object bundle = bundleEvent.getClass().getMethod("getBundle").invoke(bundleEvent);
+    String name = String.valueOf(bundle.getClass().getMethod("getSymbolicName").invoke(bundle));
+    if (type == STARTING)
+    {
+      starting.put(name, System.nanoTime());
+    }
+    else
+    {
+      Long start = starting.remove(name);
+      if (start != null)
+      {
+        durations.put(name, (System.nanoTime() - start) / 1_000_000);
+      }
+    }
+  }
+
+  /**
+   * Logs the slowest activations. Activations of dependencies are part of the time of the activating bundle.
+   */
+  void report(Log log)
+  {
+    List<Map.Entry<String, Long>> slowest = new ArrayList<>(durations.entrySet());
+    slowest.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+    log.debug("Activated " + slowest.size() + " engine bundles. Slowest activations:");
+    slowest.stream().limit(REPORTED_BUNDLES)
+      .forEach(entry -> log.debug("   " + entry.getValue() + "ms " + entry.getKey()));
+  }
+
+  /**
+   * Logs how many bundles are in which state, e.g. after the framework was launched with the engine application.
+   * @param bundleContext the system bundle context of the framework
+   */
+  void reportStates(Object bundleContext, Log log) throws Exception
+  {
+    Object[] bundles = (Object[]) bundleContext.getClass().getMethod("getBundles").invoke(bundleContext);
+    Map<String, Integer> counts = new LinkedHashMap<>();
+    for (Object bundle : bundles)
+    {
+      int state = (Integer) bundle.getClass().getMethod("getState").invoke(bundle);
+      counts.merge(STATES.getOrDefault(state, "other"), 1, Integer::sum);
+    }
+    log.debug("Engine bundles after launch (activations during the launch are not timed): " + counts.entrySet().stream()
+      .map(entry -> entry.getValue() + " " + entry.getKey())
+      .collect(Collectors.joining(", ")));
+  }
+
+  private class EventHandler implements InvocationHandler
+  {
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+    {
+      switch (method.getName())
+      {
+        case "bundleChanged":
+          onEvent(args[0]);
+          return null;
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "equals":
+          return proxy == args[0];
+        case "toString":
+          return BundleActivationTimings.class.getSimpleName();
+        default:
+          return null;
+      }
+    }
+  }
+
+}
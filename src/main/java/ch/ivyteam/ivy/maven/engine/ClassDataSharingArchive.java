@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * An AppCDS archive of the classes an engine JVM loads, so that later JVMs with the same classpath map the classes
+ * from the archive instead of loading them from the engine jars.
+ *
+ * <p>The first JVM records a dynamic archive when it exits (<code>-XX:ArchiveClassesAtExit</code>), which includes
+ * the classes of the engine class loader. It records into a file of its own, which is promoted to the archive by the
+ * next launch once it is complete: the JVM writes the header of a dynamic archive after all of its regions.
+ * Dynamic archives require Java {@value #MIN_JAVA_VERSION} or newer.</p>
+ *
+ * @since 7.4.0
+ */
+public class ClassDataSharingArchive
+{
+  public static final String DIRECTORY = ".ivy-engine-cds";
+  static final int MIN_JAVA_VERSION = 13;
+
+  private static final String ARCHIVE_EXTENSION = ".jsa";
+  private static final String RECORDING_EXTENSION = ".recording";
+  private static final int DYNAMIC_ARCHIVE_MAGIC = 0xf00baba8;
+  private static final long ABANDONED_RECORDING_AGE = TimeUnit.DAYS.toMillis(1);
+
+  private final File directory;
+  private final List<File> classpath;
+  private final String name;
+
+  /**
+   * @param parentDir to keep the archive in, e.g. the engine directory
+   * @param classpath of the JVM. The archive is recorded again if any of its entries changed.
+   */
+  public ClassDataSharingArchive(File parentDir, List<File> classpath)
+  {
+    this.directory = new File(parentDir, DIRECTORY);
+    this.classpath = classpath;
+    StringBuilder identity = new StringBuilder(System.getProperty("java.home"))
+            .append(File.pathSeparatorChar).append(System.getProperty("java.vm.version"));
+    for (File entry : classpath)
+    {
+      identity.append(File.pathSeparatorChar).append(entry.getAbsolutePath());
+    }
+    this.name = DigestUtils.sha256Hex(identity.toString()).substring(0, 12);
+  }
+
+  /**
+   * @return <code>true</code> if the JVMs launched with the java executable of this JVM can record dynamic archives.
+   */
+  public static boolean isSupported()
+  {
+    return getJavaVersion(System.getProperty("java.specification.version")) >= MIN_JAVA_VERSION;
+  }
+
+  static int getJavaVersion(String specificationVersion)
+  {
+    String version = StringUtils.removeStart(specificationVersion, "1.");
+    return Integer.parseInt(StringUtils.substringBefore(version, "."));
+  }
+
+  /**
+   * @param record <code>true</code> to record the archive if it does not yet exist. Short-living JVMs should not
+   * record it, as they only load a fraction of the classes.
+   * @return the options that launch a JVM with the archive, or that record it.
+   */
+  public List<String> getVmOptions(boolean record, Log log) throws IOException
+  {
+    if (!isSupported())
+    {
+      log.warn("Class data sharing of the engine requires Java " + MIN_JAVA_VERSION + " or newer: not used with Java "
+              + System.getProperty("java.specification.version") + ".");
+      return Collections.emptyList();
+    }
+    File archive = getArchive();
+    if (archive.isFile() && isOutdated(archive))
+    {
+      log.info("Recording the class data sharing archive again: the engine classpath changed.");
+      Files.delete(archive.toPath());
+    }
+    if (!archive.isFile())
+    {
+      promoteRecordings(archive, log);
+    }
+    if (archive.isFile())
+    {
+      log.debug("Launching engine JVM with class data sharing archive " + archive);
+      return Arrays.asList("-XX:SharedArchiveFile=" + archive.getAbsolutePath(), "-Xshare:auto");
+    }
+    if (!record)
+    {
+      return Collections.emptyList();
+    }
+    Files.createDirectories(directory.toPath());
+    File recording = new File(directory, name + "-" + UUID.randomUUID() + ARCHIVE_EXTENSION + RECORDING_EXTENSION);
+    log.info("Recording class data sharing archive " + archive + ": it speeds up the next engine starts.");
+    return Collections.singletonList("-XX:ArchiveClassesAtExit=" + recording.getAbsolutePath());
+  }
+
+  File getArchive()
+  {
+    return new File(directory, name + ARCHIVE_EXTENSION);
+  }
+
+  private boolean isOutdated(File archive)
+  {
+    long recorded = archive.lastModified();
+    return classpath.stream().anyMatch(entry -> entry.lastModified() > recorded);
+  }
+
+  private void promoteRecordings(File archive, Log log) throws IOException
+  {
+    File[] recordings = directory.listFiles(file -> file.getName().startsWith(name + "-")
+            && file.getName().endsWith(RECORDING_EXTENSION));
+    if (recordings == null)
+    {
+      return;
+    }
+    for (File recording : recordings)
+    {
+      if (isComplete(recording))
+      {
+        if (!archive.exists() && !isOutdated(recording))
+        {
+          try
+          {
+            Files.move(recording.toPath(), archive.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Promoted recorded class data sharing archive " + recording);
+          }
+          catch (NoSuchFileException ex)
+          { // promoted by another build
+          }
+        }
+        else
+        {
+          Files.deleteIfExists(recording.toPath());
+        }
+      }
+      else if (System.currentTimeMillis() - recording.lastModified() > ABANDONED_RECORDING_AGE)
+      { // JVM did not exit normally
+        Files.deleteIfExists(recording.toPath());
+      }
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the JVM finished writing the archive. The magic is written in native byte order.
+   */
+  static boolean isComplete(File recording)
+  {
+    try(DataInputStream in = new DataInputStream(new FileInputStream(recording)))
+    {
+      int magic = in.readInt();
+      return magic == DYNAMIC_ARCHIVE_MAGIC || Integer.reverseBytes(magic) == DYNAMIC_ARCHIVE_MAGIC;
+    }
+    catch (IOException ex)
+    { // still empty or deleted by another build
+      return false;
+    }
+  }
+
+  /**
+   * @return <code>true</code> for the archives within an engine directory, which are not part of the engine itself.
+   */
+  public static boolean isMetadata(String relativePath)
+  {
+    return relativePath.replace(File.separatorChar, '/').startsWith(DIRECTORY + "/");
+  }
+
+}
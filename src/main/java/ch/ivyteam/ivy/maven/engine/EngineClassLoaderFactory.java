@@ -73,6 +73,25 @@ public class EngineClassLoaderFactory
   }
   
   public URLClassLoader createEngineClassLoader(File engineDirectory) throws IOException
+  {
+    return new URLClassLoader(toUrls(getEngineClassLoaderClasspath(engineDirectory)));
+  }
+
+  /**
+   * @param engineClassLoaderClasspath see {@link #getEngineClassLoaderClasspath(File)}
+   * @param parent of the engine class loader
+   * @since 7.4.0
+   */
+  public static URLClassLoader createEngineClassLoader(List<File> engineClassLoaderClasspath, ClassLoader parent) throws IOException
+  {
+    return new URLClassLoader(toUrls(engineClassLoaderClasspath), parent);
+  }
+
+  /**
+   * @return the classpath to boot the OSGi framework of the engine with.
+   * @since 7.4.0
+   */
+  public List<File> getEngineClassLoaderClasspath(File engineDirectory)
   {
     List<File> osgiClasspath = getOsgiBootstrapClasspath(engineDirectory);
     addToClassPath(osgiClasspath, new File(engineDirectory, OsgiDir.PLUGINS),
@@ -85,7 +104,7 @@ public class EngineClassLoaderFactory
       maven.log.debug("Configuring OSGi engine classpath:");
       osgiClasspath.stream().forEach(file -> maven.log.debug(" + "+file.getAbsolutePath()));
     }
-    return new URLClassLoader(toUrls(osgiClasspath));
+    return osgiClasspath;
   }
 
   public static List<File> getOsgiBootstrapClasspath(File engineDirectory)
@@ -112,20 +131,7 @@ public class EngineClassLoaderFactory
   
   public static List<File> getIvyEngineClassPathFiles(File engineDirectory)
   {
-    List<File> classPathFiles = new ArrayList<>();
-    for(String libDirPath : ENGINE_LIB_DIRECTORIES)
-    {
-      File jarDir = new File(engineDirectory, libDirPath + File.separator);
-      if (!jarDir.isDirectory())
-      {
-        continue;
-      }
-      for(File jar : FileUtils.listFiles(jarDir, new String[]{"jar"}, true))
-      {
-        classPathFiles.add(jar);
-      }
-    }
-    return classPathFiles;
+    return EngineClasspathIndex.getJars(engineDirectory, ENGINE_LIB_DIRECTORIES);
   }
   
   public void writeEngineClasspathJar(File engineDirectory) throws IOException
@@ -133,6 +139,17 @@ public class EngineClassLoaderFactory
     writeEngineClasspathJar(getIvyEngineClassPathFiles(engineDirectory));
   }
 
+  /**
+   * @param additionalJars e.g. jars unpacked from bundles outside of the engine directory
+   * @since 7.4.0
+   */
+  public void writeEngineClasspathJar(File engineDirectory, List<File> additionalJars) throws IOException
+  {
+    List<File> classPathFiles = getIvyEngineClassPathFiles(engineDirectory);
+    classPathFiles.addAll(additionalJars);
+    writeEngineClasspathJar(classPathFiles);
+  }
+
   private void writeEngineClasspathJar(List<File> ivyEngineClassPathFiles) throws IOException
   {
     File classPathJar = new SharedFile(maven.project).getEngineClasspathJar();
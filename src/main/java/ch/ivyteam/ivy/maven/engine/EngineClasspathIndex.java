@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * The jars of the engine classpath, persisted in the engine directory and shared by all mojos of a Maven session.
+ *
+ * <p>The index records the modification time of every directory it scanned. It stays valid as long as none
+ * of these directories changed, which is verified without listing any directory.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineClasspathIndex
+{
+  public static final String FILE = ".ivy-engine-classpath";
+  private static final String DIRECTORY = "D";
+  private static final String JAR = "J";
+  private static final String SEPARATOR = " ";
+  private static final String ROOT = "";
+
+  private static final Map<String, EngineClasspathIndex> SESSION = new ConcurrentHashMap<>();
+
+  /** relative path to modification time */
+  private final Map<String, Long> directories;
+  /** relative paths */
+  private final List<String> jars;
+
+  private EngineClasspathIndex(Map<String, Long> directories, List<String> jars)
+  {
+    this.directories = directories;
+    this.jars = jars;
+  }
+
+  /**
+   * @param libDirs relative to the engine directory, which are recursively searched for jars
+   * @return the jars of the library directories
+   */
+  static List<File> getJars(File engineDir, List<String> libDirs)
+  {
+    String key = engineDir.getAbsolutePath() + File.pathSeparator + libDirs;
+    EngineClasspathIndex index = SESSION.get(key);
+    if (index == null || !index.isValid(engineDir))
+    {
+      index = read(engineDir);
+      if (index == null || !index.isValid(engineDir) || !index.covers(libDirs))
+      {
+        index = scan(engineDir, libDirs);
+        index.write(engineDir);
+      }
+      SESSION.put(key, index);
+    }
+    return index.toFiles(engineDir);
+  }
+
+  /**
+   * @param root directory which is recursively searched for jars, e.g. the framework state of an OSGi configuration area
+   * @return the jars below the directory. They are listed once per session and only listed again if a directory changed.
+   */
+  static List<File> getJarsBelow(File root)
+  {
+    String key = root.getAbsolutePath();
+    EngineClasspathIndex index = SESSION.get(key);
+    if (index == null || !index.isValid(root))
+    { // not persisted: the index file would change the directory it describes
+      index = scan(root, Collections.singletonList(ROOT));
+      SESSION.put(key, index);
+    }
+    return index.toFiles(root);
+  }
+
+  private List<File> toFiles(File baseDir)
+  {
+    List<File> files = new ArrayList<>(jars.size());
+    for (String jar : jars)
+    {
+      files.add(new File(baseDir, jar));
+    }
+    return files;
+  }
+
+  private boolean isValid(File engineDir)
+  {
+    for (Map.Entry<String, Long> directory : directories.entrySet())
+    {
+      if (new File(engineDir, directory.getKey()).lastModified() != directory.getValue())
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean covers(List<String> libDirs)
+  {
+    return libDirs.stream().map(EngineClasspathIndex::normalize).allMatch(directories::containsKey);
+  }
+
+  private static EngineClasspathIndex scan(File engineDir, List<String> libDirs)
+  {
+    Map<String, Long> directories = new LinkedHashMap<>();
+    List<String> jars = new ArrayList<>();
+    for (String libDir : libDirs)
+    {
+      String relativeDir = normalize(libDir);
+      scan(new File(engineDir, relativeDir), relativeDir, directories, jars);
+    }
+    return new EngineClasspathIndex(directories, jars);
+  }
+
+  private static void scan(File dir, String relativeDir, Map<String, Long> directories, List<String> jars)
+  {
+    directories.put(relativeDir, dir.lastModified());
+    File[] children = dir.listFiles();
+    if (children == null)
+    {
+      return;
+    }
+    Arrays.sort(children);
+    for (File child : children)
+    {
+      String relativePath = ROOT.equals(relativeDir) ? child.getName() : relativeDir + "/" + child.getName();
+      if (child.isDirectory())
+      {
+        scan(child, relativePath, directories, jars);
+      }
+      else if (child.getName().endsWith(".jar"))
+      {
+        jars.add(relativePath);
+      }
+    }
+  }
+
+  private static String normalize(String libDir)
+  {
+    return StringUtils.removeEnd(libDir.replace(File.separatorChar, '/'), "/");
+  }
+
+  private static EngineClasspathIndex read(File engineDir)
+  {
+    File indexFile = new File(engineDir, FILE);
+    if (!indexFile.isFile())
+    {
+      return null;
+    }
+    Map<String, Long> directories = new LinkedHashMap<>();
+    List<String> jars = new ArrayList<>();
+    try
+    {
+      for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8))
+      {
+        String type = StringUtils.substringBefore(line, SEPARATOR);
+        String value = StringUtils.substringAfter(line, SEPARATOR);
+        if (DIRECTORY.equals(type))
+        {
+          directories.put(StringUtils.substringAfter(value, SEPARATOR), Long.parseLong(StringUtils.substringBefore(value, SEPARATOR)));
+        }
+        else if (JAR.equals(type))
+        {
+          jars.add(value);
+        }
+      }
+    }
+    catch (IOException | NumberFormatException ex)
+    { // unreadable index is rebuilt
+      return null;
+    }
+    return new EngineClasspathIndex(directories, jars);
+  }
+
+  /**
+   * Best effort: engines in read-only locations are indexed once per session.
+   */
+  private void write(File engineDir)
+  {
+    List<String> lines = new ArrayList<>();
+    directories.forEach((dir, lastModified) -> lines.add(DIRECTORY + SEPARATOR + lastModified + SEPARATOR + dir));
+    jars.forEach(jar -> lines.add(JAR + SEPARATOR + jar));
+    File tmpFile = null;
+    try
+    { // replaced and not overwritten: the index may be hard-linked into other engine directories
+      tmpFile = File.createTempFile(FILE, ".tmp", engineDir);
+      Files.write(tmpFile.toPath(), lines, StandardCharsets.UTF_8);
+      Files.move(tmpFile.toPath(), new File(engineDir, FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException ex)
+    {
+      if (tmpFile != null)
+      {
+        tmpFile.delete();
+      }
+    }
+  }
+
+}
@@ -22,11 +22,18 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.apache.commons.exec.CommandLine;
 import org.apache.commons.exec.DefaultExecutor;
@@ -68,8 +75,13 @@ public class EngineControl
     FAILED;
   }
 
+  /** engine directory to the termination of the engine process started by this JVM, completed with its exit value */
+  private static final Map<File, CompletableFuture<Integer>> STARTED_ENGINES = new ConcurrentHashMap<>();
+
   private EngineMojoContext context;
-  private AtomicBoolean engineStarted = new AtomicBoolean(false);
+  /** completed by the engine log line that announces the engine URL, or by the termination of the engine process */
+  private final CompletableFuture<String> engineUrl = new CompletableFuture<>();
+  private boolean readinessProbe = false;
 
   private enum Command
   {
@@ -81,6 +93,16 @@ public class EngineControl
     this.context = context;
   }
 
+  /**
+   * @param enabled to wait after the engine announced its URL until it actually serves requests on it.
+   * @since 7.4.0
+   */
+  public EngineControl withReadinessProbe(boolean enabled)
+  {
+    this.readinessProbe = enabled;
+    return this;
+  }
+
   public Executor start() throws Exception
   {
     CommandLine startCmd = toEngineCommand(Command.start);
@@ -90,8 +112,10 @@ public class EngineControl
     executor.setStreamHandler(createEngineLogStreamForwarder(logLine -> findStartEngineUrl(logLine)));
     executor.setWatchdog(new ExecuteWatchdog(ExecuteWatchdog.INFINITE_TIMEOUT));
     executor.setProcessDestroyer(new ShutdownHookProcessDestroyer());
-    executor.execute(startCmd, asynchExecutionHandler());
-    waitForEngineStart(executor);
+    CompletableFuture<Integer> termination = new CompletableFuture<>();
+    STARTED_ENGINES.put(context.engineDirectory.getAbsoluteFile(), termination);
+    executor.execute(startCmd, asynchExecutionHandler(termination));
+    waitForEngineStart();
     return executor;
   }
 
@@ -101,7 +125,69 @@ public class EngineControl
     context.log.info("Stopping Axon.ivy Engine in folder: " + context.engineDirectory);
 
     executeSynch(stopCmd);
-    waitFor(()->EngineState.STOPPED == state(), context.timeoutInSeconds, TimeUnit.SECONDS);
+    CompletableFuture<Integer> termination = STARTED_ENGINES.get(context.engineDirectory.getAbsoluteFile());
+    if (termination == null)
+    { // started by another process: poll its state
+      waitFor(()->EngineState.STOPPED == state(), context.timeoutInSeconds, TimeUnit.SECONDS);
+      return;
+    }
+    waitForTermination(termination);
+  }
+
+  private void waitForTermination(CompletableFuture<Integer> termination) throws TimeoutException, InterruptedException
+  {
+    StopWatch watch = new StopWatch();
+    watch.start();
+    try
+    {
+      Integer exitValue = termination.get(context.timeoutInSeconds, TimeUnit.SECONDS);
+      context.log.debug("Engine process terminated with exit value " + exitValue + " after " + watch.getTime() + "ms.");
+    }
+    catch (ExecutionException ex)
+    { // never completed exceptionally
+      throw new IllegalStateException(ex.getCause());
+    }
+    catch (TimeoutException ex)
+    {
+      throw new TimeoutException("Engine process did not terminate in " + context.timeoutInSeconds + " " + TimeUnit.SECONDS);
+    }
+    STARTED_ENGINES.remove(context.engineDirectory.getAbsoluteFile(), termination);
+  }
+
+  /**
+   * @return this control as an engine of the {@link EnginePool}.
+   * @since 7.4.0
+   */
+  public EnginePool.Engine toPooledEngine()
+  {
+    return new EnginePool.Engine()
+      {
+        @Override
+        public String start() throws Exception
+        {
+          EngineControl.this.start();
+          return engineUrl.getNow(null);
+        }
+
+        @Override
+        public boolean isRunning()
+        {
+          CompletableFuture<Integer> termination = STARTED_ENGINES.get(context.engineDirectory.getAbsoluteFile());
+          return termination != null && !termination.isDone();
+        }
+
+        @Override
+        public void stop() throws Exception
+        {
+          EngineControl.this.stop();
+        }
+
+        @Override
+        public File getLogFile()
+        {
+          return context.engineLogFile;
+        }
+      };
   }
 
   EngineState state()
@@ -127,6 +213,24 @@ public class EngineControl
             .addArgument("-Djava.awt.headless=true")
             .addArgument("-Dosgi.install.area=" + osgiDir.getAbsolutePath());
 
+    if (StringUtils.isNotBlank(context.vmOptions.maxmem))
+    {
+      cli.addArgument("-Xmx" + context.vmOptions.maxmem.trim(), false);
+    }
+    if (command == Command.start)
+    {
+      for (String option : getJvmProfileOptions())
+      {
+        cli.addArgument(option, false);
+      }
+    }
+    if (context.vmOptions.classDataSharing)
+    {
+      for (String option : getClassDataSharingOptions(classpath, command == Command.start))
+      {
+        cli.addArgument(option, false);
+      }
+    }
     if (StringUtils.isNotBlank(context.vmOptions.additionalVmOptions))
     {
       cli.addArguments(context.vmOptions.additionalVmOptions, false);
@@ -137,6 +241,31 @@ public class EngineControl
     return cli;
   }
 
+  private List<String> getJvmProfileOptions()
+  {
+    EngineJvmProfile profile = context.vmOptions.jvmProfile;
+    List<String> options = profile.getVmOptions(context.vmOptions.maxmem);
+    context.log.info("Engine JVM: heap " + StringUtils.defaultIfBlank(context.vmOptions.maxmem, "default")
+            + ", profile '" + profile + "'" + (options.isEmpty() ? "" : " " + options));
+    return options;
+  }
+
+  private List<String> getClassDataSharingOptions(String classpath, boolean record)
+  {
+    List<File> classpathEntries = Arrays.stream(classpath.split(File.pathSeparator))
+            .map(File::new)
+            .collect(Collectors.toList());
+    try
+    {
+      return new ClassDataSharingArchive(context.engineDirectory, classpathEntries).getVmOptions(record, context.log);
+    }
+    catch (IOException ex)
+    {
+      context.log.warn("Launching engine without class data sharing: " + ex);
+      return Collections.emptyList();
+    }
+  }
+
   private Executor createEngineExecutor()
   {
     DefaultExecutor executor = new DefaultExecutor();
@@ -150,10 +279,14 @@ public class EngineControl
     OutputStream engineLogStream = new LineOrientedOutputStreamRedirector(output)
     {
       @Override
-      protected void processLine(byte[] b) throws IOException
+      protected void processLine(byte[] b, int off, int len) throws IOException
       {
-          super.processLine(b); // write file log
-          String line = new String(b);
+          super.processLine(b, off, len); // write file log
+          if (logLineHandler == null && !context.log.isDebugEnabled())
+          {
+            return;
+          }
+          String line = decode(b, off, len);
           context.log.debug("engine: "+line);
           if (logLineHandler != null)
           {
@@ -195,49 +328,59 @@ public class EngineControl
 
   private void findStartEngineUrl(String newLine)
   {
-    if (newLine.contains("info page of Axon.ivy Engine") && !engineStarted.get())
+    if (newLine.contains("info page of Axon.ivy Engine") && !engineUrl.isDone())
     {
       String url = StringUtils.substringBetween(newLine, "http://", "/");
       url = "http://" + url + "/ivy/";
       context.log.info("Axon.ivy Engine runs on : " + url);
       context.properties.setMavenProperty(Property.TEST_ENGINE_URL, url);
-      engineStarted.set(true);
+      engineUrl.complete(url);
     }
   }
 
-  private void waitForEngineStart(Executor executor) throws Exception
+  private void waitForEngineStart() throws Exception
   {
-    int i = 0;
-    while (!engineStarted.get())
+    StopWatch watch = new StopWatch();
+    watch.start();
+    long timeout = TimeUnit.SECONDS.toMillis(context.timeoutInSeconds);
+    try
     {
-      Thread.sleep(1_000);
-      i++;
-      if (!executor.getWatchdog().isWatching())
-      {
-        throw new RuntimeException("Engine start failed unexpected.");
-      }
-      if (i > context.timeoutInSeconds)
+      String url = engineUrl.get(timeout, TimeUnit.MILLISECONDS);
+      if (readinessProbe)
       {
-        throw new TimeoutException("Timeout while starting engine " + context.timeoutInSeconds + " [s].\n"
-                + "Check the engine log for details or increase the timeout property '"+StartTestEngineMojo.IVY_ENGINE_START_TIMEOUT_SECONDS+"'");
+        long probed = new EngineReadinessProbe(url).awaitServing(Math.max(0, timeout - watch.getTime()));
+        context.log.debug("Engine serves requests " + probed + "ms after it announced its URL.");
       }
     }
-    context.log.info("Engine started after " + i + " [s]");
+    catch (ExecutionException ex)
+    {
+      throw new RuntimeException("Engine start failed unexpected.", ex.getCause());
+    }
+    catch (TimeoutException ex)
+    {
+      throw new TimeoutException("Timeout while starting engine " + context.timeoutInSeconds + " [s].\n"
+              + "Check the engine log for details or increase the timeout property '"+StartTestEngineMojo.IVY_ENGINE_START_TIMEOUT_SECONDS+"'");
+    }
+    context.log.info("Engine started after " + watch.getTime() + " [ms]");
   }
 
-  private ExecuteResultHandler asynchExecutionHandler()
+  private ExecuteResultHandler asynchExecutionHandler(CompletableFuture<Integer> termination)
   {
     return new ExecuteResultHandler()
       {
         @Override
         public void onProcessFailed(ExecuteException ex)
         {
+          engineUrl.completeExceptionally(ex);
+          termination.complete(ex.getExitValue());
           throw new RuntimeException("Engine operation failed.", ex);
         }
 
         @Override
         public void onProcessComplete(int exitValue)
         {
+          engineUrl.completeExceptionally(new IllegalStateException("Engine process stopped with exit code " + exitValue + "."));
+          termination.complete(exitValue);
           context.log.info("Engine process stopped.");
         }
       };
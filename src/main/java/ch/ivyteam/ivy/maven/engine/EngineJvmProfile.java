@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Tunes the JVM of a started test engine for a kind of build. The flags are supported by Java 8 and newer.
+ *
+ * @since 7.4.0
+ */
+public enum EngineJvmProfile
+{
+  /** the defaults of the JVM */
+  NONE("none", Collections.emptyList()),
+
+  /** a large, pre-committed heap collected in parallel, for long running test suites */
+  THROUGHPUT("throughput", Arrays.asList(
+          "-XX:+UseParallelGC",
+          "-XX:ReservedCodeCacheSize=256m")),
+
+  /** short collection pauses, for tests that measure response times */
+  LOW_LATENCY("low-latency", Arrays.asList(
+          "-XX:+UseG1GC",
+          "-XX:MaxGCPauseMillis=50",
+          "-XX:ReservedCodeCacheSize=256m")),
+
+  /** a small footprint and a fast start on constrained CI agents */
+  TINY("tiny", Arrays.asList(
+          "-XX:+UseSerialGC",
+          "-XX:TieredStopAtLevel=1",
+          "-XX:ReservedCodeCacheSize=64m",
+          "-Xss512k"));
+
+  private final String name;
+  private final List<String> flags;
+
+  private EngineJvmProfile(String name, List<String> flags)
+  {
+    this.name = name;
+    this.flags = flags;
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @param maxmem the maximum heap, e.g. <code>2048m</code>, may be blank.
+   * @return the JVM options of the profile
+   */
+  public List<String> getVmOptions(String maxmem)
+  {
+    if (this == THROUGHPUT && StringUtils.isNotBlank(maxmem))
+    { // avoids resizing the heap under load
+      List<String> options = new ArrayList<>(flags);
+      options.add("-Xms" + maxmem.trim());
+      return options;
+    }
+    return flags;
+  }
+
+  /**
+   * @throws IllegalArgumentException if no profile has the given name
+   */
+  public static EngineJvmProfile fromName(String name)
+  {
+    for (EngineJvmProfile profile : values())
+    {
+      if (profile.name.equalsIgnoreCase(name))
+      {
+        return profile;
+      }
+    }
+    throw new IllegalArgumentException("Unknown engine JVM profile '" + name + "'. Supported profiles are "
+            + Arrays.toString(values()) + ".");
+  }
+
+  @Override
+  public String toString()
+  {
+    return name;
+  }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Test engines shared by the modules of a reactor build. An engine is started by the first module that leases it
+ * and keeps running after the module released it, so that the next module leases the already running engine.
+ *
+ * <p>A lease is exclusive: modules that test against the same engine directory concurrently wait for each other.
+ * Separate engines need separate engine directories. An engine that terminated during a lease is started
+ * again for the next lease. The leases of a module that fails are released by the {@link EnginePoolListener}.</p>
+ *
+ * @since 7.4.0
+ */
+public class EnginePool
+{
+  private static final EnginePool SESSION = new EnginePool();
+
+  private final Map<File, Slot> slots = new ConcurrentHashMap<>();
+
+  EnginePool()
+  {
+  }
+
+  /**
+   * @return the pool of the current build, which lives as long as the Maven JVM.
+   */
+  public static EnginePool session()
+  {
+    return SESSION;
+  }
+
+  /**
+   * An engine that can be pooled.
+   */
+  public interface Engine
+  {
+    /**
+     * @return the URL of the started engine
+     */
+    String start() throws Exception;
+
+    boolean isRunning();
+
+    void stop() throws Exception;
+
+    /**
+     * @return the file the engine logs to, <code>null</code> if unknown
+     */
+    File getLogFile();
+  }
+
+  /**
+   * Leases the engine of the directory exclusively, it is started if it does not yet run.
+   * @param owner the module that leases the engine, see {@link #releaseLeasesOf(Object)}
+   * @param engine to start the engine with
+   * @param timeoutSeconds to wait for the leases of other modules
+   * @return the URL of the leased engine
+   */
+  public String lease(File engineDir, Object owner, Engine engine, long timeoutSeconds, Log log) throws Exception
+  {
+    Slot slot = acquire(engineDir, owner, timeoutSeconds);
+    try
+    {
+      if (slot.url != null && slot.engine.isRunning())
+      {
+        log.info("Leasing running engine " + engineDir + " on " + slot.url);
+        return slot.url;
+      }
+      if (slot.url != null)
+      {
+        log.warn("Pooled engine " + engineDir + " terminated: starting it again.");
+      }
+      slot.url = null;
+      slot.engine = engine;
+      slot.url = engine.start();
+      return slot.url;
+    }
+    catch (Exception ex)
+    {
+      slot.release();
+      throw ex;
+    }
+  }
+
+  /**
+   * Ends the lease of the engine, which keeps running for the next lease.
+   */
+  public void release(File engineDir)
+  {
+    Slot slot = slots.get(engineDir.getAbsoluteFile());
+    if (slot != null)
+    {
+      slot.release();
+    }
+  }
+
+  /**
+   * Ends all leases of a module that will not release them itself, e.g. because it failed.
+   */
+  public void releaseLeasesOf(Object owner)
+  {
+    for (Slot slot : slots.values())
+    {
+      slot.releaseIfOwnedBy(owner);
+    }
+  }
+
+  /**
+   * @return the log file of the engine that runs in the directory, <code>null</code> if unknown
+   */
+  public File getLogFile(File engineDir)
+  {
+    Slot slot = slots.get(engineDir.getAbsoluteFile());
+    Engine engine = slot == null ? null : slot.engine;
+    return engine == null ? null : engine.getLogFile();
+  }
+
+  /**
+   * Stops the engine of the directory once no other module leases it.
+   * @param engine to stop the engine with
+   * @return <code>false</code> if the engine was not started by this pool
+   */
+  public boolean stop(File engineDir, Engine engine, long timeoutSeconds) throws Exception
+  {
+    if (!slots.containsKey(engineDir.getAbsoluteFile()))
+    {
+      return false;
+    }
+    Slot slot = acquire(engineDir, null, timeoutSeconds);
+    try
+    {
+      if (engine.isRunning())
+      {
+        engine.stop();
+      }
+      slot.url = null;
+      slot.engine = null;
+    }
+    finally
+    {
+      slot.release();
+    }
+    return true;
+  }
+
+  private Slot acquire(File engineDir, Object owner, long timeoutSeconds) throws InterruptedException, TimeoutException
+  {
+    Slot slot = slots.computeIfAbsent(engineDir.getAbsoluteFile(), dir -> new Slot());
+    if (!slot.lease.tryAcquire(timeoutSeconds, TimeUnit.SECONDS))
+    {
+      throw new TimeoutException("Engine " + engineDir + " is leased by another module for more than " + timeoutSeconds + "s.");
+    }
+    slot.leasedBy(owner);
+    return slot;
+  }
+
+  private static class Slot
+  {
+    private final Semaphore lease = new Semaphore(1, true);
+    private boolean leased = false;
+    private volatile Engine engine;
+    private volatile String url;
+    private Object owner;
+
+    private synchronized void leasedBy(Object module)
+    {
+      leased = true;
+      owner = module;
+    }
+
+    private synchronized void release()
+    {
+      if (leased)
+      {
+        leased = false;
+        owner = null;
+        lease.release();
+      }
+    }
+
+    private synchronized void releaseIfOwnedBy(Object module)
+    {
+      if (owner != null && owner.equals(module))
+      {
+        release();
+      }
+    }
+  }
+
+}
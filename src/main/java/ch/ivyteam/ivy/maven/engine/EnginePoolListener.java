@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Releases the {@link EnginePool} leases of a module that fails: its <code>stop-test-engine</code> goal does not 
+ * run, and the following modules would wait for the engine until their lease timeout.
+ *
+ * <p>Wraps the execution listener of the session, which Maven resolves for every event. All events are forwarded
+ * to the wrapped listener, e.g. the one that logs the build progress.</p>
+ *
+ * @since 7.4.0
+ */
+public class EnginePoolListener implements ExecutionListener
+{
+  private final EnginePool pool;
+  private final ExecutionListener delegate;
+
+  EnginePoolListener(EnginePool pool, ExecutionListener delegate)
+  {
+    this.pool = pool;
+    this.delegate = delegate == null ? new AbstractExecutionListener() : delegate;
+  }
+
+  /**
+   * Installs the listener once per session.
+   */
+  public static void install(MavenSession session, EnginePool pool)
+  {
+    if (session == null)
+    {
+      return;
+    }
+    MavenExecutionRequest request = session.getRequest();
+    synchronized (request)
+    {
+      if (!(request.getExecutionListener() instanceof EnginePoolListener))
+      {
+        request.setExecutionListener(new EnginePoolListener(pool, request.getExecutionListener()));
+      }
+    }
+  }
+
+  @Override
+  public void projectFailed(ExecutionEvent event)
+  {
+    pool.releaseLeasesOf(event.getProject());
+    delegate.projectFailed(event);
+  }
+
+  @Override
+  public void projectDiscoveryStarted(ExecutionEvent event)
+  {
+    delegate.projectDiscoveryStarted(event);
+  }
+
+  @Override
+  public void sessionStarted(ExecutionEvent event)
+  {
+    delegate.sessionStarted(event);
+  }
+
+  @Override
+  public void sessionEnded(ExecutionEvent event)
+  {
+    delegate.sessionEnded(event);
+  }
+
+  @Override
+  public void projectSkipped(ExecutionEvent event)
+  {
+    delegate.projectSkipped(event);
+  }
+
+  @Override
+  public void projectStarted(ExecutionEvent event)
+  {
+    delegate.projectStarted(event);
+  }
+
+  @Override
+  public void projectSucceeded(ExecutionEvent event)
+  {
+    delegate.projectSucceeded(event);
+  }
+
+  @Override
+  public void mojoSkipped(ExecutionEvent event)
+  {
+    delegate.mojoSkipped(event);
+  }
+
+  @Override
+  public void mojoStarted(ExecutionEvent event)
+  {
+    delegate.mojoStarted(event);
+  }
+
+  @Override
+  public void mojoSucceeded(ExecutionEvent event)
+  {
+    delegate.mojoSucceeded(event);
+  }
+
+  @Override
+  public void mojoFailed(ExecutionEvent event)
+  {
+    delegate.mojoFailed(event);
+  }
+
+  @Override
+  public void forkStarted(ExecutionEvent event)
+  {
+    delegate.forkStarted(event);
+  }
+
+  @Override
+  public void forkSucceeded(ExecutionEvent event)
+  {
+    delegate.forkSucceeded(event);
+  }
+
+  @Override
+  public void forkFailed(ExecutionEvent event)
+  {
+    delegate.forkFailed(event);
+  }
+
+  @Override
+  public void forkedProjectStarted(ExecutionEvent event)
+  {
+    delegate.forkedProjectStarted(event);
+  }
+
+  @Override
+  public void forkedProjectSucceeded(ExecutionEvent event)
+  {
+    delegate.forkedProjectSucceeded(event);
+  }
+
+  @Override
+  public void forkedProjectFailed(ExecutionEvent event)
+  {
+    delegate.forkedProjectFailed(event);
+  }
+
+}
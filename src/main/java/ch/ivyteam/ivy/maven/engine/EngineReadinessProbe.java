@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Actively polls the URL of a started engine until it serves requests.
+ *
+ * @since 7.4.0
+ */
+class EngineReadinessProbe
+{
+  private static final int PROBE_INTERVAL_MILLIS = 100;
+  private static final int CONNECT_TIMEOUT_MILLIS = 1_000;
+
+  private final URL url;
+
+  EngineReadinessProbe(String url) throws IOException
+  {
+    this.url = new URL(url);
+  }
+
+  /**
+   * @return the milliseconds waited for the engine.
+   */
+  long awaitServing(long timeoutMillis) throws TimeoutException, InterruptedException
+  {
+    long start = System.currentTimeMillis();
+    while (!isServing())
+    {
+      if (System.currentTimeMillis() - start > timeoutMillis)
+      {
+        throw new TimeoutException("Engine does not serve requests on " + url + " after " + timeoutMillis + "ms.");
+      }
+      Thread.sleep(PROBE_INTERVAL_MILLIS);
+    }
+    return System.currentTimeMillis() - start;
+  }
+
+  /**
+   * @return <code>true</code> if the engine answered with any status but a server error.
+   */
+  boolean isServing()
+  {
+    HttpURLConnection connection = null;
+    try
+    {
+      connection = (HttpURLConnection) url.openConnection();
+      connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+      connection.setReadTimeout(CONNECT_TIMEOUT_MILLIS);
+      connection.setInstanceFollowRedirects(false);
+      return connection.getResponseCode() < HttpURLConnection.HTTP_INTERNAL_ERROR;
+    }
+    catch (IOException ex)
+    { // not yet listening
+      return false;
+    }
+    finally
+    {
+      if (connection != null)
+      {
+        connection.disconnect();
+      }
+    }
+  }
+
+}
@@ -21,11 +21,36 @@ public class EngineVmOptions
   public final String maxmem;
   public final String additionalClasspath;
   public final String additionalVmOptions;
+  /** @since 7.4.0 */
+  public final boolean classDataSharing;
+  /** @since 7.4.0 */
+  public final EngineJvmProfile jvmProfile;
   
   public EngineVmOptions(String maxmem, String additionalClasspath, String additionalVmOptions)
+  {
+    this(maxmem, additionalClasspath, additionalVmOptions, false);
+  }
+
+  /**
+   * @param classDataSharing to launch the engine JVM with a {@link ClassDataSharingArchive}
+   * @since 7.4.0
+   */
+  public EngineVmOptions(String maxmem, String additionalClasspath, String additionalVmOptions, boolean classDataSharing)
+  {
+    this(maxmem, additionalClasspath, additionalVmOptions, classDataSharing, EngineJvmProfile.NONE);
+  }
+
+  /**
+   * @param jvmProfile to tune the JVM that runs the engine with
+   * @since 7.4.0
+   */
+  public EngineVmOptions(String maxmem, String additionalClasspath, String additionalVmOptions, boolean classDataSharing,
+          EngineJvmProfile jvmProfile)
   {
     this.maxmem = maxmem;
     this.additionalClasspath = additionalClasspath;
     this.additionalVmOptions = additionalVmOptions;
+    this.classDataSharing = classDataSharing;
+    this.jvmProfile = jvmProfile;
   }
 }
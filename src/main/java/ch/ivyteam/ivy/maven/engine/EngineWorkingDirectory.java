@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs engine code with the <code>user.dir</code> system property pointing to the engine directory.
+ *
+ * <p>The property is global to the JVM: concurrent calls of parallel builds (<code>mvn -T</code>) with the same
+ * engine directory share it, while calls with another engine directory wait until it is no longer in use.
+ * The original value is restored as soon as the last call returns.</p>
+ *
+ * @since 7.4.0
+ */
+class EngineWorkingDirectory
+{
+  private static final String USER_DIR = "user.dir";
+  private static final Object LOCK = new Object();
+
+  private static String activeDirectory;
+  private static String originalDirectory;
+  private static int activeCalls = 0;
+
+  private EngineWorkingDirectory()
+  {
+  }
+
+  static <T> T execute(File engineDirectory, Callable<T> function) throws Exception
+  {
+    enter(engineDirectory.getAbsolutePath());
+    try
+    {
+      return function.call();
+    }
+    finally
+    {
+      exit();
+    }
+  }
+
+  private static void enter(String directory) throws InterruptedIOException
+  {
+    synchronized (LOCK)
+    {
+      while (activeCalls > 0 && !activeDirectory.equals(directory))
+      {
+        try
+        {
+          LOCK.wait();
+        }
+        catch (InterruptedException ex)
+        {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted while waiting for engine directory " + activeDirectory);
+        }
+      }
+      if (activeCalls == 0)
+      {
+        originalDirectory = System.getProperty(USER_DIR);
+        System.setProperty(USER_DIR, directory);
+        activeDirectory = directory;
+      }
+      activeCalls++;
+    }
+  }
+
+  private static void exit()
+  {
+    synchronized (LOCK)
+    {
+      activeCalls--;
+      if (activeCalls == 0)
+      {
+        System.setProperty(USER_DIR, originalDirectory);
+        activeDirectory = null;
+        LOCK.notifyAll();
+      }
+    }
+  }
+
+}
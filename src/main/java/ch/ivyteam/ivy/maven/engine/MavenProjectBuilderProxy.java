@@ -17,12 +17,23 @@
 package ch.ivyteam.ivy.maven.engine;
 
 import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
 
 import org.apache.maven.plugin.logging.Log;
@@ -33,36 +44,125 @@ import org.apache.maven.plugin.logging.Log;
  * @author Reguel Wermelinger
  * @since 6.0.0
  */
-public class MavenProjectBuilderProxy
+public class MavenProjectBuilderProxy implements ProjectBuilder
 {
   private static final String FQ_DELEGATE_CLASS_NAME = "ch.ivyteam.ivy.project.build.MavenProjectBuilder";
-  private Object delegate;
-  private Class<?> delegateClass;
+  private static final String BUILD_BUNDLE = "ch.ivyteam.ivy.dataclasses.build";
+  private static final String JDT_BUNDLE = "org.eclipse.jdt.core";
+  private static final String CREATE_IAR_JARS = "createIarJars";
+  private static final String COMPILE = "compile";
+  private static final String VALIDATE = "validate";
+  private static final String TEST_COMPILE = "testCompile";
+
+  /** resolved once per engine, shared by all builders of the same engine */
+  private final EntryPoints entryPoints;
+  /** entry points bound to the delegate of this builder */
+  private final MethodHandle createIarJars;
+  private final MethodHandle compile;
+  private final MethodHandle validate;
+  private final MethodHandle testCompile;
   private File baseDirToBuildIn;
   private String engineClasspath;
   private final Log log;
+  /** limits the builds running concurrently in the engine, shared by all builders of the same engine */
+  private final BuildPermits buildPermits;
 
   public MavenProjectBuilderProxy(EngineClassLoaderFactory classLoaderFactory, File workspace, File baseDirToBuildIn, Log log, int timeoutEngineStartInSeconds) throws Exception
+  {
+    this(classLoaderFactory, workspace, baseDirToBuildIn, OsgiBootOptions.DEFAULT, log, timeoutEngineStartInSeconds);
+  }
+
+  /**
+   * @since 7.4.0
+   */
+  public MavenProjectBuilderProxy(EngineClassLoaderFactory classLoaderFactory, File workspace, File baseDirToBuildIn, OsgiBootOptions bootOptions, Log log, int timeoutEngineStartInSeconds) throws Exception
+  {
+    this(classLoaderFactory.createEngineClassLoader(baseDirToBuildIn), workspace, baseDirToBuildIn, bootOptions, log, timeoutEngineStartInSeconds);
+  }
+
+  /**
+   * Boots the OSGi framework of the engine with the given class loader.
+   * @since 7.4.0
+   */
+  public MavenProjectBuilderProxy(URLClassLoader ivyEngineClassLoader, File workspace, File baseDirToBuildIn, OsgiBootOptions bootOptions, Log log, int timeoutEngineStartInSeconds) throws Exception
+  {
+    this(baseDirToBuildIn, log, new BuildPermits(), 
+            boot(ivyEngineClassLoader, baseDirToBuildIn, bootOptions, log, timeoutEngineStartInSeconds),
+            getEngineClasspath(getEngineClasspathFiles(baseDirToBuildIn, bootOptions)),
+            workspace);
+  }
+
+  private MavenProjectBuilderProxy(File baseDirToBuildIn, Log log, BuildPermits buildPermits, EntryPoints entryPoints, 
+          String engineClasspath, File workspace) throws Exception
   {
     this.baseDirToBuildIn = baseDirToBuildIn;
     this.log = log;
-    
-    URLClassLoader ivyEngineClassLoader = classLoaderFactory.createEngineClassLoader(baseDirToBuildIn);
-    delegateClass = getOsgiBundledDelegate(ivyEngineClassLoader, timeoutEngineStartInSeconds);
-    Constructor<?> constructor = delegateClass.getDeclaredConstructor(File.class);
-    
-    delegate = executeInEngineDir(() -> constructor.newInstance(workspace));
+    this.buildPermits = buildPermits;
+    this.entryPoints = entryPoints;
+    this.engineClasspath = engineClasspath;
 
-    List<File> engineJars = EngineClassLoaderFactory.getIvyEngineClassPathFiles(baseDirToBuildIn);
-    engineClasspath = getEngineClasspath(engineJars);
+    Object delegate = executeInEngineDir(() -> invoke(entryPoints.constructor, workspace));
+    createIarJars = entryPoints.bind(CREATE_IAR_JARS, delegate);
+    compile = entryPoints.bind(COMPILE, delegate);
+    validate = entryPoints.bind(VALIDATE, delegate);
+    testCompile = entryPoints.bind(TEST_COMPILE, delegate);
+  }
+
+  /**
+   * @return a builder for another workspace, which shares the already started engine of this builder.
+   * @since 7.4.0
+   */
+  public MavenProjectBuilderProxy forWorkspace(File workspace) throws Exception
+  {
+    return new MavenProjectBuilderProxy(baseDirToBuildIn, log, buildPermits, entryPoints, engineClasspath, workspace);
+  }
+
+  /**
+   * Limits the number of builds that run concurrently in the engine, e.g. for parallel reactor builds
+   * (<code>mvn -T</code>). The limit applies to this builder and to all builders sharing its engine.
+   * @param maxConcurrentBuilds <code>1</code> or more
+   * @since 7.4.0
+   */
+  public void setMaxConcurrentBuilds(int maxConcurrentBuilds)
+  {
+    buildPermits.setMax(maxConcurrentBuilds);
+  }
+
+  /**
+   * @return the names of the build methods the engine supports, e.g. <code>testCompile</code>.
+   * @since 7.4.0
+   */
+  public Set<String> getSupportedEntryPoints()
+  {
+    return entryPoints.getSupported();
   }
 
-  private Class<?> getOsgiBundledDelegate(URLClassLoader ivyEngineClassLoader, int timeoutEngineStartInSeconds) throws Exception
+  private static EntryPoints boot(URLClassLoader ivyEngineClassLoader, File baseDirToBuildIn, OsgiBootOptions bootOptions, Log log, int timeoutEngineStartInSeconds) throws Exception
   { 
-    Object bundleContext = new OsgiRuntime(baseDirToBuildIn, log).startEclipseOsgiImpl(ivyEngineClassLoader, timeoutEngineStartInSeconds);
-    hackProvokeEagerStartOfJdt(bundleContext);
-    Object buildBundle = findBundle(bundleContext, "ch.ivyteam.ivy.dataclasses.build");
-    return loadClassInBundle(buildBundle, FQ_DELEGATE_CLASS_NAME);
+    long start = System.currentTimeMillis();
+    Object bundleContext = new OsgiRuntime(baseDirToBuildIn, bootOptions, log).startEclipseOsgiImpl(ivyEngineClassLoader, timeoutEngineStartInSeconds);
+    long frameworkStarted = System.currentTimeMillis();
+    BundleActivationTimings timings = new BundleActivationTimings();
+    timings.register(bundleContext);
+
+    Map<String, Object> bundles = indexBundles(bundleContext);
+    Object buildBundle = findBundle(bundles, BUILD_BUNDLE);
+    if (bootOptions.minimalBootstrap)
+    { // activates the build bundle and the bundles it requires, the framework stays at start level 1
+      List<Object> started = new TransientBundleStart(bundleContext.getClass().getClassLoader())
+        .start(bundleContext, buildBundle);
+      log.debug("Started " + started.size() + " bundles required by " + BUILD_BUNDLE + ".");
+    }
+    else if (log.isDebugEnabled())
+    { // the engine application activated its bundles before the listener could be registered
+      timings.reportStates(bundleContext, log);
+    }
+    Class<?> delegateClass = loadClassInBundle(buildBundle, FQ_DELEGATE_CLASS_NAME);
+    EntryPoints entryPoints = EntryPoints.resolve(delegateClass, new JdtActivation(findBundle(bundles, JDT_BUNDLE), timings, log), log);
+    log.debug("Engine started within " + (System.currentTimeMillis() - start) + "ms: "
+            + "OSGi framework " + (frameworkStarted - start) + "ms, build bundle " + (System.currentTimeMillis() - frameworkStarted) + "ms.");
+    timings.report(log);
+    return entryPoints;
   }
 
   private static Class<?> loadClassInBundle(Object bundle, String className) throws Exception
@@ -70,20 +170,44 @@ public class MavenProjectBuilderProxy
     return (Class<?>) bundle.getClass().getDeclaredMethod("loadClass", String.class).invoke(bundle, className);
   }
   
-  private static Object findBundle(Object bundleContext, String symbolicName) throws Exception
+  /**
+   * @return the installed bundles by their symbolic name
+   */
+  private static Map<String, Object> indexBundles(Object bundleContext) throws Exception
   {
     Object[] bundles = (Object[]) bundleContext.getClass().getDeclaredMethod("getBundles").invoke(bundleContext);
+    Map<String, Object> index = new HashMap<>();
     for(Object bundleObj : bundles)
     {
       Object bundleSymbolicName = bundleObj.getClass().getMethod("getSymbolicName").invoke(bundleObj);
-      if (symbolicName.equals(bundleSymbolicName))
+      if (bundleSymbolicName != null)
       {
-        return bundleObj;
+        index.putIfAbsent(bundleSymbolicName.toString(), bundleObj);
       }
     }
-    throw new RuntimeException("Failed to resolve bundle with symbolice name '"+symbolicName+"'.");
+    return index;
+  }
+
+  private static Object findBundle(Map<String, Object> bundles, String symbolicName)
+  {
+    Object bundle = bundles.get(symbolicName);
+    if (bundle == null)
+    {
+      throw new RuntimeException("Failed to resolve bundle with symbolice name '"+symbolicName+"'.");
+    }
+    return bundle;
   }
   
+  private static List<File> getEngineClasspathFiles(File engineDir, OsgiBootOptions bootOptions)
+  {
+    List<File> jars = EngineClassLoaderFactory.getIvyEngineClassPathFiles(engineDir);
+    if (bootOptions.configurationArea != null)
+    {
+      jars.addAll(OsgiConfigurationArea.getUnpackedBundleJars(bootOptions.configurationArea));
+    }
+    return jars;
+  }
+
   private static String getEngineClasspath(List<File> jars)
   {
     return jars.stream()
@@ -92,81 +216,231 @@ public class MavenProjectBuilderProxy
   }
   
   /**
-   * @since 7.3.0
+   * Provokes the start of JDT, which must be running before projects are compiled. It is deferred until the first 
+   * build that needs it, so that engine boots for other purposes do not pay for it.
+   * @since 7.4.0
    */
-  private static void hackProvokeEagerStartOfJdt(Object bundleContext) throws Exception
+  private static class JdtActivation
   {
-    Object jdtBundle = findBundle(bundleContext, "org.eclipse.jdt.core");
-    Class<?> javaCore = loadClassInBundle(jdtBundle, "org.eclipse.jdt.core.JavaCore");
-    javaCore.newInstance();
+    private final Object jdtBundle;
+    private final BundleActivationTimings timings;
+    private final Log log;
+    private boolean started = false;
+
+    private JdtActivation(Object jdtBundle, BundleActivationTimings timings, Log log)
+    {
+      this.jdtBundle = jdtBundle;
+      this.timings = timings;
+      this.log = log;
+    }
+
+    private synchronized void ensureStarted() throws Exception
+    {
+      if (started)
+      {
+        return;
+      }
+      long start = System.currentTimeMillis();
+      Class<?> javaCore = loadClassInBundle(jdtBundle, "org.eclipse.jdt.core.JavaCore");
+      javaCore.newInstance();
+      started = true;
+      log.debug("Started JDT within " + (System.currentTimeMillis() - start) + "ms.");
+      timings.report(log);
+    }
   }
 
-  /**
-   * @param iarDependencies dependencies of type IAR
-   * @return create IAR-JARs
-   * @throws Exception if creation fails
-   */
+  @Override
   @SuppressWarnings("unchecked")
   public List<File> createIarJars(List<File> iarDependencies) throws Exception
   {
-    Method iarJarMethod = getMethod("createIarJars", List.class);
+    MethodHandle iarJarMethod = require(createIarJars, CREATE_IAR_JARS);
     return (List<File>) executeInEngineDir(() -> 
-      iarJarMethod.invoke(delegate, iarDependencies)
+      invoke(iarJarMethod, iarDependencies)
     );
   }
   
+  @Override
   @SuppressWarnings("unchecked")
   public Map<String, Object> compile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
   {
-    Method compileMethod = getMethod("compile", File.class, List.class, String.class, Map.class);
+    entryPoints.jdt.ensureStarted();
+    MethodHandle compileMethod = require(compile, COMPILE);
     return (Map<String, Object>) executeInEngineDir(() -> 
-      compileMethod.invoke(delegate, projectDirToBuild, iarJars, engineClasspath, options)
+      invoke(compileMethod, projectDirToBuild, iarJars, engineClasspath, options)
     );
   }
   
+  @Override
   @SuppressWarnings("unchecked")
   public Map<String, Object> validate(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
   {
-    Method validate = getMethod("validate", File.class, List.class, String.class, Map.class);
+    entryPoints.jdt.ensureStarted();
+    MethodHandle validateMethod = require(validate, VALIDATE);
     return (Map<String, Object>) executeInEngineDir(() -> 
-      validate.invoke(delegate, projectDirToBuild, iarJars, engineClasspath, options)
+      invoke(validateMethod, projectDirToBuild, iarJars, engineClasspath, options)
     );
   }
   
+  @Override
   @SuppressWarnings("unchecked")
   public Map<String, Object> testCompile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
   {
-    Method compileMethod = getMethod("testCompile", File.class, List.class, String.class, Map.class);
+    entryPoints.jdt.ensureStarted();
+    MethodHandle compileMethod = require(testCompile, TEST_COMPILE);
     return (Map<String, Object>) executeInEngineDir(() -> 
-      compileMethod.invoke(delegate, projectDirToBuild, iarJars, engineClasspath, options)
+      invoke(compileMethod, projectDirToBuild, iarJars, engineClasspath, options)
     );
   }
   
-  private Method getMethod(String name, Class<?>... parameterTypes)
+  private MethodHandle require(MethodHandle entryPoint, String name)
+  {
+    if (entryPoint == null)
+    {
+      throw new RuntimeException(
+              "Method "+name+" does not exist in engine '"+baseDirToBuildIn+"'. \n"
+                      + "You might need to configer another version to work with.");
+    }
+    return entryPoint;
+  }
+
+  private static Object invoke(MethodHandle handle, Object arg) throws Exception
   {
     try
     {
-      return delegateClass.getDeclaredMethod(name, parameterTypes);
+      return handle.invokeExact(arg);
     }
-    catch (NoSuchMethodException ex)
+    catch (Throwable ex)
     {
-      throw new RuntimeException(
-              "Method "+name+"("+parameterTypes+") does not exist in engine '"+baseDirToBuildIn+"'. \n"
-                      + "You might need to configer another version to work with.");
+      throw rethrow(ex);
+    }
+  }
+
+  private static Object invoke(MethodHandle handle, Object arg1, Object arg2, Object arg3, Object arg4) throws Exception
+  {
+    try
+    {
+      return handle.invokeExact(arg1, arg2, arg3, arg4);
+    }
+    catch (Throwable ex)
+    {
+      throw rethrow(ex);
+    }
+  }
+
+  private static Exception rethrow(Throwable ex)
+  {
+    if (ex instanceof Error)
+    {
+      throw (Error) ex;
+    }
+    if (ex instanceof Exception)
+    {
+      return (Exception) ex;
+    }
+    return new Exception(ex);
+  }
+
+  /**
+   * The constructor and build methods of the engine's project builder, resolved once when the engine is booted.
+   * Methods which the engine does not provide are reported and fail only when they are called.
+   */
+  private static class EntryPoints
+  {
+    private final MethodHandle constructor;
+    private final Map<String, MethodHandle> methods = new LinkedHashMap<>();
+    private final JdtActivation jdt;
+
+    private EntryPoints(MethodHandle constructor, JdtActivation jdt)
+    {
+      this.constructor = constructor;
+      this.jdt = jdt;
+    }
+
+    private static EntryPoints resolve(Class<?> delegateClass, JdtActivation jdt, Log log) throws Exception
+    {
+      Lookup lookup = MethodHandles.lookup();
+      Constructor<?> constructor = delegateClass.getDeclaredConstructor(File.class);
+      constructor.setAccessible(true);
+      EntryPoints entryPoints = new EntryPoints(lookup.unreflectConstructor(constructor).asType(MethodType.genericMethodType(1)), jdt);
+      entryPoints.add(lookup, delegateClass, CREATE_IAR_JARS, List.class);
+      entryPoints.add(lookup, delegateClass, COMPILE, File.class, List.class, String.class, Map.class);
+      entryPoints.add(lookup, delegateClass, VALIDATE, File.class, List.class, String.class, Map.class);
+      entryPoints.add(lookup, delegateClass, TEST_COMPILE, File.class, List.class, String.class, Map.class);
+
+      Set<String> unsupported = new LinkedHashSet<>(Arrays.asList(CREATE_IAR_JARS, COMPILE, VALIDATE, TEST_COMPILE));
+      unsupported.removeAll(entryPoints.methods.keySet());
+      log.debug("Engine project builder supports " + entryPoints.methods.keySet()
+              + (unsupported.isEmpty() ? "" : " but not " + unsupported));
+      return entryPoints;
+    }
+
+    private void add(Lookup lookup, Class<?> delegateClass, String name, Class<?>... parameterTypes) throws IllegalAccessException
+    {
+      try
+      {
+        Method method = delegateClass.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        methods.put(name, lookup.unreflect(method));
+      }
+      catch (NoSuchMethodException ex)
+      { // older engine
+      }
+    }
+
+    /**
+     * @return the entry point bound to the delegate or <code>null</code> if the engine does not support it.
+     */
+    private MethodHandle bind(String name, Object delegate)
+    {
+      MethodHandle method = methods.get(name);
+      if (method == null)
+      {
+        return null;
+      }
+      MethodHandle bound = method.bindTo(delegate);
+      return bound.asType(MethodType.genericMethodType(bound.type().parameterCount()));
+    }
+
+    private Set<String> getSupported()
+    {
+      return Collections.unmodifiableSet(methods.keySet());
     }
   }
   
   private <T> T executeInEngineDir(Callable<T> function) throws Exception
   {
-    String originalBaseDirectory = System.getProperty("user.dir");
-    System.setProperty("user.dir", baseDirToBuildIn.getAbsolutePath());
+    Semaphore permits = buildPermits.acquire();
     try
     {
-      return function.call();
+      return EngineWorkingDirectory.execute(baseDirToBuildIn, function);
     }
     finally
     {
-      System.setProperty("user.dir", originalBaseDirectory);
+      permits.release();
+    }
+  }
+
+  private static class BuildPermits
+  {
+    private volatile Semaphore permits = new Semaphore(1, true);
+
+    private void setMax(int max)
+    {
+      if (max < 1)
+      {
+        throw new IllegalArgumentException("At least one concurrent build is required, but was " + max);
+      }
+      permits = new Semaphore(max, true);
+    }
+
+    /**
+     * @return the semaphore to release the acquired permit to
+     */
+    private Semaphore acquire() throws InterruptedException
+    {
+      Semaphore current = permits;
+      current.acquire();
+      return current;
     }
   }
   
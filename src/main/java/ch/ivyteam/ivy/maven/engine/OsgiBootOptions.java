@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+
+/**
+ * Options to boot the OSGi framework of an engine in the Maven JVM.
+ *
+ * @since 7.4.0
+ */
+public class OsgiBootOptions
+{
+  public static final OsgiBootOptions DEFAULT = new OsgiBootOptions(null, false);
+
+  /** persisted framework state to warm start from, <code>null</code> to use the configuration area of the engine */
+  public final File configurationArea;
+  /** start only the bundles required to build projects instead of the full engine application */
+  public final boolean minimalBootstrap;
+
+  public OsgiBootOptions(File configurationArea, boolean minimalBootstrap)
+  {
+    this.configurationArea = configurationArea;
+    this.minimalBootstrap = minimalBootstrap;
+  }
+}
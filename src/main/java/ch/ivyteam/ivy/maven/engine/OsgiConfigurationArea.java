@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+
+/**
+ * A private OSGi configuration area of an engine, outside of the engine directory. The framework persists its
+ * resolved bundle state there on the first boot, so that later boots of the same engine skip the resolution.
+ *
+ * <p>Areas are keyed by the engine location and its plugins: a changed set of plugins gets a new area. An area
+ * is seeded with the configuration files of the engine and used by one framework at a time. A build that finds
+ * the area in use by another process boots with the configuration area of the engine instead.</p>
+ *
+ * @since 7.4.0
+ */
+public class OsgiConfigurationArea
+{
+  public static final String AREAS_DIRECTORY = ".osgi-configuration";
+  private static final String STATE_DIRECTORY = "org.eclipse.osgi";
+  private static final String LOCK_FILE = ".in-use.lock";
+  private static final String STAGING_PREFIX = ".staging-";
+
+  /** locks of the areas used by frameworks of this process, held until it exits */
+  private static final Map<String, FileLock> HELD_LOCKS = new HashMap<>();
+
+  private OsgiConfigurationArea()
+  {
+  }
+
+  /**
+   * @param areasDirectory that holds the configuration areas of many engines
+   * @return the configuration area of the engine, which may not yet exist.
+   */
+  public static File locate(File areasDirectory, File engineDir) throws IOException
+  {
+    MessageDigest digest = DigestUtils.getSha256Digest();
+    digest.update(engineDir.getCanonicalPath().getBytes(StandardCharsets.UTF_8));
+    File[] plugins = new File(engineDir, OsgiDir.PLUGINS).listFiles();
+    if (plugins != null)
+    {
+      Arrays.sort(plugins);
+      for (File plugin : plugins)
+      {
+        String identity = plugin.getName() + ":" + plugin.length() + ":" + plugin.lastModified() + ";";
+        digest.update(identity.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    return new File(areasDirectory, Hex.encodeHexString(digest.digest()).substring(0, 16));
+  }
+
+  /**
+   * Provides the configuration area of the engine for exclusive use by the framework of this process.
+   * @return the seeded configuration area or <code>null</code> if another process uses it.
+   */
+  public static File acquire(File areasDirectory, File engineDir, Log log) throws IOException
+  {
+    File area = locate(areasDirectory, engineDir);
+    if (!area.isDirectory())
+    {
+      seed(engineDir, area);
+      log.info("Created OSGi configuration area " + area + " for engine " + engineDir);
+    }
+    if (!lock(area))
+    {
+      log.info("OSGi configuration area " + area + " is used by another build: booting from the engine configuration.");
+      return null;
+    }
+    return area;
+  }
+
+  /**
+   * @return the jars which the framework unpacked from bundles into the configuration area. The area is listed 
+   *         once per session, and again only when the framework unpacked further jars.
+   */
+  public static List<File> getUnpackedBundleJars(File area)
+  {
+    File stateDir = new File(area, STATE_DIRECTORY);
+    if (!stateDir.isDirectory())
+    {
+      return new ArrayList<>();
+    }
+    return EngineClasspathIndex.getJarsBelow(stateDir);
+  }
+
+  private static void seed(File engineDir, File area) throws IOException
+  {
+    File engineConfiguration = new File(engineDir, OsgiDir.INSTALL_AREA + "/configuration");
+    area.getParentFile().mkdirs();
+    File staging = new File(area.getParentFile(), STAGING_PREFIX + UUID.randomUUID());
+    try
+    {
+      if (engineConfiguration.isDirectory())
+      { // config.ini and friends, but not the framework state of the engine
+        FileUtils.copyDirectory(engineConfiguration, staging,
+                file -> !file.getParentFile().equals(engineConfiguration) || !file.getName().equals(STATE_DIRECTORY));
+      }
+      else
+      {
+        Files.createDirectories(staging.toPath());
+      }
+      Files.move(staging.toPath(), area.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (FileAlreadyExistsException ex)
+    { // seeded by a concurrent build
+    }
+    catch (IOException ex)
+    {
+      if (!area.isDirectory())
+      {
+        throw ex;
+      }
+    }
+    finally
+    {
+      FileUtils.deleteQuietly(staging);
+    }
+  }
+
+  private static boolean lock(File area) throws IOException
+  {
+    File lockFile = new File(area, LOCK_FILE);
+    String key = lockFile.getCanonicalPath();
+    synchronized (HELD_LOCKS)
+    {
+      if (HELD_LOCKS.containsKey(key))
+      {
+        return true;
+      }
+      FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+      FileLock lock;
+      try
+      {
+        lock = channel.tryLock();
+      }
+      catch (OverlappingFileLockException ex)
+      {
+        lock = null;
+      }
+      if (lock == null)
+      {
+        channel.close();
+        return false;
+      }
+      HELD_LOCKS.put(key, lock);
+      return true;
+    }
+  }
+
+}
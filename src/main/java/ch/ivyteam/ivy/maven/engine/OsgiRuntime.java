@@ -29,25 +29,44 @@ import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
 class OsgiRuntime
 {
   private final File engineDir;
+  private final OsgiBootOptions options;
   private final Log log;
 
   OsgiRuntime(File engineDir, Log log)
+  {
+    this(engineDir, OsgiBootOptions.DEFAULT, log);
+  }
+
+  OsgiRuntime(File engineDir, OsgiBootOptions options, Log log)
   {
     this.engineDir = engineDir;
+    this.options = options;
     this.log = log;
   }
   
   Object startEclipseOsgiImpl(URLClassLoader ivyEngineClassLoader, int timeoutEngineStartInSeconds) throws Exception
   {
     Class<?> osgiBooter = ivyEngineClassLoader.loadClass("org.eclipse.core.runtime.adaptor.EclipseStarter");
-    Method mainMethod = osgiBooter.getDeclaredMethod("main", String[].class);
-    List<String> mainArgs = new ArrayList<>(Arrays.asList("-application", "ch.ivyteam.ivy.server.exec.engine.maven"));
+    List<String> mainArgs = new ArrayList<>();
+    if (!options.minimalBootstrap)
+    {
+      mainArgs.addAll(Arrays.asList("-application", "ch.ivyteam.ivy.server.exec.engine.maven"));
+    }
     if (log.isDebugEnabled())
     {
       mainArgs.add("-debug");
     }
     final String[] args = mainArgs.toArray(new String[mainArgs.size()]);
-    runThreadWithProperties(() -> mainMethod.invoke(null, (Object)args), timeoutEngineStartInSeconds);
+    if (options.minimalBootstrap)
+    { // framework only: the bundles to build with are started on demand
+      Method startupMethod = osgiBooter.getDeclaredMethod("startup", String[].class, Runnable.class);
+      runThreadWithProperties(() -> startupMethod.invoke(null, args, null), timeoutEngineStartInSeconds);
+    }
+    else
+    {
+      Method mainMethod = osgiBooter.getDeclaredMethod("main", String[].class);
+      runThreadWithProperties(() -> mainMethod.invoke(null, (Object)args), timeoutEngineStartInSeconds);
+    }
     Object bundleContext = osgiBooter.getDeclaredMethod("getSystemBundleContext").invoke(null);
     return bundleContext;
   }
@@ -110,6 +129,15 @@ class OsgiRuntime
     properties.put("user.dir", engineDir.getAbsolutePath());
     File osgiDir = new File(engineDir, OsgiDir.INSTALL_AREA);
     properties.put("osgi.install.area", osgiDir.getAbsolutePath());
+    if (options.configurationArea != null)
+    { // warm start from the persisted state of a previous boot
+      properties.put("osgi.configuration.area", options.configurationArea.getAbsolutePath());
+      properties.put("osgi.checkConfiguration", Boolean.FALSE.toString());
+    }
+    if (options.minimalBootstrap)
+    { // only the bundles of the lowest start level, e.g. the one that installs all others
+      properties.put("osgi.startLevel", "1");
+    }
     properties.put("org.osgi.framework.bundle.parent", "framework");
     properties.put("org.osgi.framework.bootdelegation",
             "javax.annotation,ch.ivyteam.ivy.boot.osgi.win,ch.ivyteam.ivy.jaas," // original
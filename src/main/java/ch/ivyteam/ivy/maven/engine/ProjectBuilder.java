@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds ivy projects with an ivy Engine: in this JVM ({@link MavenProjectBuilderProxy}) 
+ * or in a build daemon ({@link ch.ivyteam.ivy.maven.engine.daemon.BuildDaemonClient}).
+ * 
+ * @since 7.4.0
+ */
+public interface ProjectBuilder
+{
+  /**
+   * @param iarDependencies dependencies of type IAR
+   * @return create IAR-JARs
+   * @throws Exception if creation fails
+   */
+  List<File> createIarJars(List<File> iarDependencies) throws Exception;
+
+  Map<String, Object> compile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception;
+
+  Map<String, Object> validate(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception;
+
+  Map<String, Object> testCompile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception;
+}
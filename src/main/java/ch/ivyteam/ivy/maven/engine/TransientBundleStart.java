@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Activates a bundle and the bundles it requires in a framework that runs at a low start level, without starting
+ * any other bundle. Starting a bundle does not start the bundles it depends on, so the required bundles are 
+ * collected from the wiring of the resolved bundle and started first.
+ *
+ * <p>The bundles are started transiently with their activation policy: lazy bundles are activated once their
+ * classes are used. A transient start is refused above the active start level of the framework (OSGi core, 9.3), 
+ * so the start level of such bundles is lowered to the active one. The framework persists this in its 
+ * configuration area.</p>
+ *
+ * @since 7.4.0
+ */
+class TransientBundleStart
+{
+  /** org.osgi.framework.Bundle start options */
+  static final int START_TRANSIENT = 0x00000001;
+  static final int START_ACTIVATION_POLICY = 0x00000002;
+  private static final long SYSTEM_BUNDLE_ID = 0;
+
+  static final String BUNDLE_START_LEVEL = "org.osgi.framework.startlevel.BundleStartLevel";
+  static final String FRAMEWORK_START_LEVEL = "org.osgi.framework.startlevel.FrameworkStartLevel";
+  static final String BUNDLE_WIRING = "org.osgi.framework.wiring.BundleWiring";
+  static final String BUNDLE_WIRE = "org.osgi.framework.wiring.BundleWire";
+  static final String FRAMEWORK_WIRING = "org.osgi.framework.wiring.FrameworkWiring";
+
+  private final Class<?> bundleStartLevelType;
+  private final Class<?> frameworkStartLevelType;
+  private final Class<?> bundleWiringType;
+  private final Class<?> bundleWireType;
+  private final Class<?> frameworkWiringType;
+
+  /**
+   * @param frameworkLoader the class loader which provides the OSGi API of the framework
+   */
+  TransientBundleStart(ClassLoader frameworkLoader) throws ClassNotFoundException
+  {
+    this.bundleStartLevelType = frameworkLoader.loadClass(BUNDLE_START_LEVEL);
+    this.frameworkStartLevelType = frameworkLoader.loadClass(FRAMEWORK_START_LEVEL);
+    this.bundleWiringType = frameworkLoader.loadClass(BUNDLE_WIRING);
+    this.bundleWireType = frameworkLoader.loadClass(BUNDLE_WIRE);
+    this.frameworkWiringType = frameworkLoader.loadClass(FRAMEWORK_WIRING);
+  }
+
+  /**
+   * @param bundleContext the system bundle context of the framework
+   * @param bundle to activate
+   * @return the bundle and the bundles it requires, in the order they were started: dependencies first
+   */
+  List<Object> start(Object bundleContext, Object bundle) throws Exception
+  {
+    Object systemBundle = bundleContext.getClass().getMethod("getBundle").invoke(bundleContext);
+    resolve(systemBundle, bundle);
+    List<Object> closure = new ArrayList<>();
+    collectRequired(bundle, new HashSet<>(), closure);
+
+    Object frameworkStartLevel = adapt(systemBundle, frameworkStartLevelType);
+    int activeStartLevel = (Integer) frameworkStartLevelType.getMethod("getStartLevel").invoke(frameworkStartLevel);
+    List<Object> started = new ArrayList<>();
+    for (Object required : closure)
+    {
+      if (isStartable(required))
+      {
+        startTransient(required, activeStartLevel);
+        started.add(required);
+      }
+    }
+    return started;
+  }
+
+  private void resolve(Object systemBundle, Object bundle) throws Exception
+  {
+    Object frameworkWiring = adapt(systemBundle, frameworkWiringType);
+    Object resolved = frameworkWiringType.getMethod("resolveBundles", Collection.class)
+            .invoke(frameworkWiring, Collections.singleton(bundle));
+    if (!Boolean.TRUE.equals(resolved))
+    {
+      Object name = bundle.getClass().getMethod("getSymbolicName").invoke(bundle);
+      throw new Exception("Failed to resolve bundle '" + name + "' and the bundles it requires.");
+    }
+  }
+
+  /**
+   * Depth first, so that every bundle is added after the bundles it requires.
+   */
+  private void collectRequired(Object bundle, Set<Object> visited, List<Object> closure) throws Exception
+  {
+    if (!visited.add(bundle))
+    {
+      return;
+    }
+    Object wiring = adapt(bundle, bundleWiringType);
+    if (wiring != null)
+    {
+      List<?> wires = (List<?>) bundleWiringType.getMethod("getRequiredWires", String.class).invoke(wiring, (Object) null);
+      for (Object wire : wires)
+      {
+        Object providerWiring = bundleWireType.getMethod("getProviderWiring").invoke(wire);
+        collectRequired(bundleWiringType.getMethod("getBundle").invoke(providerWiring), visited, closure);
+      }
+    }
+    closure.add(bundle);
+  }
+
+  /**
+   * @return <code>false</code> for the system bundle, which is already active, and for fragments
+   */
+  private static boolean isStartable(Object bundle) throws Exception
+  {
+    long id = (Long) bundle.getClass().getMethod("getBundleId").invoke(bundle);
+    Dictionary<?, ?> headers = (Dictionary<?, ?>) bundle.getClass().getMethod("getHeaders").invoke(bundle);
+    return id != SYSTEM_BUNDLE_ID && headers.get("Fragment-Host") == null;
+  }
+
+  private void startTransient(Object bundle, int activeStartLevel) throws Exception
+  {
+    Object bundleStartLevel = adapt(bundle, bundleStartLevelType);
+    int startLevel = (Integer) bundleStartLevelType.getMethod("getStartLevel").invoke(bundleStartLevel);
+    if (startLevel > activeStartLevel)
+    {
+      bundleStartLevelType.getMethod("setStartLevel", int.class).invoke(bundleStartLevel, activeStartLevel);
+    }
+    bundle.getClass().getMethod("start", int.class).invoke(bundle, START_TRANSIENT | START_ACTIVATION_POLICY);
+  }
+
+  private static Object adapt(Object bundle, Class<?> type) throws Exception
+  {
+    return bundle.getClass().getMethod("adapt", Class.class).invoke(bundle, type);
+  }
+
+}
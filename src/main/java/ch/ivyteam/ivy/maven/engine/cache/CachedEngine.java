@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+
+/**
+ * An engine that was completely installed into the {@link EngineCache}.
+ *
+ * <p>The completion marker is the last file that is written during an installation. It holds the facts
+ * of the engine, so that a cache hit can be trusted without reading the engine itself.
+ * The manifest lists the hashes of all engine files in the format of <code>sha256sum</code>.</p>
+ *
+ * @since 7.4.0
+ */
+public class CachedEngine
+{
+  static final String MARKER = ".ivy-engine-complete";
+  static final String MANIFEST = ".ivy-engine-manifest";
+
+  static final String SHA256 = "sha256";
+  static final String VERSION = "version";
+  static final String FILES = "files";
+
+  private final File directory;
+  private final Properties marker;
+
+  private CachedEngine(File directory, Properties marker)
+  {
+    this.directory = directory;
+    this.marker = marker;
+  }
+
+  /**
+   * @param directory a directory of the engine cache
+   * @return the completely installed engine in the directory or <code>null</code> if it has no completion marker.
+   */
+  public static CachedEngine read(File directory) throws IOException
+  {
+    File markerFile = new File(directory, MARKER);
+    if (!markerFile.isFile())
+    {
+      return null;
+    }
+    Properties marker = new Properties();
+    try(InputStream in = new FileInputStream(markerFile))
+    {
+      marker.load(in);
+    }
+    return new CachedEngine(directory, marker);
+  }
+
+  public File getDirectory()
+  {
+    return directory;
+  }
+
+  public String getSha256()
+  {
+    return marker.getProperty(SHA256);
+  }
+
+  /**
+   * @return the engine version, evaluated at installation time, or <code>null</code> for a non-OSGi engine.
+   */
+  public ArtifactVersion getVersion()
+  {
+    String version = marker.getProperty(VERSION);
+    if (StringUtils.isBlank(version))
+    {
+      return null;
+    }
+    return new DefaultArtifactVersion(version);
+  }
+
+  /**
+   * Re-validates the engine files against the manifest. This reads every file of the engine:
+   * it is meant for explicit verification, not for cache lookups.
+   * @return relative paths of the files which are missing or whose content changed since the installation.
+   */
+  public List<String> verify() throws IOException
+  {
+    List<String> lines = Files.readAllLines(new File(directory, MANIFEST).toPath(), StandardCharsets.UTF_8);
+    try
+    {
+      return lines.parallelStream()
+              .filter(StringUtils::isNotBlank)
+              .filter(line -> !isUnchanged(line))
+              .map(line -> StringUtils.substringAfter(line, EngineCache.MANIFEST_SEPARATOR))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    catch (UncheckedIOException ex)
+    {
+      throw ex.getCause();
+    }
+  }
+
+  private boolean isUnchanged(String manifestLine)
+  {
+    String expectedHash = StringUtils.substringBefore(manifestLine, EngineCache.MANIFEST_SEPARATOR);
+    File file = new File(directory, StringUtils.substringAfter(manifestLine, EngineCache.MANIFEST_SEPARATOR));
+    if (!file.isFile())
+    {
+      return false;
+    }
+    try
+    {
+      return expectedHash.equals(EngineCache.sha256(file));
+    }
+    catch (IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+}
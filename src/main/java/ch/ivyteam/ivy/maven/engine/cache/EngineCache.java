@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.ClassDataSharingArchive;
+import ch.ivyteam.ivy.maven.engine.EngineClasspathIndex;
+import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+
+/**
+ * Content addressed store of unpacked engines, keyed by the SHA-256 of the engine archive.
+ *
+ * <p>An engine is unpacked into a hidden staging directory first. After the manifest and the completion
+ * marker have been written, the staging directory is renamed to its final name <code>&lt;version&gt;-&lt;key&gt;</code>.
+ * So a directory of the cache is either complete or does not exist under its final name.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineCache
+{
+  static final String MANIFEST_SEPARATOR = "  ";
+  private static final String STAGING_PREFIX = ".staging-";
+  private static final long STALE_STAGING_MILLIS = TimeUnit.DAYS.toMillis(1);
+  private static final int KEY_LENGTH = 12;
+
+  private final File cacheDirectory;
+  private final Log log;
+
+  public EngineCache(File cacheDirectory, Log log)
+  {
+    this.cacheDirectory = cacheDirectory;
+    this.log = log;
+  }
+
+  /**
+   * @return <code>true</code> if the file is managed by the cache itself and is not an engine directory (e.g. staging directories).
+   */
+  public static boolean isInternal(File file)
+  {
+    return file.getName().startsWith(".");
+  }
+
+  public static String sha256(File file) throws IOException
+  {
+    try(InputStream in = new FileInputStream(file))
+    {
+      return DigestUtils.sha256Hex(in);
+    }
+  }
+
+  /**
+   * @return the completely installed engine of the archive with the given SHA-256 or <code>null</code>.
+   */
+  public CachedEngine find(String sha256) throws IOException
+  {
+    File[] candidates = cacheDirectory.listFiles(file -> file.isDirectory() && file.getName().endsWith("-" + toKey(sha256)));
+    if (candidates == null)
+    {
+      return null;
+    }
+    for (File candidate : candidates)
+    {
+      CachedEngine engine = CachedEngine.read(candidate);
+      if (engine != null && sha256.equals(engine.getSha256()))
+      {
+        return engine;
+      }
+    }
+    return null;
+  }
+
+  public File createStagingDirectory() throws IOException
+  {
+    removeStaleStagingDirectories();
+    File staging = new File(cacheDirectory, STAGING_PREFIX + UUID.randomUUID());
+    Files.createDirectories(staging.toPath());
+    return staging;
+  }
+
+  /**
+   * Removes the leftovers of all installations. Must only be called while holding the {@link InstallLock} of the cache.
+   */
+  public void discardStagingDirectories()
+  {
+    removeStagingDirectories(0);
+  }
+
+  /**
+   * Removes leftovers of installations which were killed before they could clean up.
+   */
+  private void removeStaleStagingDirectories()
+  {
+    removeStagingDirectories(STALE_STAGING_MILLIS);
+  }
+
+  private void removeStagingDirectories(long minAgeMillis)
+  {
+    File[] stagingDirs = cacheDirectory.listFiles(file -> file.getName().startsWith(STAGING_PREFIX));
+    if (ArrayUtils.isEmpty(stagingDirs))
+    {
+      return;
+    }
+    for (File stagingDir : stagingDirs)
+    {
+      if (System.currentTimeMillis() - stagingDir.lastModified() >= minAgeMillis)
+      {
+        log.debug("Removing engine staging directory " + stagingDir);
+        discard(stagingDir);
+      }
+    }
+  }
+
+  public void discard(File stagingDir)
+  {
+    FileUtils.deleteQuietly(stagingDir);
+  }
+
+  /**
+   * Removes an engine from the cache. It is renamed to a staging directory before it is deleted,
+   * so that it never appears partially deleted under its final name.
+   */
+  public void remove(File engineDir) throws IOException
+  {
+    File staging = new File(cacheDirectory, STAGING_PREFIX + UUID.randomUUID());
+    Files.move(engineDir.toPath(), staging.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    discard(staging);
+  }
+
+  /**
+   * Publishes a completely unpacked engine under its final name.
+   * @param stagingDir the directory the engine was unpacked into, see {@link #createStagingDirectory()}
+   * @param name human readable prefix of the directory name, typically the engine version
+   * @param sha256 of the archive the engine was unpacked from
+   * @return the installed engine. If the same archive was installed concurrently, the existing engine is returned
+   *         and the staging directory is discarded.
+   */
+  public CachedEngine commit(File stagingDir, String name, String sha256) throws IOException
+  {
+    ArtifactVersion version = new EngineVersionEvaluator(log, stagingDir).evaluateVersion();
+    int files = writeManifest(stagingDir);
+    Properties marker = new Properties();
+    marker.setProperty(CachedEngine.SHA256, sha256);
+    marker.setProperty(CachedEngine.VERSION, version == null ? "" : version.toString());
+    marker.setProperty(CachedEngine.FILES, Integer.toString(files));
+    writeMarker(stagingDir, marker);
+
+    File target = new File(cacheDirectory, name + "-" + toKey(sha256));
+    CachedEngine existing = CachedEngine.read(target);
+    if (existing != null && sha256.equals(existing.getSha256()))
+    {
+      discard(stagingDir);
+      return existing;
+    }
+    if (target.exists())
+    { // not published by the cache: can not be a complete engine
+      FileUtils.deleteDirectory(target);
+    }
+    Files.move(stagingDir.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    log.debug("Installed engine with " + files + " files into " + target);
+    return CachedEngine.read(target);
+  }
+
+  static int writeManifest(File engineDir) throws IOException
+  {
+    Path root = engineDir.toPath();
+    List<Path> files;
+    try(Stream<Path> walk = Files.walk(root))
+    {
+      files = walk.filter(Files::isRegularFile)
+              .filter(file -> !isMetadata(root.relativize(file).toString()))
+              .sorted()
+              .collect(Collectors.toList());
+    }
+    List<String> lines;
+    try
+    {
+      lines = files.parallelStream()
+              .map(file -> hash(file) + MANIFEST_SEPARATOR + root.relativize(file).toString().replace(File.separatorChar, '/'))
+              .collect(Collectors.toList());
+    }
+    catch (UncheckedIOException ex)
+    {
+      throw ex.getCause();
+    }
+    Files.write(new File(engineDir, CachedEngine.MANIFEST).toPath(), lines, StandardCharsets.UTF_8);
+    return files.size();
+  }
+
+  private static boolean isMetadata(String relativePath)
+  {
+    return relativePath.equals(CachedEngine.MARKER) || relativePath.equals(CachedEngine.MANIFEST)
+            || PartialEngine.isMetadata(relativePath) || relativePath.equals(EngineClasspathIndex.FILE)
+            || ClassDataSharingArchive.isMetadata(relativePath);
+  }
+
+  private static String hash(Path file)
+  {
+    try
+    {
+      return sha256(file.toFile());
+    }
+    catch (IOException ex)
+    {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  private static void writeMarker(File engineDir, Properties marker) throws IOException
+  {
+    File tmpMarker = new File(engineDir, CachedEngine.MARKER + ".tmp");
+    try(OutputStream out = new FileOutputStream(tmpMarker))
+    {
+      marker.store(out, "completely installed engine");
+    }
+    Files.move(tmpMarker.toPath(), new File(engineDir, CachedEngine.MARKER).toPath(), StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static String toKey(String sha256)
+  {
+    return sha256.substring(0, KEY_LENGTH);
+  }
+
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Evicts the least recently used engines of an {@link EngineCache} until the cache fits into a budget.
+ *
+ * <p>Engines used by a running build (see {@link EngineUsage}) are never evicted, even if the budget can not be
+ * met without them. Engine directories that were materialized from the cache by hard links keep their files.
+ * The {@link IarJarCache IAR-JARs} of an engine version are evicted with the last cached engine of that version.</p>
+ *
+ * <p>Must only be run while holding the {@link InstallLock} of the cache.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineEviction
+{
+  private final File cacheDirectory;
+  private final Log log;
+  /** of the cached engines, evaluated once the cache exceeds its budget */
+  private Map<File, ArtifactVersion> versions = Collections.emptyMap();
+
+  public EngineEviction(File cacheDirectory, Log log)
+  {
+    this.cacheDirectory = cacheDirectory;
+    this.log = log;
+  }
+
+  /**
+   * @param maxBytes maximum total size of all engines, <code>0</code> for no size limit
+   * @param maxEngines maximum number of engines, <code>0</code> for no count limit
+   * @return the evicted engine directories
+   */
+  public List<File> evict(long maxBytes, int maxEngines) throws IOException
+  {
+    List<File> evicted = new ArrayList<>();
+    if (maxBytes <= 0 && maxEngines <= 0)
+    {
+      return evicted;
+    }
+    List<Candidate> candidates = listEngines(maxBytes > 0);
+    int engines = candidates.size();
+    long bytes = candidates.stream().mapToLong(candidate -> candidate.size).sum();
+    if (isWithinBudget(engines, bytes, maxBytes, maxEngines))
+    {
+      return evicted;
+    }
+    versions = EngineVersionIndex.of(cacheDirectory, log).getEngineVersions();
+    candidates.sort(Comparator.comparingLong(candidate -> candidate.lastUse)); // least recently used first
+    for (Candidate candidate : candidates)
+    {
+      if (isWithinBudget(engines, bytes, maxBytes, maxEngines))
+      {
+        break;
+      }
+      if (evict(candidate.directory))
+      {
+        evicted.add(candidate.directory);
+        engines--;
+        bytes -= candidate.size;
+      }
+    }
+    evictIarJarsOf(evicted);
+    if (!isWithinBudget(engines, bytes, maxBytes, maxEngines))
+    {
+      log.warn("Engine cache '" + cacheDirectory + "' exceeds its budget with " + engines + " engines of "
+              + FileUtils.byteCountToDisplaySize(bytes) + ": the remaining engines are used by running builds.");
+    }
+    return evicted;
+  }
+
+  /**
+   * Removes the {@link IarJarCache IAR-JARs} of the engine versions which no longer have a cached engine.
+   */
+  private void evictIarJarsOf(List<File> evictedEngines)
+  {
+    Set<String> evictedVersions = new HashSet<>();
+    for (File engineDir : evictedEngines)
+    {
+      ArtifactVersion version = versions.get(engineDir);
+      if (version != null)
+      {
+        evictedVersions.add(version.toString());
+      }
+    }
+    versions.forEach((engineDir, version) -> {
+      if (version != null && !evictedEngines.contains(engineDir))
+      {
+        evictedVersions.remove(version.toString());
+      }
+    });
+    IarJarCache.evict(cacheDirectory, evictedVersions, log);
+  }
+
+  private static boolean isWithinBudget(int engines, long bytes, long maxBytes, int maxEngines)
+  {
+    return (maxEngines <= 0 || engines <= maxEngines) && (maxBytes <= 0 || bytes <= maxBytes);
+  }
+
+  private List<Candidate> listEngines(boolean evaluateSize)
+  {
+    File[] engineDirs = cacheDirectory.listFiles(file -> file.isDirectory() && !EngineCache.isInternal(file));
+    List<Candidate> candidates = new ArrayList<>();
+    if (engineDirs == null)
+    {
+      return candidates;
+    }
+    for (File engineDir : engineDirs)
+    {
+      long size = evaluateSize ? FileUtils.sizeOfDirectory(engineDir) : 0;
+      candidates.add(new Candidate(engineDir, EngineUsage.getLastUse(engineDir), size));
+    }
+    return candidates;
+  }
+
+  private boolean evict(File engineDir) throws IOException
+  {
+    FileLock usageLock = EngineUsage.tryLockUnused(engineDir);
+    if (usageLock == null)
+    {
+      log.debug("Keeping engine " + engineDir + ": it is used by a running build.");
+      return false;
+    }
+    try
+    {
+      log.info("Evicting least recently used engine " + engineDir + " from the cache.");
+      new EngineCache(cacheDirectory, log).remove(engineDir);
+      EngineVersionIndex.of(cacheDirectory, log).remove(engineDir);
+    }
+    finally
+    {
+      EngineUsage.remove(engineDir, usageLock);
+    }
+    return true;
+  }
+
+  private static class Candidate
+  {
+    private final File directory;
+    private final long lastUse;
+    private final long size;
+
+    private Candidate(File directory, long lastUse, long size)
+    {
+      this.directory = directory;
+      this.lastUse = lastUse;
+      this.size = size;
+    }
+  }
+
+}
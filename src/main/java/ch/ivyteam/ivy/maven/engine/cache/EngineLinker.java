@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.ClassDataSharingArchive;
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+import ch.ivyteam.ivy.maven.engine.EngineClasspathIndex;
+
+/**
+ * Materializes an engine of the {@link EngineCache} in another directory.
+ *
+ * <p>Files of the immutable library trees ({@link #LINKED_TREES}) are hard-linked, so they occupy no additional
+ * disk space and the engine is ready in a fraction of the unpack time. All other files, e.g. configurations
+ * which the engine may modify, are copied. If the target is on another file system, or the file system does not
+ * support hard links, the library files are copied as well.</p>
+ *
+ * <p>The archive of a {@link PartialEngine} is hard-linked as well, so that the materialized engine
+ * can be completed on its own.</p>
+ *
+ * <p>Hard-linked files share their content with the cache: they must never be modified in place.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineLinker
+{
+  static final List<String> LINKED_TREES = Arrays.asList(
+          OsgiDir.PLUGINS,
+          OsgiDir.INSTALL_AREA + "/lib",
+          "lib",
+          "webapps/ivy/WEB-INF/lib");
+
+  private final Log log;
+
+  private int linkedFiles;
+  private int copiedFiles;
+
+  public EngineLinker(Log log)
+  {
+    this.log = log;
+  }
+
+  /**
+   * @param engineDir engine of the cache
+   * @param targetDir to materialize the engine in, must be empty or not yet exist
+   */
+  public void link(File engineDir, File targetDir) throws IOException
+  {
+    long start = System.currentTimeMillis();
+    Path source = engineDir.toPath();
+    Path target = targetDir.toPath();
+    Files.createDirectories(target);
+    Files.walkFileTree(source, new SimpleFileVisitor<Path>()
+      {
+        private boolean linksSupported = true;
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+        {
+          Files.createDirectories(target.resolve(source.relativize(dir)));
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+        {
+          String relativePath = source.relativize(file).toString().replace(File.separatorChar, '/');
+          if (isCacheMetadata(relativePath))
+          { // a materialized engine is not a trusted cache entry
+            return FileVisitResult.CONTINUE;
+          }
+          Path targetFile = target.resolve(relativePath);
+          if (linksSupported && (isLinked(relativePath) || relativePath.equals(PartialEngine.ARCHIVE)))
+          {
+            try
+            {
+              Files.createLink(targetFile, file);
+              linkedFiles++;
+              return FileVisitResult.CONTINUE;
+            }
+            catch (UnsupportedOperationException | IOException ex)
+            {
+              log.debug("Can not hard-link engine files, copying them instead: " + ex);
+              linksSupported = false;
+            }
+          }
+          Files.copy(file, targetFile, StandardCopyOption.COPY_ATTRIBUTES);
+          copiedFiles++;
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException ex) throws IOException
+        {
+          if (ex != null)
+          {
+            throw ex;
+          }
+          FileTime lastModified = Files.getLastModifiedTime(dir);
+          Files.setLastModifiedTime(target.resolve(source.relativize(dir)), lastModified);
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    log.info("Materialized engine " + engineDir + " in " + targetDir + " within " + (System.currentTimeMillis() - start)
+            + "ms: " + linkedFiles + " files linked, " + copiedFiles + " files copied.");
+  }
+
+  private static boolean isCacheMetadata(String relativePath)
+  {
+    return relativePath.equals(CachedEngine.MARKER) || relativePath.equals(CachedEngine.MANIFEST)
+            || relativePath.equals(PartialEngine.LOCK) || relativePath.equals(EngineClasspathIndex.FILE)
+            || ClassDataSharingArchive.isMetadata(relativePath);
+  }
+
+  private static boolean isLinked(String relativePath)
+  {
+    for (String tree : LINKED_TREES)
+    {
+      if (relativePath.startsWith(tree + "/"))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int getLinkedFiles()
+  {
+    return linkedFiles;
+  }
+
+  public int getCopiedFiles()
+  {
+    return copiedFiles;
+  }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the use of the engines of an {@link EngineCache}, so that the least recently used engines can be evicted.
+ *
+ * <p>A build that uses a cached engine touches its usage file in <code>.usage</code> of the cache and holds
+ * a shared lock on it until the build process exits. An engine is only evicted while the evicting process
+ * can lock its usage file exclusively, i.e. while no running build uses it.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineUsage
+{
+  static final String USAGE_DIR = ".usage";
+
+  /** shared locks of this process, held until it exits */
+  private static final Map<String, FileLock> HELD_LOCKS = new HashMap<>();
+
+  private EngineUsage()
+  {
+  }
+
+  /**
+   * Records the use of a cached engine and protects it from eviction for the lifetime of this process.
+   * @return <code>false</code> if the engine was evicted before its use could be recorded.
+   */
+  public static boolean record(File engineDir) throws IOException
+  {
+    File usageFile = getUsageFile(engineDir);
+    String key = usageFile.getCanonicalPath();
+    synchronized (HELD_LOCKS)
+    {
+      if (!HELD_LOCKS.containsKey(key))
+      {
+        usageFile.getParentFile().mkdirs();
+        FileChannel channel = FileChannel.open(usageFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // blocks while an eviction of this engine is in progress
+        FileLock lock = channel.lock(0, Long.MAX_VALUE, true);
+        if (!engineDir.isDirectory())
+        {
+          channel.close();
+          return false;
+        }
+        HELD_LOCKS.put(key, lock);
+      }
+    }
+    usageFile.setLastModified(System.currentTimeMillis());
+    return true;
+  }
+
+  /**
+   * @return the time the engine was used the last time: recorded by {@link #record(File)}
+   * or else the installation time.
+   */
+  static long getLastUse(File engineDir)
+  {
+    File usageFile = getUsageFile(engineDir);
+    if (usageFile.isFile())
+    {
+      return usageFile.lastModified();
+    }
+    File marker = new File(engineDir, CachedEngine.MARKER);
+    return marker.isFile() ? marker.lastModified() : engineDir.lastModified();
+  }
+
+  /**
+   * @return an exclusive lock on the usage of the engine or <code>null</code> if any build uses the engine.
+   */
+  static FileLock tryLockUnused(File engineDir) throws IOException
+  {
+    File usageFile = getUsageFile(engineDir);
+    usageFile.getParentFile().mkdirs();
+    FileChannel channel = FileChannel.open(usageFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    try
+    {
+      FileLock lock = channel.tryLock();
+      if (lock == null)
+      {
+        channel.close();
+      }
+      return lock;
+    }
+    catch (OverlappingFileLockException ex)
+    { // used by this process
+      channel.close();
+      return null;
+    }
+  }
+
+  /**
+   * Removes the usage record of an evicted engine.
+   */
+  static void remove(File engineDir, FileLock lock) throws IOException
+  {
+    lock.channel().close();
+    getUsageFile(engineDir).delete();
+  }
+
+  private static File getUsageFile(File engineDir)
+  {
+    File absoluteDir = engineDir.getAbsoluteFile();
+    return new File(new File(absoluteDir.getParentFile(), USAGE_DIR), absoluteDir.getName());
+  }
+
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+
+/**
+ * Versions of the engines in a cache directory, persisted in <code>.index/versions.properties</code> of the cache.
+ *
+ * <p>Each engine directory is recorded with its version and modification time. An entry is trusted as long as
+ * the modification time is unchanged, so that resolving an engine reads the index instead of the plugins
+ * of all engines. The cache directory itself is only listed again if its own modification time changed.</p>
+ *
+ * <p>Indices are kept in memory for the lifetime of the Maven session and re-read if another process updated them.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineVersionIndex
+{
+  private static final ConcurrentMap<File, EngineVersionIndex> SESSION_INDICES = new ConcurrentHashMap<>();
+
+  static final String INDEX_DIR = ".index";
+  private static final String INDEX_FILE = "versions.properties";
+  private static final String CACHE_TIMESTAMP = ".cache.lastModified";
+  private static final String SEPARATOR = "|";
+
+  private final File cacheDirectory;
+  private final File indexFile;
+  private final Log log;
+
+  private final SortedMap<String, Entry> entries = new TreeMap<>();
+  private long cacheTimestamp = -1;
+  private long indexTimestamp = -1;
+
+  EngineVersionIndex(File cacheDirectory, Log log)
+  {
+    this.cacheDirectory = cacheDirectory;
+    this.indexFile = new File(new File(cacheDirectory, INDEX_DIR), INDEX_FILE);
+    this.log = log;
+  }
+
+  public static EngineVersionIndex of(File cacheDirectory, Log log) throws IOException
+  {
+    return SESSION_INDICES.computeIfAbsent(cacheDirectory.getCanonicalFile(), dir -> new EngineVersionIndex(dir, log));
+  }
+
+  /**
+   * Evaluates the version of an engine directory: from its completion marker if it was installed by the
+   * {@link EngineCache}, or else from its plugins.
+   * @return the version or <code>null</code> for a non-OSGi engine
+   */
+  public static ArtifactVersion evaluateVersion(File engineDir, Log log) throws IOException
+  {
+    CachedEngine cachedEngine = CachedEngine.read(engineDir);
+    if (cachedEngine != null)
+    { // trust the completion marker of the cache
+      return cachedEngine.getVersion();
+    }
+    return new EngineVersionEvaluator(log, engineDir).evaluateVersion();
+  }
+
+  /**
+   * @return all engine directories of the cache with their version, <code>null</code> for non-OSGi engines.
+   * Only new or modified engine directories are evaluated.
+   */
+  public synchronized Map<File, ArtifactVersion> getEngineVersions() throws IOException
+  {
+    reloadIfModified();
+    // before reading the timestamp: creating the index directory modifies the cache directory
+    indexFile.getParentFile().mkdirs();
+    boolean modified = false;
+    long currentCacheTimestamp = cacheDirectory.lastModified();
+    if (currentCacheTimestamp != cacheTimestamp)
+    {
+      Set<String> names = listEngineDirectoryNames();
+      entries.keySet().retainAll(names);
+      for (String name : names)
+      {
+        entries.putIfAbsent(name, Entry.UNKNOWN);
+      }
+      cacheTimestamp = currentCacheTimestamp;
+      modified = true;
+    }
+
+    Map<File, ArtifactVersion> versions = new TreeMap<>();
+    for (Map.Entry<String, Entry> indexEntry : entries.entrySet())
+    {
+      File engineDir = new File(cacheDirectory, indexEntry.getKey());
+      long timestamp = getTimestamp(engineDir);
+      Entry entry = indexEntry.getValue();
+      if (entry.timestamp != timestamp)
+      {
+        log.debug("Evaluating version of engine " + engineDir);
+        entry = new Entry(evaluateVersion(engineDir, log), timestamp);
+        indexEntry.setValue(entry);
+        modified = true;
+      }
+      versions.put(engineDir, entry.version);
+    }
+    if (modified)
+    {
+      save();
+    }
+    return versions;
+  }
+
+  /**
+   * Records a freshly installed engine.
+   */
+  public synchronized void put(File engineDir, ArtifactVersion version) throws IOException
+  {
+    reloadIfModified();
+    entries.put(engineDir.getName(), new Entry(version, getTimestamp(engineDir)));
+    save();
+  }
+
+  /**
+   * Forgets an engine that was removed from the cache.
+   */
+  public synchronized void remove(File engineDir) throws IOException
+  {
+    reloadIfModified();
+    if (entries.remove(engineDir.getName()) != null)
+    {
+      save();
+    }
+  }
+
+  private Set<String> listEngineDirectoryNames()
+  {
+    File[] dirs = cacheDirectory.listFiles(file -> file.isDirectory() && !EngineCache.isInternal(file));
+    Set<String> names = new TreeSet<>();
+    if (dirs != null)
+    {
+      for (File dir : dirs)
+      {
+        names.add(dir.getName());
+      }
+    }
+    return names;
+  }
+
+  /**
+   * @return a timestamp that changes if plugins are added to or removed from the engine.
+   */
+  private static long getTimestamp(File engineDir)
+  {
+    if (!engineDir.isDirectory())
+    {
+      return -1;
+    }
+    return Math.max(engineDir.lastModified(), new File(engineDir, OsgiDir.PLUGINS).lastModified());
+  }
+
+  private void reloadIfModified() throws IOException
+  {
+    long currentIndexTimestamp = indexFile.lastModified();
+    if (currentIndexTimestamp == indexTimestamp)
+    {
+      return;
+    }
+    entries.clear();
+    cacheTimestamp = -1;
+    indexTimestamp = currentIndexTimestamp;
+    if (!indexFile.isFile())
+    {
+      return;
+    }
+    Properties index = new Properties();
+    try(InputStream in = new FileInputStream(indexFile))
+    {
+      index.load(in);
+    }
+    for (String name : index.stringPropertyNames())
+    {
+      if (name.equals(CACHE_TIMESTAMP))
+      {
+        cacheTimestamp = Long.parseLong(index.getProperty(name));
+      }
+      else
+      {
+        entries.put(name, Entry.parse(index.getProperty(name)));
+      }
+    }
+  }
+
+  private void save() throws IOException
+  {
+    Properties index = new Properties();
+    index.setProperty(CACHE_TIMESTAMP, Long.toString(cacheTimestamp));
+    for (Map.Entry<String, Entry> entry : entries.entrySet())
+    {
+      index.setProperty(entry.getKey(), entry.getValue().toString());
+    }
+    // in a sub directory: updating the index must not modify the cache directory itself
+    indexFile.getParentFile().mkdirs();
+    File tmpIndex = File.createTempFile(INDEX_FILE, ".tmp", indexFile.getParentFile());
+    try
+    {
+      try(OutputStream out = new FileOutputStream(tmpIndex))
+      {
+        index.store(out, "engine directory=version|last modified");
+      }
+      Files.move(tmpIndex.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      tmpIndex.delete();
+    }
+    indexTimestamp = indexFile.lastModified();
+  }
+
+  private static class Entry
+  {
+    private static final Entry UNKNOWN = new Entry(null, Long.MIN_VALUE);
+
+    private final ArtifactVersion version;
+    private final long timestamp;
+
+    private Entry(ArtifactVersion version, long timestamp)
+    {
+      this.version = version;
+      this.timestamp = timestamp;
+    }
+
+    private static Entry parse(String value)
+    {
+      String version = StringUtils.substringBefore(value, SEPARATOR);
+      try
+      {
+        long timestamp = Long.parseLong(StringUtils.substringAfter(value, SEPARATOR));
+        return new Entry(version.isEmpty() ? null : new DefaultArtifactVersion(version), timestamp);
+      }
+      catch (NumberFormatException ex)
+      { // evaluate again
+        return UNKNOWN;
+      }
+    }
+
+    @Override
+    public String toString()
+    {
+      return (version == null ? "" : version.toString()) + SEPARATOR + timestamp;
+    }
+  }
+
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+
+/**
+ * Content addressed cache of the IAR-JARs an engine creates for IAR dependencies. Entries are keyed by the
+ * SHA-256 of the IAR and the engine version, so that builds of many modules convert each IAR only once.
+ *
+ * <p>The cache lives in <code>.iar-jars</code> of the engine cache directory. Entries are never modified once
+ * they are published: concurrent builds that convert the same IAR keep the entry published first. The entries of an
+ * engine version are evicted together with the last cached engine of that version.</p>
+ *
+ * @since 7.4.0
+ */
+public class IarJarCache
+{
+  static final String DIRECTORY = ".iar-jars";
+  private static final String STAGING_PREFIX = ".staging-";
+
+  private final File cacheDirectory;
+  private final String engineVersion;
+  private final Log log;
+
+  public IarJarCache(File engineCacheDirectory, String engineVersion, Log log)
+  {
+    this.cacheDirectory = new File(engineCacheDirectory, DIRECTORY);
+    this.engineVersion = engineVersion;
+    this.log = log;
+  }
+
+  /**
+   * @return the IAR-JARs of the IARs: from the cache or else created by the builder.
+   */
+  public List<File> getIarJars(List<File> iars, ProjectBuilder builder) throws Exception
+  {
+    Map<File, File> entries = new HashMap<>();
+    List<File> missing = new ArrayList<>();
+    for (File iar : iars)
+    {
+      if (!iar.isFile())
+      { // unpacked IAR of a reactor module: not content addressed
+        missing.add(iar);
+        continue;
+      }
+      File entry = new File(cacheDirectory, EngineCache.sha256(iar) + "-" + engineVersion);
+      entries.put(iar, entry);
+      if (!entry.isDirectory())
+      {
+        missing.add(iar);
+      }
+    }
+    Map<File, List<File>> created = createIarJars(missing, builder);
+
+    List<File> iarJars = new ArrayList<>();
+    for (File iar : iars)
+    {
+      File entry = entries.get(iar);
+      if (entry == null)
+      {
+        iarJars.addAll(created.get(iar));
+        continue;
+      }
+      if (created.containsKey(iar))
+      {
+        publish(entry, created.get(iar));
+      }
+      iarJars.addAll(listJars(entry));
+    }
+    log.debug("Resolved " + (iars.size() - missing.size()) + " of " + iars.size() + " IAR-JARs from cache " + cacheDirectory);
+    return iarJars;
+  }
+
+  /**
+   * Converts all IARs with a single call into the engine. The created jars are assigned to their IARs by name.
+   * If that is ambiguous, the IARs are converted one by one, so that the shared cache never publishes the jar 
+   * of an IAR under the key of another.
+   * @return the created jars of each IAR
+   */
+  private static Map<File, List<File>> createIarJars(List<File> iars, ProjectBuilder builder) throws Exception
+  {
+    if (iars.isEmpty())
+    {
+      return new HashMap<>();
+    }
+    Map<File, List<File>> jarsOfIars = matchByName(iars, builder.createIarJars(iars));
+    if (jarsOfIars != null)
+    {
+      return jarsOfIars;
+    }
+    jarsOfIars = new HashMap<>();
+    for (File iar : iars)
+    {
+      jarsOfIars.put(iar, builder.createIarJars(Collections.singletonList(iar)));
+    }
+    return jarsOfIars;
+  }
+
+  /**
+   * @return the jar of each IAR, which is named after the IAR. <code>null</code> if not every IAR has exactly one jar.
+   */
+  private static Map<File, List<File>> matchByName(List<File> iars, List<File> jars)
+  {
+    if (jars.size() != iars.size())
+    {
+      return null;
+    }
+    Map<File, List<File>> jarsOfIars = new HashMap<>();
+    Set<File> assigned = new HashSet<>();
+    for (File iar : iars)
+    {
+      String baseName = FilenameUtils.getBaseName(iar.getName());
+      List<File> candidates = jars.stream()
+              .filter(jar -> jar.getName().startsWith(baseName))
+              .collect(Collectors.toList());
+      if (candidates.size() != 1 || !assigned.add(candidates.get(0)))
+      {
+        return null;
+      }
+      jarsOfIars.put(iar, candidates);
+    }
+    return jarsOfIars;
+  }
+
+  /**
+   * Removes the IAR-JARs created by the given engine versions, e.g. once no cached engine of a version is left.
+   * Must only be called while holding the {@link InstallLock} of the engine cache.
+   * @return the number of removed entries
+   */
+  public static int evict(File engineCacheDirectory, Set<String> engineVersions, Log log)
+  {
+    File cacheDirectory = new File(engineCacheDirectory, DIRECTORY);
+    File[] entries = cacheDirectory.listFiles(file -> file.isDirectory() && !file.getName().startsWith(STAGING_PREFIX));
+    if (entries == null || engineVersions.isEmpty())
+    {
+      return 0;
+    }
+    int evicted = 0;
+    for (File entry : entries)
+    {
+      String version = StringUtils.substringAfter(entry.getName(), "-");
+      if (engineVersions.contains(version))
+      {
+        FileUtils.deleteQuietly(entry);
+        evicted++;
+      }
+    }
+    log.debug("Evicted " + evicted + " IAR-JARs of engine versions " + engineVersions + " from cache " + cacheDirectory);
+    return evicted;
+  }
+
+  private void publish(File entry, List<File> createdJars) throws IOException
+  {
+    cacheDirectory.mkdirs();
+    File staging = new File(cacheDirectory, STAGING_PREFIX + UUID.randomUUID());
+    try
+    {
+      Files.createDirectory(staging.toPath());
+      for (File jar : createdJars)
+      {
+        Files.copy(jar.toPath(), new File(staging, jar.getName()).toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+      }
+      Files.move(staging.toPath(), entry.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (FileAlreadyExistsException ex)
+    { // published by a concurrent build
+    }
+    catch (IOException ex)
+    {
+      if (!entry.isDirectory())
+      {
+        throw ex;
+      }
+    }
+    finally
+    {
+      FileUtils.deleteQuietly(staging);
+    }
+  }
+
+  private static List<File> listJars(File entry)
+  {
+    File[] jars = entry.listFiles(File::isFile);
+    if (jars == null)
+    {
+      return Collections.emptyList();
+    }
+    Arrays.sort(jars);
+    return Arrays.asList(jars);
+  }
+
+}
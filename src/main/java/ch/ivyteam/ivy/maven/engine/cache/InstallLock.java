@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Exclusive lock that serializes engine installations of all Maven processes and build threads on a machine.
+ *
+ * <p>The lock is an OS file lock, so it is released by the OS if the holding process dies. The holder records itself
+ * in the lock file and clears the record on release. A record found by the next holder therefore reveals an
+ * installation that was killed: see {@link #getStaleOwner()}.</p>
+ *
+ * <p>The lock file itself is never deleted, as other processes may already wait on it.</p>
+ *
+ * @since 7.4.0
+ */
+public class InstallLock implements AutoCloseable
+{
+  private static final ConcurrentMap<String, ReentrantLock> JVM_LOCKS = new ConcurrentHashMap<>();
+  private static final long POLL_MILLIS = 200;
+
+  private final ReentrantLock jvmLock;
+  private final FileChannel channel;
+  private final String staleOwner;
+
+  private InstallLock(ReentrantLock jvmLock, FileChannel channel, String staleOwner)
+  {
+    this.jvmLock = jvmLock;
+    this.channel = channel;
+    this.staleOwner = staleOwner;
+  }
+
+  /**
+   * Blocks until the lock is acquired.
+   * @param lockFile to lock, it is created if it does not yet exist
+   * @param timeoutMillis maximum time to wait for the lock
+   * @param log to report waiting for other installations
+   * @throws IOException if the lock can not be acquired within the timeout
+   */
+  public static InstallLock acquire(File lockFile, long timeoutMillis, Log log) throws IOException
+  {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    // a FileLock is held by the whole JVM: build threads of the same process must be serialized separately
+    ReentrantLock jvmLock = JVM_LOCKS.computeIfAbsent(lockFile.getCanonicalPath(), path -> new ReentrantLock());
+    try
+    {
+      if (!jvmLock.tryLock())
+      {
+        log.info("Waiting for engine installation of another build thread: " + lockFile);
+        if (!jvmLock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS))
+        {
+          throw new IOException("Timed out after " + timeoutMillis + "ms waiting for the engine installation of another build thread. "
+                  + "Lock file '" + lockFile + "'.");
+        }
+      }
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for lock " + lockFile);
+    }
+
+    try
+    {
+      return acquireFileLock(lockFile, jvmLock, deadline, log);
+    }
+    catch (IOException | RuntimeException ex)
+    {
+      jvmLock.unlock();
+      throw ex;
+    }
+  }
+
+  private static InstallLock acquireFileLock(File lockFile, ReentrantLock jvmLock, long deadline, Log log) throws IOException
+  {
+    lockFile.getParentFile().mkdirs();
+    FileChannel channel = FileChannel.open(lockFile.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try
+    {
+      FileLock fileLock = channel.tryLock();
+      if (fileLock == null)
+      {
+        log.info("Waiting for engine installation of process " + readOwner(channel) + ": " + lockFile);
+      }
+      while (fileLock == null)
+      {
+        if (System.currentTimeMillis() > deadline)
+        {
+          throw new IOException("Timed out waiting for the engine installation of process " + readOwner(channel)
+                  + ". Lock file '" + lockFile + "'.");
+        }
+        sleep(lockFile);
+        fileLock = channel.tryLock();
+      }
+      String staleOwner = StringUtils.trimToNull(readOwner(channel));
+      if (staleOwner != null)
+      {
+        log.warn("Engine installation of process " + staleOwner + " was interrupted. Taking over lock " + lockFile);
+      }
+      writeOwner(channel, ManagementFactory.getRuntimeMXBean().getName() + " since " + Instant.now());
+      return new InstallLock(jvmLock, channel, staleOwner);
+    }
+    catch (IOException | RuntimeException ex)
+    {
+      channel.close();
+      throw ex;
+    }
+  }
+
+  private static void sleep(File lockFile) throws InterruptedIOException
+  {
+    try
+    {
+      Thread.sleep(POLL_MILLIS);
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for lock " + lockFile);
+    }
+  }
+
+  private static String readOwner(FileChannel channel) throws IOException
+  {
+    ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(channel.size(), 1024));
+    channel.read(buffer, 0);
+    return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+  }
+
+  private static void writeOwner(FileChannel channel, String owner) throws IOException
+  {
+    channel.truncate(0);
+    channel.write(ByteBuffer.wrap(owner.getBytes(StandardCharsets.UTF_8)), 0);
+    channel.force(false);
+  }
+
+  /**
+   * @return the process that held the lock before, but terminated without releasing it.
+   * Its installation may have left partial results behind. <code>null</code> if the lock was released properly.
+   */
+  public String getStaleOwner()
+  {
+    return staleOwner;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    try
+    {
+      channel.truncate(0);
+    }
+    finally
+    {
+      try
+      { // releases the file lock
+        channel.close();
+      }
+      finally
+      {
+        jvmLock.unlock();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.Log;
+
+import ch.ivyteam.ivy.maven.engine.unpack.EngineArchiveExtractor;
+import ch.ivyteam.ivy.maven.engine.unpack.ExtractionProfile;
+
+/**
+ * An engine of which only the entries of an {@link ExtractionProfile} were unpacked.
+ *
+ * <p>The engine archive is kept in the engine directory, so that the remaining entries can be unpacked
+ * once a goal requires the complete engine, e.g. to start it.</p>
+ *
+ * @since 7.4.0
+ */
+public class PartialEngine
+{
+  public static final String ARCHIVE = ".ivy-engine-archive.zip";
+  static final String MARKER = ".ivy-engine-partial";
+  static final String LOCK = MARKER + ".lock";
+
+  private static final String PROFILE = "profile";
+  private static final long COMPLETION_LOCK_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
+  private final File directory;
+  private final ExtractionProfile profile;
+
+  private PartialEngine(File directory, ExtractionProfile profile)
+  {
+    this.directory = directory;
+    this.profile = profile;
+  }
+
+  /**
+   * @return the partially unpacked engine in the directory or <code>null</code> if the engine is complete.
+   */
+  public static PartialEngine read(File directory) throws IOException
+  {
+    File markerFile = new File(directory, MARKER);
+    if (!markerFile.isFile())
+    {
+      return null;
+    }
+    Properties marker = new Properties();
+    try(InputStream in = new FileInputStream(markerFile))
+    {
+      marker.load(in);
+    }
+    return new PartialEngine(directory, ExtractionProfile.fromName(marker.getProperty(PROFILE)));
+  }
+
+  /**
+   * Records that only the entries of the profile were unpacked into the engine directory.
+   * @param archive the engine was unpacked from. It is moved into the engine directory.
+   */
+  public static void record(File directory, ExtractionProfile profile, File archive) throws IOException
+  {
+    File keptArchive = new File(directory, ARCHIVE);
+    if (!archive.equals(keptArchive))
+    {
+      Files.move(archive.toPath(), keptArchive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    Properties marker = new Properties();
+    marker.setProperty(PROFILE, profile.getName());
+    try(OutputStream out = new FileOutputStream(new File(directory, MARKER)))
+    {
+      marker.store(out, "partially unpacked engine");
+    }
+  }
+
+  public File getDirectory()
+  {
+    return directory;
+  }
+
+  public ExtractionProfile getProfile()
+  {
+    return profile;
+  }
+
+  /**
+   * Unpacks the remaining entries of the engine archive. Concurrent completions of the same engine
+   * are serialized by an {@link InstallLock} in the engine directory: the engine is completed only once.
+   * @param threads to unpack the archive with
+   */
+  public void complete(int threads, Log log) throws IOException
+  {
+    try(InstallLock lock = InstallLock.acquire(new File(directory, LOCK), COMPLETION_LOCK_TIMEOUT, log))
+    {
+      if (!new File(directory, MARKER).isFile())
+      { // completed by another build
+        return;
+      }
+      long start = System.currentTimeMillis();
+      File archive = new File(directory, ARCHIVE);
+      int entries = new EngineArchiveExtractor(archive, threads, log).extract(directory, entryName -> !profile.test(entryName));
+      if (CachedEngine.read(directory) != null)
+      {
+        EngineCache.writeManifest(directory);
+      }
+      Files.delete(new File(directory, MARKER).toPath());
+      Files.delete(archive.toPath());
+      log.info("Completed engine " + directory + " installed with profile '" + profile + "' by unpacking "
+              + entries + " entries within " + (System.currentTimeMillis() - start) + "ms.");
+    }
+  }
+
+  /**
+   * @return <code>true</code> for the metadata of a partial engine, which must not be part of the engine itself.
+   */
+  static boolean isMetadata(String relativePath)
+  {
+    return relativePath.equals(ARCHIVE) || relativePath.equals(MARKER) || relativePath.equals(LOCK);
+  }
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory;
+import ch.ivyteam.ivy.maven.engine.MavenProjectBuilderProxy;
+import ch.ivyteam.ivy.maven.engine.OsgiBootOptions;
+import ch.ivyteam.ivy.maven.engine.OsgiConfigurationArea;
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+import ch.ivyteam.ivy.maven.engine.Slf4jSimpleEngineProperties;
+
+/**
+ * A long-lived local process that boots the OSGi framework of an engine once and serves the project builds of
+ * many Maven invocations. Clients ({@link BuildDaemonClient}) connect over a loopback socket, which is published
+ * together with an access token in the {@link DaemonState} of the daemon directory.
+ *
+ * <p>Requests are processed one after the other. The daemon exits if no request arrived within its idle timeout.</p>
+ *
+ * @since 7.4.0
+ */
+public class BuildDaemon
+{
+  static final String ENGINE_CLASSPATH_FILE = "engine.classpath";
+  private static final int HANDSHAKE_TIMEOUT_MILLIS = 10_000;
+
+  private final File daemonDirectory;
+  private final long idleTimeoutMillis;
+  private final Builders builders;
+  private final RequestOutput output;
+  private final String token = UUID.randomUUID().toString();
+  private boolean stopped = false;
+
+  /**
+   * @param output captures the output of a request to return it to the client, may be <code>null</code>.
+   */
+  BuildDaemon(File daemonDirectory, long idleTimeoutMillis, Builders builders, RequestOutput output)
+  {
+    this.daemonDirectory = daemonDirectory;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.builders = builders;
+    this.output = output;
+  }
+
+  /**
+   * Arguments: daemon directory, engine directory, idle timeout in seconds, engine start timeout in seconds,
+   * minimal OSGi bootstrap and optionally the directory of the OSGi configuration areas to warm start from.
+   * The engine class loader classpath is read from the {@value #ENGINE_CLASSPATH_FILE} of the daemon directory.
+   */
+  public static void main(String[] args) throws Exception
+  {
+    File daemonDir = new File(args[0]);
+    File engineDir = new File(args[1]);
+    long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(args[2]));
+    int engineStartTimeoutInSeconds = Integer.parseInt(args[3]);
+    boolean minimalBootstrap = Boolean.parseBoolean(args[4]);
+    File osgiAreasDir = args.length > 5 ? new File(args[5]) : null;
+    List<File> engineClasspath = Files.readAllLines(new File(daemonDir, ENGINE_CLASSPATH_FILE).toPath(), StandardCharsets.UTF_8)
+            .stream().map(File::new).collect(Collectors.toList());
+
+    RequestOutput output = RequestOutput.install();
+    Slf4jSimpleEngineProperties.install();
+    Log log = new SystemStreamLog();
+    File configurationArea = osgiAreasDir == null ? null : OsgiConfigurationArea.acquire(osgiAreasDir, engineDir, log);
+    OsgiBootOptions bootOptions = new OsgiBootOptions(configurationArea, minimalBootstrap);
+    Builders builders = new EngineBuilders(engineDir, engineClasspath, bootOptions, engineStartTimeoutInSeconds, log);
+    new BuildDaemon(daemonDir, idleTimeoutMillis, builders, output).serve(log);
+    System.exit(0);
+  }
+
+  /**
+   * Serves requests until the daemon is idle for too long or a client stops it.
+   * @param log of the daemon, which is not returned to the clients
+   */
+  void serve(Log log) throws IOException
+  {
+    try(ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress()))
+    {
+      server.setSoTimeout((int) Math.min(idleTimeoutMillis, Integer.MAX_VALUE));
+      DaemonState state = new DaemonState(server.getLocalPort(), token, ManagementFactory.getRuntimeMXBean().getName());
+      state.write(daemonDirectory);
+      try
+      {
+        while (!stopped)
+        {
+          try(Socket client = server.accept())
+          {
+            handle(client, log);
+          }
+          catch (SocketTimeoutException ex)
+          {
+            log.info("Build daemon is idle for " + idleTimeoutMillis + "ms: exiting.");
+            stopped = true;
+          }
+          catch (IOException | ClassNotFoundException ex)
+          {
+            log.error("Failed to serve request.", ex);
+          }
+        }
+      }
+      finally
+      {
+        state.delete(daemonDirectory);
+      }
+    }
+  }
+
+  private void handle(Socket client, Log log) throws IOException, ClassNotFoundException
+  {
+    DataInputStream in = new DataInputStream(client.getInputStream());
+    authenticate(client, in);
+    DaemonRequest request = (DaemonRequest) new DaemonObjectInputStream(in).readObject();
+    DaemonResponse response = process(request, log);
+    ObjectOutputStream out = new ObjectOutputStream(client.getOutputStream());
+    out.writeObject(response);
+    out.flush();
+  }
+
+  /**
+   * Verifies the token the client sends ahead of its request, before any object is deserialized.
+   */
+  private void authenticate(Socket client, DataInputStream in) throws IOException
+  {
+    client.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+    String clientToken;
+    try
+    {
+      clientToken = in.readUTF();
+    }
+    catch (SocketTimeoutException ex)
+    { // must not be taken for the idle timeout of the daemon
+      throw new IOException("Client did not send a token within " + HANDSHAKE_TIMEOUT_MILLIS + "ms.");
+    }
+    if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), clientToken.getBytes(StandardCharsets.UTF_8)))
+    {
+      throw new IOException("Rejected request with invalid token.");
+    }
+    client.setSoTimeout(0);
+  }
+
+  private DaemonResponse process(DaemonRequest request, Log log)
+  {
+    if (output != null)
+    {
+      output.startCapture();
+    }
+    Object result = null;
+    Throwable failure = null;
+    try
+    {
+      result = execute(request);
+    }
+    catch (Exception ex)
+    {
+      failure = ex instanceof InvocationTargetException ? ex.getCause() : ex;
+    }
+    String captured = output == null ? "" : output.stopCapture();
+    if (failure != null)
+    { // after the capture: the client receives the stack trace as failure of the response
+      log.error("Failed to " + request.command + " in workspace " + request.workspace + ".", failure);
+      return new DaemonResponse(result, ExceptionUtils.getStackTrace(failure), captured);
+    }
+    return new DaemonResponse(result, null, captured);
+  }
+
+  private Object execute(DaemonRequest request) throws Exception
+  {
+    switch (request.command)
+    {
+      case PING:
+        return "ready";
+      case STOP:
+        stopped = true;
+        return "stopped";
+      case CREATE_IAR_JARS:
+        return new ArrayList<>(builders.forWorkspace(request.workspace).createIarJars(request.files));
+      case COMPILE:
+        return toStrings(builders.forWorkspace(request.workspace).compile(request.projectDir, request.files, request.options));
+      case VALIDATE:
+        return toStrings(builders.forWorkspace(request.workspace).validate(request.projectDir, request.files, request.options));
+      case TEST_COMPILE:
+        return toStrings(builders.forWorkspace(request.workspace).testCompile(request.projectDir, request.files, request.options));
+      default:
+        throw new IllegalArgumentException("Unsupported command " + request.command);
+    }
+  }
+
+  /**
+   * Results may hold types of the engine class loader, which the client can not resolve.
+   */
+  private static HashMap<String, Object> toStrings(Map<String, Object> result)
+  {
+    HashMap<String, Object> strings = new HashMap<>();
+    if (result != null)
+    {
+      result.forEach((key, value) -> strings.put(key, value == null ? null : value.toString()));
+    }
+    return strings;
+  }
+
+  /**
+   * Provides the builders of the workspaces served by the daemon.
+   */
+  interface Builders
+  {
+    ProjectBuilder forWorkspace(File workspace) throws Exception;
+  }
+
+  /**
+   * Boots the engine on the first request and shares it among all workspaces.
+   */
+  private static class EngineBuilders implements Builders
+  {
+    private final File engineDir;
+    private final List<File> engineClasspath;
+    private final OsgiBootOptions bootOptions;
+    private final int engineStartTimeoutInSeconds;
+    private final Log log;
+    private final Map<File, MavenProjectBuilderProxy> workspaces = new HashMap<>();
+    private MavenProjectBuilderProxy booted;
+
+    private EngineBuilders(File engineDir, List<File> engineClasspath, OsgiBootOptions bootOptions, 
+            int engineStartTimeoutInSeconds, Log log)
+    {
+      this.engineDir = engineDir;
+      this.engineClasspath = engineClasspath;
+      this.bootOptions = bootOptions;
+      this.engineStartTimeoutInSeconds = engineStartTimeoutInSeconds;
+      this.log = log;
+    }
+
+    @Override
+    public ProjectBuilder forWorkspace(File workspace) throws Exception
+    {
+      MavenProjectBuilderProxy builder = workspaces.get(workspace);
+      if (builder != null)
+      {
+        return builder;
+      }
+      if (booted == null)
+      { // isolated from the classpath of the daemon, like the engine class loader of a Maven plugin
+        ClassLoader parent = ClassLoader.getSystemClassLoader().getParent();
+        booted = new MavenProjectBuilderProxy(EngineClassLoaderFactory.createEngineClassLoader(engineClasspath, parent),
+                workspace, engineDir, bootOptions, log, engineStartTimeoutInSeconds);
+        builder = booted;
+      }
+      else
+      {
+        builder = booted.forWorkspace(workspace);
+      }
+      workspaces.put(workspace, builder);
+      return builder;
+    }
+  }
+
+  /**
+   * Replaces the standard streams of the daemon, to return the output of the engine during a request to the client.
+   * All output is written to the original standard output as well, which is the log file of the daemon.
+   */
+  static class RequestOutput extends OutputStream
+  {
+    private final OutputStream log;
+    private ByteArrayOutputStream capture;
+
+    private RequestOutput(OutputStream log)
+    {
+      this.log = log;
+    }
+
+    static RequestOutput install()
+    {
+      RequestOutput output = new RequestOutput(System.out);
+      PrintStream stream = new PrintStream(output, true);
+      System.setOut(stream);
+      System.setErr(stream);
+      return output;
+    }
+
+    synchronized void startCapture()
+    {
+      capture = new ByteArrayOutputStream();
+    }
+
+    synchronized String stopCapture()
+    {
+      String captured = new String(capture.toByteArray(), StandardCharsets.UTF_8);
+      capture = null;
+      return captured;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException
+    {
+      log.write(b);
+      if (capture != null)
+      {
+        capture.write(b);
+      }
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException
+    {
+      log.write(b, off, len);
+      if (capture != null)
+      {
+        capture.write(b, off, len);
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException
+    {
+      log.flush();
+    }
+  }
+
+}
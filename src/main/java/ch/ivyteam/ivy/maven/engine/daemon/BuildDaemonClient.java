@@ -0,0 +1,431 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.slf4j.LoggerFactory;
+import org.slf4j.impl.SimpleLogger;
+
+import ch.ivyteam.ivy.maven.engine.ClassDataSharingArchive;
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+import ch.ivyteam.ivy.maven.engine.cache.InstallLock;
+import ch.ivyteam.ivy.maven.engine.daemon.DaemonRequest.Command;
+
+/**
+ * Builds ivy projects in a {@link BuildDaemon} that keeps the engine booted across Maven invocations.
+ *
+ * <p>A daemon is shared by all builds of the same user that use the same engine. It is launched on the first
+ * request and exits on its own once it was idle for the configured timeout.</p>
+ *
+ * @since 7.4.0
+ */
+public class BuildDaemonClient implements ProjectBuilder
+{
+  public static final String DAEMONS_DIRECTORY = ".build-daemons";
+  private static final String LOCK_FILE = "daemon.lock";
+  private static final String LOG_FILE = "daemon.log";
+  private static final long POLL_MILLIS = 200;
+  private static final long DAEMON_START_TIMEOUT = TimeUnit.SECONDS.toMillis(60);
+
+  private final File daemonDirectory;
+  private final File engineDirectory;
+  private final List<File> engineClasspath;
+  private final File osgiAreasDirectory;
+  private final boolean osgiMinimalBootstrap;
+  private final File workspace;
+  private final int timeoutEngineStartInSeconds;
+  private final long idleTimeoutInSeconds;
+  private final Log log;
+  private boolean classDataSharing = false;
+  private boolean directoryVerified = false;
+
+  /**
+   * @param daemonsDirectory private directory of the user that holds the daemon directories,
+   * e.g. {@value #DAEMONS_DIRECTORY} in the engine cache
+   * @param engineClassLoaderClasspath to boot the engine with, see
+   * {@link ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory#getEngineClassLoaderClasspath(File)}
+   * @param osgiAreasDirectory to warm start the engine of the daemon from a
+   * {@link ch.ivyteam.ivy.maven.engine.OsgiConfigurationArea}, <code>null</code> to boot from the engine configuration
+   * @param osgiMinimalBootstrap to start only the bundles required to build projects, see
+   * {@link ch.ivyteam.ivy.maven.engine.OsgiBootOptions#minimalBootstrap}
+   */
+  public static BuildDaemonClient create(File daemonsDirectory, File engineDirectory, List<File> engineClassLoaderClasspath,
+          File osgiAreasDirectory, boolean osgiMinimalBootstrap, File workspace, int timeoutEngineStartInSeconds, 
+          long idleTimeoutInSeconds, Log log) throws IOException
+  {
+    File daemonDirectory = getDaemonDirectory(daemonsDirectory, engineDirectory, engineClassLoaderClasspath, 
+            osgiAreasDirectory, osgiMinimalBootstrap);
+    return new BuildDaemonClient(daemonDirectory, engineDirectory, engineClassLoaderClasspath, osgiAreasDirectory, 
+            osgiMinimalBootstrap, workspace, timeoutEngineStartInSeconds, idleTimeoutInSeconds, log);
+  }
+
+  BuildDaemonClient(File daemonDirectory, File engineDirectory, List<File> engineClassLoaderClasspath, File osgiAreasDirectory,
+          boolean osgiMinimalBootstrap, File workspace, int timeoutEngineStartInSeconds, long idleTimeoutInSeconds, Log log)
+  {
+    this.daemonDirectory = daemonDirectory;
+    this.engineDirectory = engineDirectory;
+    this.engineClasspath = engineClassLoaderClasspath;
+    this.osgiAreasDirectory = osgiAreasDirectory;
+    this.osgiMinimalBootstrap = osgiMinimalBootstrap;
+    this.workspace = workspace;
+    this.timeoutEngineStartInSeconds = timeoutEngineStartInSeconds;
+    this.idleTimeoutInSeconds = idleTimeoutInSeconds;
+    this.log = log;
+  }
+
+  /**
+   * @param enabled to launch the daemon JVM with a {@link ClassDataSharingArchive} of the classes it loads.
+   * @since 7.4.0
+   */
+  public BuildDaemonClient withClassDataSharing(boolean enabled)
+  {
+    this.classDataSharing = enabled;
+    return this;
+  }
+
+  /**
+   * A daemon only serves builds with the same engine, plugin version and OSGi boot options.
+   */
+  private static File getDaemonDirectory(File daemonsDirectory, File engineDirectory, List<File> engineClasspath,
+          File osgiAreasDirectory, boolean osgiMinimalBootstrap) throws IOException
+  {
+    StringBuilder identity = new StringBuilder(engineDirectory.getCanonicalPath());
+    identity.append(File.pathSeparatorChar).append(osgiAreasDirectory == null ? "" : osgiAreasDirectory.getCanonicalPath());
+    identity.append(File.pathSeparatorChar).append(osgiMinimalBootstrap);
+    for (File entry : engineClasspath)
+    {
+      identity.append(File.pathSeparatorChar).append(entry.getAbsolutePath());
+    }
+    for (String entry : getDaemonClasspath())
+    {
+      identity.append(File.pathSeparatorChar).append(entry);
+    }
+    return new File(daemonsDirectory, DigestUtils.sha256Hex(identity.toString()).substring(0, 12));
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<File> createIarJars(List<File> iarDependencies) throws Exception
+  {
+    return (List<File>) send(new DaemonRequest(Command.CREATE_IAR_JARS, workspace, null, iarDependencies, null));
+  }
+
+  @Override
+  public Map<String, Object> compile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
+  {
+    return sendBuild(Command.COMPILE, projectDirToBuild, iarJars, options);
+  }
+
+  @Override
+  public Map<String, Object> validate(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
+  {
+    return sendBuild(Command.VALIDATE, projectDirToBuild, iarJars, options);
+  }
+
+  @Override
+  public Map<String, Object> testCompile(File projectDirToBuild, List<File> iarJars, Map<String, String> options) throws Exception
+  {
+    return sendBuild(Command.TEST_COMPILE, projectDirToBuild, iarJars, options);
+  }
+
+  /**
+   * Stops the daemon, if one is running.
+   */
+  public void stop() throws IOException
+  {
+    verifyDirectory();
+    DaemonState state = DaemonState.read(daemonDirectory);
+    if (state != null)
+    {
+      exchange(state, new DaemonRequest(Command.STOP));
+    }
+  }
+
+  /**
+   * Stops the running daemons of all engines, e.g. to release their memory before the idle timeout.
+   * @param daemonsDirectory that holds the daemon directories, see {@link #create}
+   * @return the number of stopped daemons
+   */
+  public static int stopAll(File daemonsDirectory, Log log) throws IOException
+  {
+    File[] daemonDirs = daemonsDirectory.listFiles(File::isDirectory);
+    if (daemonDirs == null)
+    {
+      return 0;
+    }
+    int stopped = 0;
+    for (File daemonDir : daemonDirs)
+    {
+      DaemonState state;
+      try
+      {
+        PrivateDirectory.create(daemonDir);
+        state = DaemonState.read(daemonDir);
+      }
+      catch (IOException ex)
+      {
+        log.warn("Skipping build daemon directory " + daemonDir + ": " + ex.getMessage());
+        continue;
+      }
+      if (state == null)
+      {
+        continue;
+      }
+      try
+      {
+        exchange(state, new DaemonRequest(Command.STOP));
+        log.info("Stopped build daemon " + state.process + ".");
+        stopped++;
+      }
+      catch (IOException ex)
+      { // stale state of a terminated daemon
+        log.debug("Build daemon in " + daemonDir + " is not alive: " + ex.getMessage());
+      }
+    }
+    return stopped;
+  }
+
+  /**
+   * The directory holds the access token of the daemon: it must only be accessible to the current user.
+   */
+  private void verifyDirectory() throws IOException
+  {
+    if (!directoryVerified)
+    {
+      PrivateDirectory.create(daemonDirectory);
+      directoryVerified = true;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> sendBuild(Command command, File projectDir, List<File> iarJars, Map<String, String> options) throws Exception
+  {
+    return (Map<String, Object>) send(new DaemonRequest(command, workspace, projectDir, iarJars, options));
+  }
+
+  private Object send(DaemonRequest request) throws Exception
+  {
+    DaemonState state = getOrLaunchDaemon();
+    DaemonResponse response = exchange(state, request);
+    logOutput(response.output);
+    if (response.failure != null)
+    {
+      throw new Exception("Build daemon " + state.process + " failed to " + request.command + ":\n" + response.failure);
+    }
+    return response.result;
+  }
+
+  /**
+   * Forwards the output of the engine in the daemon line by line, like the output of an engine in this process.
+   */
+  private void logOutput(String output)
+  {
+    if (StringUtils.isEmpty(output))
+    {
+      return;
+    }
+    for (String line : StringUtils.split(output, "\r\n"))
+    {
+      log.info(line);
+    }
+  }
+
+  private DaemonState getOrLaunchDaemon() throws IOException
+  {
+    verifyDirectory();
+    DaemonState state = getAliveDaemon();
+    if (state != null)
+    {
+      return state;
+    }
+    try(InstallLock lock = InstallLock.acquire(new File(daemonDirectory, LOCK_FILE), DAEMON_START_TIMEOUT, log))
+    {
+      state = getAliveDaemon();
+      if (state != null)
+      { // launched by another build
+        return state;
+      }
+      return launchDaemon();
+    }
+  }
+
+  private DaemonState getAliveDaemon()
+  {
+    try
+    {
+      DaemonState state = DaemonState.read(daemonDirectory);
+      if (state != null && exchange(state, new DaemonRequest(Command.PING)).failure == null)
+      {
+        return state;
+      }
+    }
+    catch (IOException ex)
+    { // stale state of a terminated daemon
+      log.debug("Build daemon in " + daemonDirectory + " is not alive: " + ex.getMessage());
+    }
+    return null;
+  }
+
+  private DaemonState launchDaemon() throws IOException
+  {
+    Files.write(new File(daemonDirectory, BuildDaemon.ENGINE_CLASSPATH_FILE).toPath(),
+            engineClasspath.stream().map(File::getAbsolutePath).collect(Collectors.toList()), StandardCharsets.UTF_8);
+    Files.deleteIfExists(new File(daemonDirectory, DaemonState.FILE).toPath());
+
+    List<String> command = new ArrayList<>();
+    command.add(new File(System.getProperty("java.home"), "bin/java").getAbsolutePath());
+    String logLevel = System.getProperty(SimpleLogger.DEFAULT_LOG_LEVEL_KEY);
+    if (logLevel != null)
+    {
+      command.add("-D" + SimpleLogger.DEFAULT_LOG_LEVEL_KEY + "=" + logLevel);
+    }
+    Set<String> daemonClasspath = getDaemonClasspath();
+    if (classDataSharing)
+    {
+      List<File> classpath = new ArrayList<>(engineClasspath);
+      daemonClasspath.forEach(entry -> classpath.add(new File(entry)));
+      command.addAll(new ClassDataSharingArchive(daemonDirectory, classpath).getVmOptions(true, log));
+    }
+    command.add("-cp");
+    command.add(StringUtils.join(daemonClasspath, File.pathSeparatorChar));
+    command.add(BuildDaemon.class.getName());
+    command.addAll(Arrays.asList(daemonDirectory.getAbsolutePath(), engineDirectory.getAbsolutePath(),
+            Long.toString(idleTimeoutInSeconds), Integer.toString(timeoutEngineStartInSeconds), Boolean.toString(osgiMinimalBootstrap)));
+    if (osgiAreasDirectory != null)
+    {
+      command.add(osgiAreasDirectory.getAbsolutePath());
+    }
+
+    File logFile = new File(daemonDirectory, LOG_FILE);
+    log.info("Launching build daemon for engine " + engineDirectory + ". Log file '" + logFile + "'.");
+    Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile))
+            .start();
+    process.getOutputStream().close();
+
+    long deadline = System.currentTimeMillis() + DAEMON_START_TIMEOUT;
+    while (System.currentTimeMillis() < deadline)
+    {
+      DaemonState state = getAliveDaemon();
+      if (state != null)
+      {
+        return state;
+      }
+      if (!process.isAlive())
+      {
+        throw new IOException("Build daemon terminated with exit code " + process.exitValue() + ". See log file '" + logFile + "'.");
+      }
+      sleep();
+    }
+    process.destroy();
+    throw new IOException("Build daemon did not start within " + DAEMON_START_TIMEOUT + "ms. See log file '" + logFile + "'.");
+  }
+
+  private static void sleep() throws InterruptedIOException
+  {
+    try
+    {
+      Thread.sleep(POLL_MILLIS);
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the build daemon to start.");
+    }
+  }
+
+  /**
+   * The classes of this plugin and its dependencies, including the maven logging API of the Maven core.
+   */
+  private static Set<String> getDaemonClasspath() throws IOException
+  {
+    Set<String> classpath = new LinkedHashSet<>();
+    ClassLoader pluginLoader = BuildDaemonClient.class.getClassLoader();
+    if (pluginLoader instanceof URLClassLoader)
+    {
+      for (URL url : ((URLClassLoader) pluginLoader).getURLs())
+      {
+        classpath.add(toPath(url));
+      }
+    }
+    else
+    {
+      classpath.addAll(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+    }
+    for (Class<?> type : Arrays.asList(Log.class, LoggerFactory.class, SimpleLogger.class))
+    {
+      classpath.add(toPath(type.getProtectionDomain().getCodeSource().getLocation()));
+    }
+    return classpath;
+  }
+
+  private static String toPath(URL url) throws IOException
+  {
+    try
+    {
+      return new File(url.toURI()).getAbsolutePath();
+    }
+    catch (URISyntaxException ex)
+    {
+      throw new IOException("Unsupported classpath entry " + url, ex);
+    }
+  }
+
+  private static DaemonResponse exchange(DaemonState state, DaemonRequest request) throws IOException
+  {
+    try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), state.port))
+    {
+      DataOutputStream handshake = new DataOutputStream(socket.getOutputStream());
+      handshake.writeUTF(state.token);
+      ObjectOutputStream out = new ObjectOutputStream(handshake);
+      out.writeObject(request);
+      out.flush();
+      ObjectInputStream in = new DaemonObjectInputStream(socket.getInputStream());
+      return (DaemonResponse) in.readObject();
+    }
+    catch (ClassNotFoundException ex)
+    {
+      throw new IOException("Unsupported response of build daemon " + state.process, ex);
+    }
+  }
+
+}
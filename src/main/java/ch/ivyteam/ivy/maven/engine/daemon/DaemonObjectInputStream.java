@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+
+/**
+ * Only deserializes the types that are exchanged between the {@link BuildDaemon} and its clients.
+ *
+ * @since 7.4.0
+ */
+class DaemonObjectInputStream extends ObjectInputStream
+{
+  DaemonObjectInputStream(InputStream in) throws IOException
+  {
+    super(in);
+  }
+
+  @Override
+  protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException
+  {
+    String name = desc.getName();
+    if (name.startsWith(DaemonRequest.class.getName()) || name.equals(DaemonResponse.class.getName())
+            || name.startsWith("java.lang.") || name.startsWith("java.util.") || name.equals(File.class.getName()))
+    {
+      return super.resolveClass(desc);
+    }
+    throw new InvalidClassException(name, "not allowed in build daemon messages");
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request to the {@link BuildDaemon}. The client authenticates with the token of the {@link DaemonState}
+ * before it sends the request.
+ *
+ * @since 7.4.0
+ */
+class DaemonRequest implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  enum Command
+  {
+    PING, STOP, CREATE_IAR_JARS, COMPILE, VALIDATE, TEST_COMPILE
+  }
+
+  final Command command;
+  final File workspace;
+  final File projectDir;
+  final List<File> files;
+  final Map<String, String> options;
+
+  DaemonRequest(Command command)
+  {
+    this(command, null, null, Collections.emptyList(), Collections.emptyMap());
+  }
+
+  DaemonRequest(Command command, File workspace, File projectDir, List<File> files, Map<String, String> options)
+  {
+    this.command = command;
+    this.workspace = workspace;
+    this.projectDir = projectDir;
+    this.files = new ArrayList<>(files == null ? Collections.emptyList() : files);
+    this.options = new HashMap<>(options == null ? Collections.emptyMap() : options);
+  }
+
+}
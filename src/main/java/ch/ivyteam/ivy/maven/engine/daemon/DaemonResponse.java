@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.Serializable;
+
+/**
+ * The response of the {@link BuildDaemon} to a {@link DaemonRequest}.
+ *
+ * @since 7.4.0
+ */
+class DaemonResponse implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** a list of files or a map of strings */
+  final Object result;
+  /** stack trace of the failure in the daemon or <code>null</code> */
+  final String failure;
+  /** logged by the engine while the request was processed */
+  final String output;
+
+  DaemonResponse(Object result, String failure, String output)
+  {
+    this.result = result;
+    this.failure = failure;
+    this.output = output;
+  }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Published by a running {@link BuildDaemon} in its directory, so that clients can connect to it.
+ *
+ * @since 7.4.0
+ */
+class DaemonState
+{
+  static final String FILE = "daemon.properties";
+
+  private static final String PORT = "port";
+  private static final String TOKEN = "token";
+  private static final String PROCESS = "process";
+
+  final int port;
+  final String token;
+  final String process;
+
+  DaemonState(int port, String token, String process)
+  {
+    this.port = port;
+    this.token = token;
+    this.process = process;
+  }
+
+  /**
+   * @return the state of the daemon or <code>null</code> if no daemon published its state in the directory.
+   */
+  static DaemonState read(File daemonDir) throws IOException
+  {
+    File stateFile = new File(daemonDir, FILE);
+    if (!stateFile.isFile())
+    {
+      return null;
+    }
+    Properties state = new Properties();
+    try(InputStream in = new FileInputStream(stateFile))
+    {
+      state.load(in);
+    }
+    try
+    {
+      return new DaemonState(Integer.parseInt(state.getProperty(PORT)), state.getProperty(TOKEN), state.getProperty(PROCESS));
+    }
+    catch (NumberFormatException ex)
+    { // incompletely written by an old daemon
+      return null;
+    }
+  }
+
+  void write(File daemonDir) throws IOException
+  {
+    Properties state = new Properties();
+    state.setProperty(PORT, Integer.toString(port));
+    state.setProperty(TOKEN, token);
+    state.setProperty(PROCESS, process);
+    File tmpFile = File.createTempFile(FILE, ".tmp", daemonDir);
+    try
+    {
+      PrivateDirectory.restrict(tmpFile);
+      try(OutputStream out = new FileOutputStream(tmpFile))
+      {
+        state.store(out, "ivy build daemon");
+      }
+      Files.move(tmpFile.toPath(), new File(daemonDir, FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      tmpFile.delete();
+    }
+  }
+
+  /**
+   * Removes the published state, unless another daemon replaced it.
+   */
+  void delete(File daemonDir) throws IOException
+  {
+    DaemonState current = read(daemonDir);
+    if (current != null && token.equals(current.token))
+    {
+      Files.deleteIfExists(new File(daemonDir, FILE).toPath());
+    }
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Directories of build daemons, which hold the access tokens of the daemons: only the user that runs the build
+ * may access them. A directory that another user created in advance is refused.
+ *
+ * @since 7.4.0
+ */
+class PrivateDirectory
+{
+  private static final Set<PosixFilePermission> OWNER_ONLY = EnumSet.of(
+          PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+
+  private PrivateDirectory()
+  {
+  }
+
+  /**
+   * Creates the directory and its parent accessible to the current user only.
+   * @throws IOException if one of them is owned by another user or is a symbolic link
+   */
+  static File create(File directory) throws IOException
+  {
+    Path dir = directory.getAbsoluteFile().toPath();
+    Files.createDirectories(dir.getParent().getParent());
+    UserPrincipal user = getCurrentUser(dir.getParent().getParent());
+    secure(dir.getParent(), user);
+    secure(dir, user);
+    return directory;
+  }
+
+  private static void secure(Path dir, UserPrincipal user) throws IOException
+  {
+    boolean posix = isPosix(dir);
+    try
+    {
+      if (posix)
+      {
+        Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+      }
+      else
+      {
+        Files.createDirectory(dir);
+      }
+    }
+    catch (FileAlreadyExistsException ex)
+    { // created before: verified below
+    }
+    if (Files.isSymbolicLink(dir) || !Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS))
+    {
+      throw new IOException("Build daemon directory '" + dir + "' is not a directory.");
+    }
+    UserPrincipal owner = Files.getOwner(dir, LinkOption.NOFOLLOW_LINKS);
+    if (!owner.equals(user))
+    {
+      throw new IOException("Refusing build daemon directory '" + dir + "': it is owned by " + owner.getName()
+              + " instead of " + user.getName() + ".");
+    }
+    if (posix && !Files.getPosixFilePermissions(dir, LinkOption.NOFOLLOW_LINKS).equals(OWNER_ONLY))
+    {
+      Files.setPosixFilePermissions(dir, OWNER_ONLY);
+    }
+  }
+
+  /**
+   * Restricts a file of a private directory to the current user.
+   */
+  static void restrict(File file) throws IOException
+  {
+    Path path = file.toPath();
+    if (isPosix(path))
+    {
+      Files.setPosixFilePermissions(path, EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+    }
+  }
+
+  private static boolean isPosix(Path path)
+  {
+    return path.getFileSystem().supportedFileAttributeViews().contains("posix")
+            && Files.getFileAttributeView(path, PosixFileAttributeView.class) != null;
+  }
+
+  /**
+   * The owner of a file created by this process, which is more reliable than a lookup of the user name.
+   */
+  private static UserPrincipal getCurrentUser(Path dir) throws IOException
+  {
+    Path probe = Files.createTempFile(dir, ".owner", ".tmp");
+    try
+    {
+      return Files.getOwner(probe);
+    }
+    finally
+    {
+      Files.delete(probe);
+    }
+  }
+
+}
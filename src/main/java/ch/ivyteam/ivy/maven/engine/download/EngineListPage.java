@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.download;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.artifact.versioning.VersionRange;
+
+import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+
+/**
+ * The engine download links of an engine list page, e.g. <code>https://developer.axonivy.com/download/maven.html</code>.
+ *
+ * <p>The links can be stored together with the HTTP validators of the page, so that the page must not be
+ * parsed again and can be re-validated with a conditional request.</p>
+ *
+ * @since 7.4.0
+ */
+public class EngineListPage
+{
+  private static final Pattern ENGINE_LINK = Pattern.compile("href=[\"']([^\"']*?AxonIvyEngine([^_\"'/]+)_([^\"'/]+?)\\.zip)[\"']");
+
+  private static final String PAGE = "page";
+  private static final String ETAG = "etag";
+  private static final String LAST_MODIFIED = "lastModified";
+  private static final String VALIDATED = "validated";
+  private static final String LINK = "link.";
+  private static final String SEPARATOR = "|";
+
+  private final URL pageUrl;
+  private final List<EngineLink> links;
+  private String eTag;
+  private long lastModified;
+  private long validated;
+
+  private EngineListPage(URL pageUrl, List<EngineLink> links)
+  {
+    this.pageUrl = pageUrl;
+    this.links = links;
+    this.validated = System.currentTimeMillis();
+  }
+
+  /**
+   * @param pageUrl to resolve relative links
+   * @param html content of the page
+   */
+  public static EngineListPage parse(URL pageUrl, InputStream html) throws IOException
+  {
+    Matcher matcher = ENGINE_LINK.matcher(IOUtils.toString(html, StandardCharsets.UTF_8));
+    List<EngineLink> links = new ArrayList<>();
+    while (matcher.find())
+    {
+      links.add(new EngineLink(matcher.group(3), matcher.group(2), new URL(pageUrl, matcher.group(1))));
+    }
+    return new EngineListPage(pageUrl, links);
+  }
+
+  /**
+   * @return the first link on the page to an engine in the required version and architecture or <code>null</code>.
+   */
+  public URL findEngineUrl(VersionRange versionRange, String architecture)
+  {
+    for (EngineLink link : links)
+    {
+      if (link.architecture.equals(architecture)
+              && versionRange.containsVersion(new DefaultArtifactVersion(EngineVersionEvaluator.toReleaseVersion(link.version))))
+      {
+        return link.url;
+      }
+    }
+    return null;
+  }
+
+  public void setValidators(String eTag, long lastModified)
+  {
+    this.eTag = eTag;
+    this.lastModified = lastModified;
+  }
+
+  public String getETag()
+  {
+    return eTag;
+  }
+
+  public long getLastModified()
+  {
+    return lastModified;
+  }
+
+  /**
+   * Records that the server confirmed the page to be unmodified.
+   */
+  public void revalidated()
+  {
+    validated = System.currentTimeMillis();
+  }
+
+  /**
+   * @return <code>true</code> if the page was fetched or re-validated within the given time.
+   */
+  public boolean isFresh(long timeToLiveMillis)
+  {
+    return System.currentTimeMillis() - validated < timeToLiveMillis;
+  }
+
+  /**
+   * @return the stored page or <code>null</code> if no page from the given URL was stored
+   */
+  public static EngineListPage load(File file, URL pageUrl) throws IOException
+  {
+    if (!file.isFile())
+    {
+      return null;
+    }
+    Properties stored = new Properties();
+    try(InputStream in = new FileInputStream(file))
+    {
+      stored.load(in);
+    }
+    if (!pageUrl.toExternalForm().equals(stored.getProperty(PAGE)))
+    {
+      return null;
+    }
+    List<EngineLink> links = new ArrayList<>();
+    for (int i = 0; stored.containsKey(LINK + i); i++)
+    {
+      String[] link = StringUtils.split(stored.getProperty(LINK + i), SEPARATOR, 3);
+      links.add(new EngineLink(link[0], link[1], new URL(link[2])));
+    }
+    EngineListPage page = new EngineListPage(pageUrl, links);
+    page.setValidators(stored.getProperty(ETAG), Long.parseLong(stored.getProperty(LAST_MODIFIED, "0")));
+    page.validated = Long.parseLong(stored.getProperty(VALIDATED, "0"));
+    return page;
+  }
+
+  public void store(File file) throws IOException
+  {
+    Properties stored = new Properties();
+    stored.setProperty(PAGE, pageUrl.toExternalForm());
+    if (eTag != null)
+    {
+      stored.setProperty(ETAG, eTag);
+    }
+    stored.setProperty(LAST_MODIFIED, Long.toString(lastModified));
+    stored.setProperty(VALIDATED, Long.toString(validated));
+    for (int i = 0; i < links.size(); i++)
+    {
+      EngineLink link = links.get(i);
+      stored.setProperty(LINK + i, link.architecture + SEPARATOR + link.version + SEPARATOR + link.url.toExternalForm());
+    }
+    file.getParentFile().mkdirs();
+    File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    try
+    {
+      try(OutputStream out = new FileOutputStream(tmpFile))
+      {
+        stored.store(out, "engine links of " + pageUrl);
+      }
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    finally
+    {
+      tmpFile.delete();
+    }
+  }
+
+  private static class EngineLink
+  {
+    private final String architecture;
+    private final String version;
+    private final URL url;
+
+    private EngineLink(String architecture, String version, URL url)
+    {
+      this.architecture = architecture;
+      this.version = version;
+      this.url = url;
+    }
+  }
+
+}
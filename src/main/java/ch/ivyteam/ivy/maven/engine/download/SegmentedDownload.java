@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.download;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Downloads a file in HTTP Range chunks which are fetched concurrently.
+ *
+ * <p>Chunks are persisted in a parts directory next to the target file until the
+ * download is complete. An interrupted download resumes its incomplete chunks on the next run,
+ * as long as the remote file did not change in the meantime.</p>
+ *
+ * <p>Servers that do not support ranged requests are served with a plain single connection download.</p>
+ *
+ * @since 7.4.0
+ */
+public class SegmentedDownload
+{
+  public static final String PARTS_DIR_SUFFIX = ".parts";
+
+  private static final String STATE_FILE = "download.properties";
+  private static final int MAX_ATTEMPTS_PER_CHUNK = 3;
+  private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+  private static final int READ_TIMEOUT_MILLIS = 60_000;
+
+  private final URL url;
+  private final int segments;
+  private final long chunkSize;
+  private final Log log;
+
+  /**
+   * @param url the file to download
+   * @param segments number of concurrent connections
+   * @param chunkSize size in bytes of a single ranged request
+   * @param log for progress reporting
+   */
+  public SegmentedDownload(URL url, int segments, long chunkSize, Log log)
+  {
+    if (segments < 1 || chunkSize < 1)
+    {
+      throw new IllegalArgumentException("Segments ("+segments+") and chunk size ("+chunkSize+") must be positive.");
+    }
+    this.url = url;
+    this.segments = segments;
+    this.chunkSize = chunkSize;
+    this.log = log;
+  }
+
+  /**
+   * @param partsDir location where downloaded chunks are kept until the download is complete
+   * @param target file to write the complete download to
+   * @throws IOException if the download failed. Chunks downloaded so far are kept in the partsDir.
+   */
+  public void download(File partsDir, File target) throws IOException
+  {
+    URLConnection connection = url.openConnection();
+    if (!(connection instanceof HttpURLConnection))
+    {
+      copyToTarget(connection, target);
+      return;
+    }
+
+    HttpURLConnection probe = (HttpURLConnection) connection;
+    configure(probe);
+    probe.setRequestProperty("Range", "bytes=0-0");
+    long length = parseTotalLength(probe.getHeaderField("Content-Range"));
+    boolean partial = probe.getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+    if (!partial || length <= 0)
+    {
+      log.info("Server does not support ranged requests. Downloading with a single connection.");
+      if (partial)
+      { // the body of the probe is only the first byte of a file of unknown length
+        consumeAndClose(probe);
+        probe = (HttpURLConnection) probe.getURL().openConnection();
+        configure(probe);
+      }
+      copyToTarget(probe, target);
+      return;
+    }
+
+    URL source = probe.getURL(); // redirections are resolved
+    String validator = getValidator(probe);
+    consumeAndClose(probe);
+
+    preparePartsDir(partsDir, length, validator);
+    List<Chunk> chunks = split(partsDir, length);
+    fetchAll(chunks, source, validator);
+    assemble(chunks, target, length);
+    FileUtils.deleteDirectory(partsDir);
+  }
+
+  private static void copyToTarget(URLConnection connection, File target) throws IOException
+  {
+    try(InputStream in = connection.getInputStream())
+    {
+      Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void preparePartsDir(File partsDir, long length, String validator) throws IOException
+  {
+    Properties state = new Properties();
+    state.setProperty("url", url.toExternalForm());
+    state.setProperty("length", Long.toString(length));
+    state.setProperty("chunkSize", Long.toString(chunkSize));
+    state.setProperty("validator", StringUtils.defaultString(validator));
+
+    File stateFile = new File(partsDir, STATE_FILE);
+    if (partsDir.isDirectory() && !Objects.equals(state, readState(stateFile)))
+    {
+      log.info("Discarding outdated partial download in " + partsDir);
+      FileUtils.cleanDirectory(partsDir);
+    }
+    partsDir.mkdirs();
+    try(OutputStream out = new FileOutputStream(stateFile))
+    {
+      state.store(out, "segmented download of " + url);
+    }
+  }
+
+  private static Properties readState(File stateFile)
+  {
+    Properties state = new Properties();
+    if (stateFile.isFile())
+    {
+      try(InputStream in = new FileInputStream(stateFile))
+      {
+        state.load(in);
+      }
+      catch (IOException ex)
+      { // corrupt state: start from scratch
+        state.clear();
+      }
+    }
+    return state;
+  }
+
+  private List<Chunk> split(File partsDir, long length)
+  {
+    List<Chunk> chunks = new ArrayList<>();
+    for (long start = 0; start < length; start += chunkSize)
+    {
+      long end = Math.min(length, start + chunkSize) - 1;
+      chunks.add(new Chunk(new File(partsDir, "chunk-" + chunks.size()), start, end));
+    }
+
+    long present = chunks.stream().mapToLong(Chunk::present).sum();
+    if (present > 0)
+    {
+      log.info("Resuming download of " + url + ": " + present + " of " + length + " bytes already present.");
+    }
+    log.info("Downloading " + length + " bytes in " + chunks.size() + " chunks using " + segments + " connections.");
+    return chunks;
+  }
+
+  private void fetchAll(List<Chunk> chunks, URL source, String validator) throws IOException
+  {
+    ExecutorService executor = Executors.newFixedThreadPool(segments,
+            new ThreadFactoryBuilder().setNameFormat("Engine Download %d").setDaemon(true).build());
+    try
+    {
+      List<Future<?>> results = new ArrayList<>();
+      for (Chunk chunk : chunks)
+      {
+        results.add(executor.submit(() -> { fetch(chunk, source, validator); return null; }));
+      }
+      ExecutionException failure = null;
+      for (Future<?> result : results)
+      { // let the other chunks complete: they are kept for the next attempt
+        try
+        {
+          result.get();
+        }
+        catch (ExecutionException ex)
+        {
+          failure = failure == null ? ex : failure;
+        }
+      }
+      if (failure != null)
+      {
+        throw toIOException(failure);
+      }
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Download of " + url + " was interrupted.", ex);
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private IOException toIOException(ExecutionException ex)
+  {
+    if (ex.getCause() instanceof IOException)
+    {
+      return (IOException) ex.getCause();
+    }
+    return new IOException("Download of " + url + " failed.", ex.getCause());
+  }
+
+  private void fetch(Chunk chunk, URL source, String validator) throws IOException
+  {
+    IOException lastFailure = null;
+    for (int attempt = 1; attempt <= MAX_ATTEMPTS_PER_CHUNK; attempt++)
+    {
+      if (chunk.present() > chunk.length())
+      {
+        Files.delete(chunk.file.toPath());
+      }
+      if (chunk.isComplete())
+      {
+        return;
+      }
+      try
+      {
+        transfer(chunk, source, validator);
+      }
+      catch (IOException ex)
+      {
+        lastFailure = ex;
+        log.debug("Attempt " + attempt + " to download " + chunk + " failed: " + ex.getMessage());
+      }
+    }
+    if (!chunk.isComplete())
+    {
+      throw new IOException("Failed to download " + chunk + " of " + url, lastFailure);
+    }
+  }
+
+  private void transfer(Chunk chunk, URL source, String validator) throws IOException
+  {
+    HttpURLConnection connection = (HttpURLConnection) source.openConnection();
+    configure(connection);
+    connection.setRequestProperty("Range", "bytes=" + (chunk.start + chunk.present()) + "-" + chunk.end);
+    if (validator != null)
+    {
+      connection.setRequestProperty("If-Range", validator);
+    }
+    try
+    {
+      if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL)
+      {
+        throw new IOException("Expected a partial content response for " + chunk
+                + " but server answered with status " + connection.getResponseCode());
+      }
+      try(InputStream in = connection.getInputStream();
+              OutputStream out = new FileOutputStream(chunk.file, true))
+      {
+        IOUtils.copyLarge(in, out);
+      }
+    }
+    finally
+    {
+      connection.disconnect();
+    }
+  }
+
+  private static void assemble(List<Chunk> chunks, File target, long length) throws IOException
+  {
+    try(FileChannel out = FileChannel.open(target.toPath(),
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+    {
+      for (Chunk chunk : chunks)
+      {
+        try(FileChannel in = FileChannel.open(chunk.file.toPath(), StandardOpenOption.READ))
+        {
+          long position = 0;
+          while (position < in.size())
+          {
+            position += in.transferTo(position, in.size() - position, out);
+          }
+        }
+      }
+    }
+    if (target.length() != length)
+    {
+      throw new IOException("Downloaded file '" + target + "' has " + target.length()
+              + " bytes but expected " + length + " bytes.");
+    }
+  }
+
+  private static void configure(HttpURLConnection connection)
+  {
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+    connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+    connection.setRequestProperty("Accept-Encoding", "identity");
+  }
+
+  /**
+   * @param contentRange e.g. <code>bytes 0-0/1234</code>
+   * @return the complete length of the remote file or <code>-1</code> if it is unknown.
+   */
+  static long parseTotalLength(String contentRange)
+  {
+    String total = StringUtils.substringAfterLast(contentRange, "/");
+    if (!StringUtils.isNumeric(total) || total.isEmpty())
+    {
+      return -1;
+    }
+    return Long.parseLong(total);
+  }
+
+  private static String getValidator(HttpURLConnection connection)
+  {
+    String etag = connection.getHeaderField("ETag");
+    if (etag != null && !etag.startsWith("W/"))
+    { // weak entity tags are not allowed for If-Range
+      return etag;
+    }
+    return connection.getHeaderField("Last-Modified");
+  }
+
+  private static void consumeAndClose(HttpURLConnection connection)
+  {
+    try(InputStream in = connection.getInputStream())
+    {
+      IOUtils.skip(in, Long.MAX_VALUE);
+    }
+    catch (IOException ex)
+    { // connection is not re-used
+    }
+  }
+
+  private static class Chunk
+  {
+    private final File file;
+    private final long start;
+    private final long end;
+
+    private Chunk(File file, long start, long end)
+    {
+      this.file = file;
+      this.start = start;
+      this.end = end;
+    }
+
+    private long length()
+    {
+      return end - start + 1;
+    }
+
+    private long present()
+    {
+      return file.length();
+    }
+
+    private boolean isComplete()
+    {
+      return present() == length();
+    }
+
+    @Override
+    public String toString()
+    {
+      return "bytes " + start + "-" + end;
+    }
+  }
+
+}
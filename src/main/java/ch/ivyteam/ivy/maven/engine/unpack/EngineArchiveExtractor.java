@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.apache.maven.plugin.logging.Log;
+
+import net.lingala.zip4j.core.ZipFile;
+import net.lingala.zip4j.exception.ZipException;
+import net.lingala.zip4j.model.FileHeader;
+
+/**
+ * Unpacks a downloaded engine archive: concurrently with the {@link ParallelZipExtractor} if more than one
+ * thread is granted and the archive supports it, otherwise with zip4j.
+ *
+ * @since 7.4.0
+ */
+public class EngineArchiveExtractor
+{
+  private final File zip;
+  private final int threads;
+  private final Log log;
+
+  public EngineArchiveExtractor(File zip, int threads, Log log)
+  {
+    this.zip = zip;
+    this.threads = threads;
+    this.log = log;
+  }
+
+  /**
+   * @param targetDir to unpack the selected entries into
+   * @param entryFilter selects the entries to unpack by their name
+   * @return number of unpacked entries
+   */
+  public int extract(File targetDir, Predicate<String> entryFilter) throws IOException
+  {
+    if (threads > 1)
+    {
+      try
+      {
+        int entries = new ParallelZipExtractor(zip, threads).extract(targetDir, entryFilter);
+        log.info("Unpacked " + entries + " entries using " + threads + " threads.");
+        return entries;
+      }
+      catch (UnsupportedArchiveException ex)
+      {
+        log.info(ex.getMessage() + ". Unpacking engine with a single thread.");
+      }
+    }
+    return extractWithZip4j(targetDir, entryFilter);
+  }
+
+  private int extractWithZip4j(File targetDir, Predicate<String> entryFilter) throws IOException
+  {
+    try
+    {
+      ZipFile engineZip = new ZipFile(zip);
+      String targetLocation = targetDir.getAbsolutePath();
+      int entries = 0;
+      @SuppressWarnings("unchecked")
+      List<FileHeader> headers = engineZip.getFileHeaders();
+      for (FileHeader header : headers)
+      {
+        if (entryFilter.test(header.getFileName()))
+        {
+          ZipEntries.toTargetFile(targetDir, header.getFileName());
+          engineZip.extractFile(header, targetLocation);
+          entries++;
+        }
+      }
+      return entries;
+    }
+    catch (ZipException ex)
+    {
+      throw new IOException("Failed to unpack engine archive '" + zip + "'.", ex);
+    }
+  }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+
+/**
+ * Selects the entries of an engine archive that are unpacked for a kind of build.
+ *
+ * @since 7.4.0
+ */
+public enum ExtractionProfile implements Predicate<String>
+{
+  /** the complete engine */
+  FULL("full", Collections.emptyList()),
+
+  /** the libraries and the OSGi configuration area which are required to compile projects */
+  COMPILE("compile", Arrays.asList(
+          OsgiDir.INSTALL_AREA + "/" + OsgiDir.LIB_BOOT + "/",
+          OsgiDir.PLUGINS + "/",
+          OsgiDir.INSTALL_AREA + "/configuration/",
+          "webapps/ivy/WEB-INF/lib/"));
+
+  private final String name;
+  private final List<String> includedTrees;
+
+  private ExtractionProfile(String name, List<String> includedTrees)
+  {
+    this.name = name;
+    this.includedTrees = includedTrees;
+  }
+
+  public String getName()
+  {
+    return name;
+  }
+
+  /**
+   * @param entryName of a zip entry, e.g. <code>system/plugins/ch.ivyteam.util_7.4.0.jar</code>
+   * @return <code>true</code> if the entry is unpacked by this profile.
+   */
+  @Override
+  public boolean test(String entryName)
+  {
+    if (includedTrees.isEmpty())
+    {
+      return true;
+    }
+    String name = entryName.replace('\\', '/');
+    for (String tree : includedTrees)
+    {
+      if (name.startsWith(tree))
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @throws IllegalArgumentException if no profile has the given name
+   */
+  public static ExtractionProfile fromName(String name)
+  {
+    for (ExtractionProfile profile : values())
+    {
+      if (profile.name.equalsIgnoreCase(name))
+      {
+        return profile;
+      }
+    }
+    throw new IllegalArgumentException("Unknown engine extraction profile '" + name + "'. Supported profiles are "
+            + Arrays.toString(values()) + ".");
+  }
+
+  @Override
+  public String toString()
+  {
+    return name;
+  }
+
+}
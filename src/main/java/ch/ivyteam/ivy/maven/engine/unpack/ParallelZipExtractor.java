@@ -0,0 +1,270 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import ch.ivyteam.ivy.maven.engine.unpack.ZipCentralDirectory.Entry;
+
+/**
+ * Unpacks a zip file by inflating its entries concurrently on a bounded worker pool.
+ *
+ * <p>The central directory is read once. Entries are then read with positional reads
+ * from a single shared {@link FileChannel}. Unix permissions and modification times of the entries are preserved.</p>
+ *
+ * @since 7.4.0
+ */
+public class ParallelZipExtractor
+{
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final boolean POSIX = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+
+  private final File zip;
+  private final int threads;
+
+  /**
+   * @param zip archive to unpack
+   * @param threads maximum number of entries that are inflated concurrently
+   */
+  public ParallelZipExtractor(File zip, int threads)
+  {
+    if (threads < 1)
+    {
+      throw new IllegalArgumentException("At least one thread is required but was " + threads);
+    }
+    this.zip = zip;
+    this.threads = threads;
+  }
+
+  /**
+   * @param targetDir to unpack the archive into
+   * @return number of unpacked entries
+   * @throws UnsupportedArchiveException if the archive uses zip features that are not supported (e.g. zip64)
+   * @throws IOException if the archive can not be unpacked
+   */
+  public int extractAll(File targetDir) throws IOException
+  {
+    return extract(targetDir, entryName -> true);
+  }
+
+  /**
+   * @param targetDir to unpack the selected entries into
+   * @param entryFilter selects the entries to unpack by their name
+   * @return number of unpacked entries
+   * @throws UnsupportedArchiveException if the archive uses zip features that are not supported (e.g. zip64)
+   * @throws IOException if the archive can not be unpacked
+   */
+  public int extract(File targetDir, Predicate<String> entryFilter) throws IOException
+  {
+    try(FileChannel channel = FileChannel.open(zip.toPath(), StandardOpenOption.READ))
+    {
+      List<Entry> entries = ZipCentralDirectory.read(channel).getEntries().stream()
+              .filter(entry -> entryFilter.test(entry.name))
+              .collect(Collectors.toList());
+      List<Entry> directories = entries.stream().filter(Entry::isDirectory).collect(Collectors.toList());
+      List<Entry> files = entries.stream()
+              .filter(entry -> !entry.isDirectory())
+              .sorted(Comparator.comparingLong((Entry entry) -> entry.compressedSize).reversed()) // largest first
+              .collect(Collectors.toList());
+
+      for (Entry directory : directories)
+      {
+        ZipEntries.toTargetFile(targetDir, directory.name).mkdirs();
+      }
+      extractFiles(channel, files, targetDir);
+      for (Entry directory : directories)
+      { // after the files: creating files touches the directory
+        applyAttributes(directory, ZipEntries.toTargetFile(targetDir, directory.name));
+      }
+      return entries.size();
+    }
+  }
+
+  private void extractFiles(FileChannel channel, List<Entry> files, File targetDir) throws IOException
+  {
+    ExecutorService executor = Executors.newFixedThreadPool(threads,
+            new ThreadFactoryBuilder().setNameFormat("Engine Unpack %d").setDaemon(true).build());
+    try
+    {
+      List<Future<?>> results = new ArrayList<>();
+      for (Entry file : files)
+      {
+        results.add(executor.submit(() -> { extract(channel, file, targetDir); return null; }));
+      }
+      for (Future<?> result : results)
+      {
+        result.get();
+      }
+    }
+    catch (InterruptedException ex)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Unpacking of " + zip + " was interrupted.", ex);
+    }
+    catch (ExecutionException ex)
+    {
+      if (ex.getCause() instanceof IOException)
+      {
+        throw (IOException) ex.getCause();
+      }
+      throw new IOException("Failed to unpack " + zip, ex.getCause());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void extract(FileChannel channel, Entry entry, File targetDir) throws IOException
+  {
+    File target = ZipEntries.toTargetFile(targetDir, entry.name);
+    target.getParentFile().mkdirs();
+
+    long dataOffset = entry.getDataOffset(channel);
+    InputStream data;
+    Inflater inflater = null;
+    if (entry.method == ZipCentralDirectory.DEFLATED)
+    { // a raw inflater may need one byte beyond the compressed data: it's safe to read, the central directory follows
+      inflater = new Inflater(true);
+      data = new InflaterInputStream(new ChannelRangeInputStream(channel, dataOffset, entry.compressedSize + 1), inflater, BUFFER_SIZE);
+    }
+    else
+    {
+      data = new ChannelRangeInputStream(channel, dataOffset, entry.compressedSize);
+    }
+    CRC32 crc = new CRC32();
+    try(OutputStream out = new CheckedOutputStream(new BufferedOutputStream(new FileOutputStream(target), BUFFER_SIZE), crc))
+    {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      for (int read; (read = data.read(buffer)) != -1;)
+      {
+        out.write(buffer, 0, read);
+      }
+    }
+    finally
+    {
+      if (inflater != null)
+      {
+        inflater.end();
+      }
+    }
+    if (crc.getValue() != entry.crc)
+    {
+      throw new IOException("CRC mismatch of zip entry '" + entry.name + "'");
+    }
+    applyAttributes(entry, target);
+  }
+
+  private static void applyAttributes(Entry entry, File target) throws IOException
+  {
+    if (POSIX && (entry.unixMode & 0777) != 0)
+    {
+      Files.setPosixFilePermissions(target.toPath(), toPermissions(entry.unixMode));
+    }
+    if (entry.lastModified != -1)
+    {
+      target.setLastModified(entry.lastModified);
+    }
+  }
+
+  static Set<PosixFilePermission> toPermissions(int unixMode)
+  {
+    Set<PosixFilePermission> permissions = EnumSet.noneOf(PosixFilePermission.class);
+    PosixFilePermission[] ordered = { // bit 8 .. bit 0
+            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE,
+            PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_WRITE, PosixFilePermission.GROUP_EXECUTE,
+            PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_WRITE, PosixFilePermission.OTHERS_EXECUTE};
+    for (int i = 0; i < ordered.length; i++)
+    {
+      if ((unixMode & (1 << (8 - i))) != 0)
+      {
+        permissions.add(ordered[i]);
+      }
+    }
+    return permissions;
+  }
+
+  /**
+   * Reads a section of a channel with positional reads, so that many streams can share one channel.
+   */
+  private static class ChannelRangeInputStream extends InputStream
+  {
+    private final FileChannel channel;
+    private long position;
+    private long remaining;
+
+    private ChannelRangeInputStream(FileChannel channel, long position, long length)
+    {
+      this.channel = channel;
+      this.position = position;
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      byte[] single = new byte[1];
+      return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      if (remaining <= 0)
+      {
+        return -1;
+      }
+      int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+      if (read < 0)
+      {
+        return -1;
+      }
+      position += read;
+      remaining -= read;
+      return read;
+    }
+  }
+
+}
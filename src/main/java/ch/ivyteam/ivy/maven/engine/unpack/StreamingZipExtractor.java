@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Predicate;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Unpacks a zip archive while it is read from a (network) stream, so that the archive never hits the disk.
+ *
+ * <p>The content of every entry is verified by its CRC while it is inflated.
+ * After the last entry, the remaining central directory is consumed and its entry count
+ * is compared with the unpacked entries to detect truncated or corrupt archives.</p>
+ *
+ * @since 7.4.0
+ */
+public class StreamingZipExtractor
+{
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final File targetDir;
+  private final Predicate<String> entryFilter;
+  private long entries = 0;
+  private long extractedEntries = 0;
+  private long bytes = 0;
+
+  public StreamingZipExtractor(File targetDir)
+  {
+    this(targetDir, entryName -> true);
+  }
+
+  /**
+   * @param targetDir to unpack the selected entries into
+   * @param entryFilter selects the entries to unpack by their name. All other entries are read but skipped.
+   */
+  public StreamingZipExtractor(File targetDir, Predicate<String> entryFilter)
+  {
+    this.targetDir = targetDir;
+    this.entryFilter = entryFilter;
+  }
+
+  /**
+   * @param archive stream of a zip file. It is read to its end but not closed.
+   * @param expectedLength of the archive in bytes or <code>-1</code> if unknown.
+   * @throws IOException if the archive can not be read or is incomplete
+   */
+  public void extract(InputStream archive, long expectedLength) throws IOException
+  {
+    TailInputStream raw = new TailInputStream(new BufferedInputStream(archive, BUFFER_SIZE));
+    ZipInputStream zip = new ZipInputStream(raw);
+    for (ZipEntry entry; (entry = zip.getNextEntry()) != null;)
+    {
+      if (entryFilter.test(entry.getName()))
+      {
+        extract(zip, entry);
+        extractedEntries++;
+      }
+      entries++;
+    }
+    IOUtils.skip(raw, Long.MAX_VALUE); // central directory
+    bytes = raw.getByteCount();
+    verify(raw, expectedLength);
+  }
+
+  private void extract(ZipInputStream zip, ZipEntry entry) throws IOException
+  {
+    File target = ZipEntries.toTargetFile(targetDir, entry.getName());
+    if (entry.isDirectory())
+    {
+      target.mkdirs();
+    }
+    else
+    {
+      target.getParentFile().mkdirs();
+      Files.copy(zip, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+    if (entry.getTime() != -1)
+    {
+      target.setLastModified(entry.getTime());
+    }
+  }
+
+  private void verify(TailInputStream raw, long expectedLength) throws IOException
+  {
+    if (expectedLength >= 0 && expectedLength != bytes)
+    {
+      throw new IOException("Archive is incomplete: read " + bytes + " of " + expectedLength + " bytes.");
+    }
+    long declaredEntries = ZipEntries.readEntryCountOfEndRecord(raw.getTail());
+    if (declaredEntries < 0)
+    {
+      throw new IOException("Archive is incomplete: missing end of central directory record.");
+    }
+    if (declaredEntries != ZipEntries.UNKNOWN_ENTRY_COUNT && declaredEntries != entries)
+    {
+      throw new IOException("Archive is corrupt: unpacked " + entries + " entries "
+              + "but central directory declares " + declaredEntries + " entries.");
+    }
+  }
+
+  public long getEntryCount()
+  {
+    return entries;
+  }
+
+  /**
+   * @return number of entries that passed the entry filter and were unpacked.
+   */
+  public long getExtractedEntryCount()
+  {
+    return extractedEntries;
+  }
+
+  public long getByteCount()
+  {
+    return bytes;
+  }
+
+  /**
+   * Remembers the last bytes of a stream, which hold the end of central directory record of a zip.
+   */
+  private static class TailInputStream extends FilterInputStream
+  {
+    private final byte[] ring = new byte[ZipEntries.MAX_END_RECORD_LENGTH];
+    private long count = 0;
+
+    private TailInputStream(InputStream in)
+    {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+      int b = super.read();
+      if (b != -1)
+      {
+        ring[(int) (count++ % ring.length)] = (byte) b;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+      int read = super.read(b, off, len);
+      for (int i = 0; i < read; i++)
+      {
+        ring[(int) (count++ % ring.length)] = b[off + i];
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException
+    { // must pass through read to capture the tail
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long skipped = 0;
+      while (skipped < n)
+      {
+        int read = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+        if (read == -1)
+        {
+          break;
+        }
+        skipped += read;
+      }
+      return skipped;
+    }
+
+    @Override
+    public boolean markSupported()
+    {
+      return false;
+    }
+
+    private long getByteCount()
+    {
+      return count;
+    }
+
+    private byte[] getTail()
+    {
+      int length = (int) Math.min(count, ring.length);
+      byte[] tail = new byte[length];
+      int start = (int) ((count - length) % ring.length);
+      for (int i = 0; i < length; i++)
+      {
+        tail[i] = ring[(start + i) % ring.length];
+      }
+      return tail;
+    }
+  }
+
+}
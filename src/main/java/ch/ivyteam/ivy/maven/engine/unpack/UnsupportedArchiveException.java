@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.IOException;
+
+/**
+ * The archive uses zip features which are not supported by the {@link ParallelZipExtractor}.
+ *
+ * @since 7.4.0
+ */
+public class UnsupportedArchiveException extends IOException
+{
+  private static final long serialVersionUID = 1L;
+
+  UnsupportedArchiveException(String feature)
+  {
+    super("Unsupported zip feature: " + feature);
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The entries of a zip file, read in one go from its central directory.
+ *
+ * @since 7.4.0
+ */
+class ZipCentralDirectory
+{
+  private static final int HEADER_SIGNATURE = 0x02014b50;
+  private static final int HEADER_LENGTH = 46;
+  private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+  private static final int LOCAL_HEADER_LENGTH = 30;
+  private static final int ZIP64_MARKER = 0xFFFFFFFF;
+  private static final int HOST_UNIX = 3;
+
+  static final int STORED = 0;
+  static final int DEFLATED = 8;
+
+  private final List<Entry> entries;
+
+  private ZipCentralDirectory(List<Entry> entries)
+  {
+    this.entries = entries;
+  }
+
+  List<Entry> getEntries()
+  {
+    return Collections.unmodifiableList(entries);
+  }
+
+  static ZipCentralDirectory read(FileChannel zip) throws IOException
+  {
+    int tailLength = (int) Math.min(zip.size(), ZipEntries.MAX_END_RECORD_LENGTH);
+    byte[] tail = readFully(zip, zip.size() - tailLength, tailLength);
+    int endRecord = ZipEntries.findEndRecord(tail);
+    if (endRecord < 0)
+    {
+      throw new IOException("Not a zip file: missing end of central directory record.");
+    }
+    int entryCount = ZipEntries.readShort(tail, endRecord + 10);
+    int size = ZipEntries.readInt(tail, endRecord + 12);
+    int offset = ZipEntries.readInt(tail, endRecord + 16);
+    if (entryCount == ZipEntries.UNKNOWN_ENTRY_COUNT || size == ZIP64_MARKER || offset == ZIP64_MARKER)
+    {
+      throw new UnsupportedArchiveException("zip64 archives are not supported");
+    }
+
+    byte[] directory = readFully(zip, offset & 0xFFFFFFFFL, size);
+    List<Entry> entries = new ArrayList<>(entryCount);
+    int position = 0;
+    for (int i = 0; i < entryCount; i++)
+    {
+      Entry entry = new Entry(directory, position);
+      entries.add(entry);
+      position += HEADER_LENGTH + entry.headerExtraLength;
+    }
+    return new ZipCentralDirectory(entries);
+  }
+
+  static byte[] readFully(FileChannel channel, long position, int length) throws IOException
+  {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining())
+    {
+      if (channel.read(buffer, position + buffer.position()) < 0)
+      {
+        throw new EOFException("Unexpected end of zip file at " + (position + buffer.position()));
+      }
+    }
+    return buffer.array();
+  }
+
+  static class Entry
+  {
+    final String name;
+    final int method;
+    final long crc;
+    final long compressedSize;
+    final long size;
+    final long lastModified;
+    final int unixMode;
+    final long localHeaderOffset;
+    private final int headerExtraLength;
+
+    private Entry(byte[] directory, int offset) throws IOException
+    {
+      if (ZipEntries.readInt(directory, offset) != HEADER_SIGNATURE)
+      {
+        throw new IOException("Corrupt central directory at offset " + offset);
+      }
+      int madeBy = ZipEntries.readShort(directory, offset + 4);
+      int flags = ZipEntries.readShort(directory, offset + 8);
+      method = ZipEntries.readShort(directory, offset + 10);
+      lastModified = dosToJavaTime(ZipEntries.readInt(directory, offset + 12));
+      crc = ZipEntries.readUnsignedInt(directory, offset + 16);
+      compressedSize = ZipEntries.readUnsignedInt(directory, offset + 20);
+      size = ZipEntries.readUnsignedInt(directory, offset + 24);
+      int nameLength = ZipEntries.readShort(directory, offset + 28);
+      int extraLength = ZipEntries.readShort(directory, offset + 30);
+      int commentLength = ZipEntries.readShort(directory, offset + 32);
+      long externalAttributes = ZipEntries.readUnsignedInt(directory, offset + 38);
+      localHeaderOffset = ZipEntries.readUnsignedInt(directory, offset + 42);
+      name = new String(directory, offset + HEADER_LENGTH, nameLength, StandardCharsets.UTF_8);
+      headerExtraLength = nameLength + extraLength + commentLength;
+      unixMode = (madeBy >> 8) == HOST_UNIX ? (int) (externalAttributes >> 16) & 0xFFFF : 0;
+
+      if ((flags & 0x01) != 0)
+      {
+        throw new UnsupportedArchiveException("encrypted entry '" + name + "'");
+      }
+      if (method != STORED && method != DEFLATED)
+      {
+        throw new UnsupportedArchiveException("compression method " + method + " of entry '" + name + "'");
+      }
+      if (compressedSize == (ZIP64_MARKER & 0xFFFFFFFFL) || size == (ZIP64_MARKER & 0xFFFFFFFFL)
+              || localHeaderOffset == (ZIP64_MARKER & 0xFFFFFFFFL))
+      {
+        throw new UnsupportedArchiveException("zip64 entry '" + name + "'");
+      }
+    }
+
+    boolean isDirectory()
+    {
+      return name.endsWith("/");
+    }
+
+    /**
+     * @return the position of the entry data, behind the local file header.
+     */
+    long getDataOffset(FileChannel zip) throws IOException
+    {
+      byte[] localHeader = readFully(zip, localHeaderOffset, LOCAL_HEADER_LENGTH);
+      if (ZipEntries.readInt(localHeader, 0) != LOCAL_HEADER_SIGNATURE)
+      {
+        throw new IOException("Corrupt local header of entry '" + name + "'");
+      }
+      int nameLength = ZipEntries.readShort(localHeader, 26);
+      int extraLength = ZipEntries.readShort(localHeader, 28);
+      return localHeaderOffset + LOCAL_HEADER_LENGTH + nameLength + extraLength;
+    }
+
+    private static long dosToJavaTime(int dosDateTime)
+    {
+      try
+      {
+        LocalDateTime time = LocalDateTime.of(
+                ((dosDateTime >> 25) & 0x7f) + 1980,
+                (dosDateTime >> 21) & 0x0f,
+                (dosDateTime >> 16) & 0x1f,
+                (dosDateTime >> 11) & 0x1f,
+                (dosDateTime >> 5) & 0x3f,
+                (dosDateTime << 1) & 0x3e);
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+      }
+      catch (DateTimeException ex)
+      {
+        return -1;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Low level helpers to work with zip entries and records.
+ *
+ * @since 7.4.0
+ */
+class ZipEntries
+{
+  static final int END_RECORD_SIGNATURE = 0x06054b50;
+  static final int END_RECORD_LENGTH = 22;
+  static final int MAX_END_RECORD_LENGTH = END_RECORD_LENGTH + 0xFFFF; // with max comment
+  /** entry count of an end record of a zip64 archive */
+  static final int UNKNOWN_ENTRY_COUNT = 0xFFFF;
+
+  private ZipEntries()
+  {
+  }
+
+  /**
+   * @return the file of the entry within the targetDir.
+   * @throws IOException if the entry would be written outside of the targetDir.
+   */
+  static File toTargetFile(File targetDir, String entryName) throws IOException
+  {
+    File target = new File(targetDir, entryName);
+    String canonicalTarget = target.getCanonicalPath();
+    String canonicalDir = targetDir.getCanonicalPath();
+    if (!canonicalTarget.equals(canonicalDir) && !canonicalTarget.startsWith(canonicalDir + File.separator))
+    {
+      throw new IOException("Zip entry '" + entryName + "' is outside of the target directory '" + targetDir + "'.");
+    }
+    return target;
+  }
+
+  /**
+   * @param tail the last bytes of a zip file
+   * @return offset of the end of central directory record within the tail or <code>-1</code> if there is none.
+   */
+  static int findEndRecord(byte[] tail)
+  {
+    for (int offset = tail.length - END_RECORD_LENGTH; offset >= 0; offset--)
+    {
+      if (readInt(tail, offset) == END_RECORD_SIGNATURE
+              && offset + END_RECORD_LENGTH + readShort(tail, offset + 20) == tail.length)
+      {
+        return offset;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param tail the last bytes of a zip file
+   * @return the total number of entries declared by the end of central directory record
+   * or <code>-1</code> if there is no such record.
+   */
+  static long readEntryCountOfEndRecord(byte[] tail)
+  {
+    int offset = findEndRecord(tail);
+    if (offset < 0)
+    {
+      return -1;
+    }
+    return readShort(tail, offset + 10);
+  }
+
+  static int readShort(byte[] b, int offset)
+  {
+    return (b[offset] & 0xFF) | (b[offset + 1] & 0xFF) << 8;
+  }
+
+  static int readInt(byte[] b, int offset)
+  {
+    return readShort(b, offset) | readShort(b, offset + 2) << 16;
+  }
+
+  static long readUnsignedInt(byte[] b, int offset)
+  {
+    return readInt(b, offset) & 0xFFFFFFFFL;
+  }
+
+}
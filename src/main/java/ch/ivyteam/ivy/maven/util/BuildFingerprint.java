@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * A hash over all inputs of a build. If the fingerprint of the last successful build matches the current one,
+ * the build can be skipped.
+ *
+ * @since 7.4.0
+ */
+public class BuildFingerprint
+{
+  private final MessageDigest digest = DigestUtils.getSha256Digest();
+
+  public BuildFingerprint add(String name, Object value)
+  {
+    update(name);
+    update(String.valueOf(value));
+    return this;
+  }
+
+  public BuildFingerprint addOptions(Map<String, String> options)
+  {
+    new TreeMap<>(options).forEach(this::add);
+    return this;
+  }
+
+  /**
+   * Adds the content of a file or of all files within a directory.
+   */
+  public BuildFingerprint addFile(File file) throws IOException
+  {
+    update(file.getAbsolutePath());
+    if (file.isDirectory())
+    {
+      addDirectory(file, new ArrayList<>());
+    }
+    else if (file.isFile())
+    {
+      updateContent(file);
+    }
+    return this;
+  }
+
+  /**
+   * Adds the relative path and content of all files within a directory.
+   * @param excludedDirs directories which are not part of the fingerprint, e.g. generated sources
+   */
+  public BuildFingerprint addDirectory(File dir, Collection<File> excludedDirs) throws IOException
+  {
+    for (String relativePath : listFiles(dir, "", excludedDirs))
+    {
+      update(relativePath);
+      updateContent(new File(dir, relativePath));
+    }
+    return this;
+  }
+
+  /**
+   * @return the fingerprint as hex string. The fingerprint is complete: no further inputs can be added.
+   */
+  public String compute()
+  {
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  /**
+   * @return <code>true</code> if the fingerprint was {@link #store(File, String) stored} in the file.
+   */
+  public static boolean matches(File fingerprintFile, String fingerprint) throws IOException
+  {
+    if (!fingerprintFile.isFile())
+    {
+      return false;
+    }
+    return new String(Files.readAllBytes(fingerprintFile.toPath()), StandardCharsets.UTF_8).trim().equals(fingerprint);
+  }
+
+  public static void store(File fingerprintFile, String fingerprint) throws IOException
+  {
+    fingerprintFile.getParentFile().mkdirs();
+    Files.write(fingerprintFile.toPath(), fingerprint.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @return relative paths with '/' separators in a platform independent order
+   */
+  private static List<String> listFiles(File dir, String prefix, Collection<File> excludedDirs)
+  {
+    List<String> files = new ArrayList<>();
+    File[] children = dir.listFiles();
+    if (children == null)
+    {
+      return files;
+    }
+    TreeMap<String, File> sorted = new TreeMap<>();
+    for (File child : children)
+    {
+      sorted.put(child.getName(), child);
+    }
+    for (File child : sorted.values())
+    {
+      String relativePath = prefix + child.getName();
+      if (child.isDirectory())
+      {
+        if (!excludedDirs.contains(child.getAbsoluteFile()))
+        {
+          files.addAll(listFiles(child, relativePath + "/", excludedDirs));
+        }
+      }
+      else
+      {
+        files.add(relativePath);
+      }
+    }
+    return files;
+  }
+
+  private void updateContent(File file) throws IOException
+  {
+    update(Long.toString(file.length()));
+    try(InputStream in = new FileInputStream(file))
+    {
+      DigestUtils.updateDigest(digest, in);
+    }
+  }
+
+  private void update(String value)
+  {
+    digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+}
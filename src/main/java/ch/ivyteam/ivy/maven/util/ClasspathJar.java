@@ -16,17 +16,23 @@
 
 package ch.ivyteam.ivy.maven.util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.GregorianCalendar;
 import java.util.List;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
@@ -46,6 +52,8 @@ import org.apache.commons.lang3.StringUtils;
 public class ClasspathJar
 {
   private static final String MANIFEST_MF = "META-INF/MANIFEST.MF";
+  /** fixed entry time for byte-identical jars: local time, so that it is stored the same in any time zone */
+  private static final long REPRODUCIBLE_TIME = new GregorianCalendar(2010, Calendar.JANUARY, 1).getTimeInMillis();
   private final File jar;
   private String mainClass;
 
@@ -59,14 +67,28 @@ public class ClasspathJar
     this.mainClass = fqClassName;
   }
   
+  /**
+   * Writes the jar, unless an identical jar already exists: its modification time is kept for up-to-date checks 
+   * of other tools.
+   */
   public void create(List<String> classpathEntries) throws IOException
   {
-    jar.getParentFile().mkdir();
-    try(ZipOutputStream zipStream = new ZipOutputStream(new FileOutputStream(jar)))
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    try(ZipOutputStream zipStream = new ZipOutputStream(content))
     {
       String name = StringUtils.substringBeforeLast(jar.getName(), ".");
       writeManifest(name, zipStream, classpathEntries);
     }
+    byte[] bytes = content.toByteArray();
+    if (jar.isFile() && Arrays.equals(bytes, Files.readAllBytes(jar.toPath())))
+    {
+      return;
+    }
+    jar.getParentFile().mkdir();
+    try(OutputStream out = new FileOutputStream(jar))
+    {
+      out.write(bytes);
+    }
   }
   
   public void createFileEntries(Collection<File> classpathEntries) throws IOException
@@ -87,7 +109,9 @@ public class ClasspathJar
     {
       manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, StringUtils.join(classpathEntries, " "));
     }
-    jarStream.putNextEntry(new ZipEntry(MANIFEST_MF));
+    ZipEntry entry = new ZipEntry(MANIFEST_MF);
+    entry.setTime(REPRODUCIBLE_TIME);
+    jarStream.putNextEntry(entry);
     manifest.write(jarStream);
   }
   
@@ -53,5 +53,13 @@ public class SharedFile
   {
     return new File(targetDir, "ivy.project.compile.result.properties");
   }
+
+  /**
+   * @since 7.4.0
+   */
+  public File getCompileFingerprint()
+  {
+    return new File(targetDir, "ivy.project.compile.fingerprint");
+  }
   
 }
@@ -9,23 +9,79 @@ import java.util.List;
 
 public class UrlRedirectionResolver
 {
+  private static final int CONNECT_TIMEOUT_MILLIS = 30_000;
+  private static final int READ_TIMEOUT_MILLIS = 60_000;
+
   public List<URL> openedUrls = new ArrayList<>();
+  private String eTag;
+  private long lastModified;
 
   public InputStream followRedirections(URL url) throws IOException
   {
-    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    return followRedirections(url, null, 0);
+  }
+
+  /**
+   * Conditional request: the validators of a previous response are sent as 
+   * <code>If-None-Match</code> and <code>If-Modified-Since</code> headers.
+   * @param ifNoneMatch ETag of the previous response or <code>null</code>
+   * @param ifModifiedSince Last-Modified time of the previous response or <code>0</code>
+   * @return the content or <code>null</code> if it was not modified since the previous response
+   */
+  public InputStream followRedirections(URL url, String ifNoneMatch, long ifModifiedSince) throws IOException
+  {
+    HttpURLConnection connection = openConnection(url, ifNoneMatch, ifModifiedSince);
     openedUrls.add(url);
     while (isRedirected(connection.getResponseCode()))
     {
       String newUrl = connection.getHeaderField("Location");
       url = new URL(newUrl);
       closeHttpUrlConnectionSilently(connection);
-      connection = (HttpURLConnection) url.openConnection();
+      connection = openConnection(url, ifNoneMatch, ifModifiedSince);
       openedUrls.add(url);
     }
+    if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED)
+    {
+      connection.disconnect();
+      return null;
+    }
+    eTag = connection.getHeaderField("ETag");
+    lastModified = connection.getLastModified();
     return connection.getInputStream();
   }
 
+  private static HttpURLConnection openConnection(URL url, String ifNoneMatch, long ifModifiedSince) throws IOException
+  {
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+    connection.setReadTimeout(READ_TIMEOUT_MILLIS);
+    if (ifNoneMatch != null)
+    {
+      connection.setRequestProperty("If-None-Match", ifNoneMatch);
+    }
+    if (ifModifiedSince > 0)
+    {
+      connection.setIfModifiedSince(ifModifiedSince);
+    }
+    return connection;
+  }
+
+  /**
+   * @return the ETag of the last followed response or <code>null</code>
+   */
+  public String getETag()
+  {
+    return eTag;
+  }
+
+  /**
+   * @return the Last-Modified time of the last followed response or <code>0</code>
+   */
+  public long getLastModified()
+  {
+    return lastModified;
+  }
+
   public List<URL> getOpenedUrls()
   {
     return openedUrls;
@@ -19,15 +19,20 @@
 package ch.ivyteam.ivy.maven.util.stream;
 
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
  * Invokes {@link #processLine processLine} whenever a full line has
  * been written to this stream.
  *
  * <p>Tries to be smart about line separators.</p>
+ *
+ * <p>Lines are handed out as views on a reused buffer, so splitting does not
+ * allocate per line. They are only decoded, with the charset of the stream,
+ * if a subclass asks for a String.</p>
  * 
  * <p style="color:red;">COPIED FROM ANT 1.9.5: org.apache.tools.ant.util.LineOrientedOutputStream</p>
  */
@@ -42,10 +47,24 @@ public abstract class LineOrientedOutputStream extends OutputStream {
     /** Linefeed */
     private static final int LF = 0x0a;
 
-    private ByteArrayOutputStream buffer
-        = new ByteArrayOutputStream(INITIAL_SIZE);
+    private final Charset charset;
+    /** the incomplete line, reused for all lines */
+    private byte[] buffer = new byte[INITIAL_SIZE];
+    private int size = 0;
     private boolean skip = false;
 
+    protected LineOrientedOutputStream() {
+        this(Charset.defaultCharset());
+    }
+
+    /**
+     * @param charset to decode lines with
+     * @since 7.4.0
+     */
+    protected LineOrientedOutputStream(Charset charset) {
+        this.charset = charset;
+    }
+
     /**
      * Write the data to the buffer and flush the buffer, if a line
      * separator is detected.
@@ -61,7 +80,7 @@ public abstract class LineOrientedOutputStream extends OutputStream {
               processBuffer();
             }
         } else {
-            buffer.write(cc);
+            append(c);
         }
         skip = (c == CR);
     }
@@ -75,15 +94,14 @@ public abstract class LineOrientedOutputStream extends OutputStream {
     }
 
     /**
-     * Converts the buffer to a byte[] and sends it to
-     * <code>processLine</code>
+     * Sends the buffered line to <code>processLine</code>
      * @throws IOException if there is an error.
      */
     protected void processBuffer() throws IOException {
         try {
-            processLine(buffer.toByteArray());
+            processLine(buffer, 0, size);
         } finally {
-            buffer.reset();
+            size = 0;
         }
     }
 
@@ -99,7 +117,7 @@ public abstract class LineOrientedOutputStream extends OutputStream {
      * Processes a line.
      *
      * <p>This implementations invokes the string-arg version
-     * converting the byte array using the default encoding.
+     * converting the byte array using the charset of this stream.
      * Subclasses are encouraged to override this method (and provide
      * a dummy implementation of the String-arg version) so they don't
      * interfere with the encoding of the underlying stream.</p>
@@ -109,7 +127,32 @@ public abstract class LineOrientedOutputStream extends OutputStream {
      * @since Ant 1.8.3
      */
     protected void processLine(byte[] line) throws IOException {
-        processLine(new String(line));
+        processLine(decode(line, 0, line.length));
+    }
+
+    /**
+     * Processes a line without copying it.
+     *
+     * <p>The bytes are only valid during this call: the array is reused for
+     * the next lines. This implementation copies the line and invokes the
+     * byte[]-arg version. Subclasses are encouraged to override this method.</p>
+     *
+     * @param line array that contains the line, without line separator
+     * @param offset of the line in the array
+     * @param length of the line
+     * @throws IOException if there is an error.
+     * @since 7.4.0
+     */
+    protected void processLine(byte[] line, int offset, int length) throws IOException {
+        processLine(Arrays.copyOfRange(line, offset, offset + length));
+    }
+
+    /**
+     * @return the line decoded with the charset of this stream
+     * @since 7.4.0
+     */
+    protected final String decode(byte[] line, int offset, int length) {
+        return new String(line, offset, length, charset);
     }
 
     /**
@@ -118,7 +161,7 @@ public abstract class LineOrientedOutputStream extends OutputStream {
      */
     @Override
     public void close() throws IOException {
-        if (buffer.size() > 0) {
+        if (size > 0) {
             processBuffer();
         }
         super.close();
@@ -135,26 +178,47 @@ public abstract class LineOrientedOutputStream extends OutputStream {
      */
     @Override
     public final void write(byte[] b, int off, int len) throws IOException {
-        // find the line breaks and pass other chars through in blocks
-        int offset = off;
-        int blockStartOffset = offset;
-        int remaining = len;
-        while (remaining > 0) {
-            while (remaining > 0 && b[offset] != LF && b[offset] != CR) {
-                offset++;
-                remaining--;
+        // find the line breaks and hand out complete lines directly from b
+        final int end = off + len;
+        int lineStart = off;
+        for (int i = off; i < end; i++) {
+            final byte c = b[i];
+            if ((c == LF) || (c == CR)) {
+                if (i > lineStart) {
+                    skip = false;
+                }
+                if (!skip) {
+                    if (size == 0) {
+                        processLine(b, lineStart, i - lineStart);
+                    } else {
+                        append(b, lineStart, i - lineStart);
+                        processBuffer();
+                    }
+                }
+                skip = (c == CR);
+                lineStart = i + 1;
             }
-            // either end of buffer or a line separator char
-            int blockLength = offset - blockStartOffset;
-            if (blockLength > 0) {
-                buffer.write(b, blockStartOffset, blockLength);
-            }
-            while (remaining > 0 && (b[offset] == LF || b[offset] == CR)) {
-                write(b[offset]);
-                offset++;
-                remaining--;
-            }
-            blockStartOffset = offset;
+        }
+        if (lineStart < end) {
+            append(b, lineStart, end - lineStart);
+            skip = false;
+        }
+    }
+
+    private void append(byte c) {
+        ensureCapacity(size + 1);
+        buffer[size++] = c;
+    }
+
+    private void append(byte[] b, int off, int len) {
+        ensureCapacity(size + len);
+        System.arraycopy(b, off, buffer, size, len);
+        size += len;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
         }
     }
 
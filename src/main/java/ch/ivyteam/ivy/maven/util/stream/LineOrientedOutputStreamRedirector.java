@@ -45,6 +45,12 @@ public class LineOrientedOutputStreamRedirector
         this.stream = stream;
     }
 
+    @Override
+    protected void processLine(byte[] b, int off, int len) throws IOException {
+        stream.write(b, off, len);
+        stream.write(EOL);
+    }
+
     @Override
     protected void processLine(byte[] b) throws IOException {
         stream.write(b);
@@ -27,8 +27,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.util.Arrays;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.wink.client.MockHttpServer;
@@ -38,6 +41,10 @@ import org.junit.Test;
 import ch.ivyteam.ivy.maven.InstallEngineMojo.EngineDownloader;
 import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
 import ch.ivyteam.ivy.maven.engine.EngineVersionEvaluator;
+import ch.ivyteam.ivy.maven.engine.cache.CachedEngine;
+import ch.ivyteam.ivy.maven.engine.cache.EngineCache;
+import ch.ivyteam.ivy.maven.engine.cache.PartialEngine;
+import ch.ivyteam.ivy.maven.engine.unpack.ExtractionProfile;
 import mockit.Mock;
 import mockit.MockUp;
 import net.lingala.zip4j.core.ZipFile;
@@ -79,19 +86,214 @@ public class TestInstallEngineMojo
       mojo.engineCacheDirectory = Files.createTempDirectory("tmpRepo").toFile();
       mojo.engineListPageUrl = new URL(baseUrl + "/listPageUrl.html");
 
-      File defaultEngineDir = new File(mojo.engineCacheDirectory, AbstractEngineMojo.DEFAULT_VERSION);
-      assertThat(defaultEngineDir).doesNotExist();
+      assertThat(mojo.engineCacheDirectory.listFiles()).isEmpty();
       assertThat(mojo.engineDownloadUrl).as("Default config should favour to download an engine from the 'list page url'.").isNull();
       assertThat(mojo.autoInstallEngine).isTrue();
 
       mojo.execute();
 
+      File defaultEngineDir = new File(mojo.engineCacheDirectory, 
+              AbstractEngineMojo.DEFAULT_VERSION + "-" + EngineCache.sha256(engineZip).substring(0, 12));
       assertThat(defaultEngineDir)
         .as("Engine must be automatically downloaded")
         .exists().isDirectory();
       assertThat(defaultEngineDir)
         .as("Engine directory should automatically be set to subdir of the local repository cache.")
         .isEqualTo(mojo.getRawEngineDirectory());
+      assertThat(CachedEngine.read(defaultEngineDir).getVersion().toString())
+        .as("Engine must be marked as completely installed")
+        .isEqualTo(AbstractEngineMojo.DEFAULT_VERSION);
+    }
+    finally
+    {
+      mockServer.stopServer();
+    }
+  }
+
+  @Test
+  public void testEngineDownload_streamingInstall() throws Exception
+  {
+    MockHttpServer mockServer = new MockHttpServer(3333);
+    try
+    {
+      mockServer.startServer();
+      String baseUrl = "http://localhost:" + mockServer.getServerPort();
+      File engineZip = createFakeEngineZip(mojo.ivyVersion);
+      mockServer.setMockHttpServerResponses(createFakeZipResponse(engineZip));
+
+      mojo.engineCacheDirectory = Files.createTempDirectory("tmpRepo").toFile();
+      mojo.engineDownloadUrl = new URL(baseUrl + "/AxonIvyEngine" + AbstractEngineMojo.DEFAULT_VERSION + ".46949_"+InstallEngineMojo.DEFAULT_ARCH + ".zip");
+      mojo.streamingInstall = true;
+
+      mojo.execute();
+
+      File defaultEngineDir = new File(mojo.engineCacheDirectory, 
+              AbstractEngineMojo.DEFAULT_VERSION + "-" + EngineCache.sha256(engineZip).substring(0, 12));
+      assertThat(defaultEngineDir).isEqualTo(mojo.getRawEngineDirectory());
+      assertThat(new File(defaultEngineDir, getFakeLibraryPath(mojo.ivyVersion)))
+        .as("Engine must be unpacked directly from the download stream")
+        .exists();
+    }
+    finally
+    {
+      mockServer.stopServer();
+    }
+  }
+
+  @Test
+  public void testEngineDownload_streamingInstallFailureKeepsEngineDirectory() throws Exception
+  {
+    MockHttpServer mockServer = new MockHttpServer(3333);
+    try
+    {
+      mockServer.startServer();
+      String baseUrl = "http://localhost:" + mockServer.getServerPort();
+      byte[] zipBytes = FileUtils.readFileToByteArray(createFakeEngineZip(mojo.ivyVersion));
+      MockHttpServer.MockHttpServerResponse truncatedZipResponse = new MockHttpServer.MockHttpServerResponse();
+      truncatedZipResponse.setMockResponseContentType("application/zip");
+      truncatedZipResponse.setMockResponseContent(Arrays.copyOf(zipBytes, zipBytes.length / 2));
+      mockServer.setMockHttpServerResponses(truncatedZipResponse);
+
+      mojo.engineDirectory = createTempDir("tmpEngine");
+      File userFile = new File(mojo.engineDirectory, "user.txt");
+      FileUtils.touch(userFile);
+      mojo.autoInstallEngine = true;
+      mojo.engineDownloadUrl = new URL(baseUrl + "/AxonIvyEngine" + AbstractEngineMojo.DEFAULT_VERSION + ".46949_"+InstallEngineMojo.DEFAULT_ARCH + ".zip");
+      mojo.streamingInstall = true;
+
+      try
+      {
+        mojo.execute();
+        failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+      }
+      catch (MojoExecutionException ex)
+      {
+        assertThat(ex).hasMessageContaining("Failed to download and unpack engine");
+      }
+      assertThat(mojo.engineDirectory.listFiles())
+        .as("a failed download must not touch the content of an explicit engine directory")
+        .containsOnly(userFile);
+      assertThat(mojo.engineDirectory.getParentFile().list())
+        .filteredOn(name -> name.startsWith("." + mojo.engineDirectory.getName() + ".staging-"))
+        .isEmpty();
+    }
+    finally
+    {
+      mockServer.stopServer();
+    }
+  }
+
+  @Test
+  public void testEngineDownload_keepEngineOfInterruptedVersionCheck() throws Exception
+  {
+    mojo.engineDirectory = createTempDir("tmpEngine");
+    File userFile = new File(mojo.engineDirectory, "user.txt");
+    FileUtils.touch(userFile);
+    File stagingDir = new File(mojo.engineDirectory.getParentFile(), "." + mojo.engineDirectory.getName() + ".staging-4711");
+    FileUtils.touch(new File(stagingDir, "partial.txt"));
+    writeStaleInstallLock(mojo.engineDirectory);
+    mojo.autoInstallEngine = false;
+
+    try
+    {
+      mojo.execute();
+      failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+    }
+    catch (MojoExecutionException ex)
+    {
+      assertThat(ex).hasMessageContaining("no valid ivy Engine is available");
+    }
+    assertThat(userFile).as("no installation touched the engine directory").exists();
+    assertThat(stagingDir).as("left behind by the killed build").doesNotExist();
+
+    File marker = new File(mojo.engineDirectory.getParentFile(), mojo.engineDirectory.getName() + ".installing");
+    FileUtils.touch(marker);
+    writeStaleInstallLock(mojo.engineDirectory);
+    try
+    {
+      mojo.execute();
+      failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+    }
+    catch (MojoExecutionException ex)
+    {
+      assertThat(userFile).as("never removed without autoInstallEngine").exists();
+    }
+  }
+
+  @Test
+  public void testEngineDownload_removeEngineOfInterruptedInstallation() throws Exception
+  {
+    MockHttpServer mockServer = new MockHttpServer(3333);
+    try
+    {
+      mockServer.startServer();
+      String baseUrl = "http://localhost:" + mockServer.getServerPort();
+      mockServer.setMockHttpServerResponses(createFakeZipResponse(createFakeEngineZip(mojo.ivyVersion)));
+
+      mojo.engineDirectory = createTempDir("tmpEngine");
+      File partialFile = new File(mojo.engineDirectory, "partial.txt");
+      FileUtils.touch(partialFile);
+      File marker = new File(mojo.engineDirectory.getParentFile(), mojo.engineDirectory.getName() + ".installing");
+      FileUtils.touch(marker);
+      writeStaleInstallLock(mojo.engineDirectory);
+      mojo.autoInstallEngine = true;
+      mojo.engineDownloadUrl = new URL(baseUrl + "/AxonIvyEngine" + AbstractEngineMojo.DEFAULT_VERSION + ".46949_"+InstallEngineMojo.DEFAULT_ARCH + ".zip");
+      mojo.streamingInstall = true;
+
+      mojo.execute();
+
+      assertThat(partialFile).doesNotExist();
+      assertThat(marker).doesNotExist();
+      assertThat(new File(mojo.engineDirectory, getFakeLibraryPath(mojo.ivyVersion))).exists();
+    }
+    finally
+    {
+      mockServer.stopServer();
+    }
+  }
+
+  /**
+   * the record of a build that was killed while it held the install lock
+   */
+  private static void writeStaleInstallLock(File engineDir) throws IOException
+  {
+    File lockFile = new File(engineDir.getParentFile(), engineDir.getName() + ".lock");
+    FileUtils.write(lockFile, "4711@killed since 2018-01-01T00:00:00Z", StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testEngineDownload_compileProfile() throws Exception
+  {
+    MockHttpServer mockServer = new MockHttpServer(3333);
+    try
+    {
+      mockServer.startServer();
+      String baseUrl = "http://localhost:" + mockServer.getServerPort();
+      File engineZip = createFakeEngineZip(mojo.ivyVersion, OsgiDir.INSTALL_AREA + "/bin/engine.sh");
+      mockServer.setMockHttpServerResponses(createFakeZipResponse(engineZip));
+
+      mojo.engineCacheDirectory = Files.createTempDirectory("tmpRepo").toFile();
+      mojo.engineDownloadUrl = new URL(baseUrl + "/AxonIvyEngine" + AbstractEngineMojo.DEFAULT_VERSION + ".46949_"+InstallEngineMojo.DEFAULT_ARCH + ".zip");
+      mojo.installProfile = "compile";
+
+      mojo.execute();
+
+      File engineDir = mojo.getRawEngineDirectory();
+      assertThat(new File(engineDir, getFakeLibraryPath(mojo.ivyVersion))).exists();
+      assertThat(new File(engineDir, OsgiDir.INSTALL_AREA + "/bin/engine.sh"))
+        .as("not required to compile projects")
+        .doesNotExist();
+      assertThat(PartialEngine.read(engineDir).getProfile()).isEqualTo(ExtractionProfile.COMPILE);
+
+      mojo.installProfile = "full";
+      mojo.execute();
+
+      assertThat(mojo.getRawEngineDirectory()).isEqualTo(engineDir);
+      assertThat(new File(engineDir, OsgiDir.INSTALL_AREA + "/bin/engine.sh"))
+        .as("unpacked from the kept archive")
+        .exists();
+      assertThat(PartialEngine.read(engineDir)).isNull();
+      assertThat(new File(engineDir, PartialEngine.ARCHIVE)).doesNotExist();
     }
     finally
     {
@@ -109,9 +311,13 @@ public class TestInstallEngineMojo
     return engineZipResponse;
   }
 
-  private static File createFakeEngineZip(String ivyVersion) throws IOException, ZipException
+  private static File createFakeEngineZip(String ivyVersion, String... additionalFiles) throws IOException, ZipException
   {
     File zipDir = createFakeEngineDir(ivyVersion);
+    for (String additionalFile : additionalFiles)
+    {
+      FileUtils.touch(new File(zipDir, additionalFile));
+    }
     File zipFile = new File(zipDir, "fake.zip");
     ZipFile zip = new ZipFile(zipFile);
     zip.createZipFileFromFolder(new File(zipDir, OsgiDir.INSTALL_AREA), new ZipParameters(), false, 0);
@@ -214,6 +420,62 @@ public class TestInstallEngineMojo
     assertThat(mojo.engineDirectory.getName()).isEqualTo("7.0.0");
   }
 
+  @Test
+  public void testEngineDownload_skipStagingEngineInCache() throws Exception
+  {
+    mojo.engineDirectory = null;
+    mojo.engineCacheDirectory = createTempDir("tmpRepo");
+    mojo.autoInstallEngine = false;
+
+    // partially unpacked
+    new File(mojo.engineCacheDirectory, ".staging-1" + File.separator + getFakeLibraryPath(mojo.ivyVersion)).mkdirs();
+
+    try
+    {
+      mojo.execute();
+      failBecauseExceptionWasNotThrown(MojoExecutionException.class);
+    }
+    catch(MojoExecutionException ex)
+    {
+      assertThat(ex).hasMessageContaining("no valid ivy Engine is available");
+    }
+  }
+
+  @Test
+  public void testEngineDownload_trustCompletionMarkerInCache() throws Exception
+  {
+    mojo.engineDirectory = null;
+    mojo.engineCacheDirectory = createTempDir("tmpRepo");
+    mojo.autoInstallEngine = false;
+
+    File cachedEngine = new File(mojo.engineCacheDirectory, mojo.ivyVersion + "-0123456789ab");
+    cachedEngine.mkdirs();
+    Files.write(new File(cachedEngine, ".ivy-engine-complete").toPath(), 
+            ("sha256=0123456789abcdef\nversion=" + mojo.ivyVersion).getBytes());
+
+    mojo.execute();
+    assertThat(mojo.engineDirectory).isEqualTo(cachedEngine);
+  }
+
+  @Test
+  public void testEngineDownload_linkFromCache() throws Exception
+  {
+    mojo.engineCacheDirectory = createTempDir("tmpRepo");
+    File cachedLib = new File(mojo.engineCacheDirectory, mojo.ivyVersion + File.separator + getFakeLibraryPath(mojo.ivyVersion));
+    cachedLib.getParentFile().mkdirs();
+    cachedLib.createNewFile();
+    mojo.engineDirectory = new File(createTempDir("workspace"), "engine");
+    mojo.linkEngineFromCache = true;
+
+    mojo.execute();
+
+    File lib = new File(mojo.engineDirectory, getFakeLibraryPath(mojo.ivyVersion));
+    assertThat(lib).exists();
+    assertThat(Files.isSameFile(lib.toPath(), cachedLib.toPath()))
+      .as("library is hard-linked from the cache")
+      .isTrue();
+  }
+
   @Test
   public void testEngineDownload_existingTmpFileNotOverwritten() throws Exception
   {
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestClassDataSharingArchive
+{
+  private File engineDir;
+  private File jar;
+  private ClassDataSharingArchive archive;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    Assume.assumeTrue(ClassDataSharingArchive.isSupported());
+    engineDir = Files.createTempDirectory("engine").toFile();
+    engineDir.deleteOnExit();
+    jar = new File(engineDir, "lib/boot/boot.jar");
+    FileUtils.touch(jar);
+    jar.setLastModified(System.currentTimeMillis() - 60_000);
+    archive = new ClassDataSharingArchive(engineDir, Collections.singletonList(jar));
+  }
+
+  @Test
+  public void javaVersion()
+  {
+    assertThat(ClassDataSharingArchive.getJavaVersion("1.8")).isEqualTo(8);
+    assertThat(ClassDataSharingArchive.getJavaVersion("11")).isEqualTo(11);
+    assertThat(ClassDataSharingArchive.getJavaVersion("17.0")).isEqualTo(17);
+  }
+
+  @Test
+  public void recordOnFirstLaunch() throws IOException
+  {
+    assertThat(archive.getVmOptions(false, new SystemStreamLog())).isEmpty();
+
+    List<String> options = archive.getVmOptions(true, new SystemStreamLog());
+    assertThat(options).hasSize(1);
+    assertThat(options.get(0)).startsWith("-XX:ArchiveClassesAtExit=" + new File(engineDir, ClassDataSharingArchive.DIRECTORY));
+  }
+
+  @Test
+  public void promoteCompleteRecording() throws IOException
+  {
+    File recording = getRecording(archive.getVmOptions(true, new SystemStreamLog()));
+    FileUtils.writeByteArrayToFile(recording, new byte[4]);
+    assertThat(archive.getVmOptions(false, new SystemStreamLog())).as("JVM still writes the archive").isEmpty();
+    assertThat(recording).exists();
+
+    FileUtils.writeByteArrayToFile(recording, new byte[] {(byte) 0xa8, (byte) 0xab, 0x0b, (byte) 0xf0, 0, 0});
+    assertThat(archive.getVmOptions(true, new SystemStreamLog()))
+      .containsExactly("-XX:SharedArchiveFile=" + archive.getArchive().getAbsolutePath(), "-Xshare:auto");
+    assertThat(recording).doesNotExist();
+  }
+
+  @Test
+  public void recordAgainIfClasspathChanged() throws IOException
+  {
+    Files.createDirectories(archive.getArchive().getParentFile().toPath());
+    FileUtils.touch(archive.getArchive());
+    assertThat(archive.getVmOptions(true, new SystemStreamLog())).hasSize(2);
+
+    jar.setLastModified(System.currentTimeMillis() + 60_000);
+    assertThat(getRecording(archive.getVmOptions(true, new SystemStreamLog()))).isNotNull();
+    assertThat(archive.getArchive()).doesNotExist();
+  }
+
+  @Test
+  public void isMetadata()
+  {
+    assertThat(ClassDataSharingArchive.isMetadata(ClassDataSharingArchive.DIRECTORY + "/abc.jsa")).isTrue();
+    assertThat(ClassDataSharingArchive.isMetadata("lib/boot/boot.jar")).isFalse();
+  }
+
+  private static File getRecording(List<String> options)
+  {
+    assertThat(options).hasSize(1);
+    return new File(options.get(0).substring("-XX:ArchiveClassesAtExit=".length()));
+  }
+
+}
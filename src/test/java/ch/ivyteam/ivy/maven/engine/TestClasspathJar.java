@@ -52,5 +52,31 @@ public class TestClasspathJar
       .as("Manifest should not start with a whitespace or it will not be interpreted by the JVM")
       .startsWith("Manifest-Version:");
   }
+
+  @Test
+  public void writeOnlyIfChanged() throws Exception
+  {
+    File jarFile = Files.createTempFile("my", ".jar").toFile();
+    ClasspathJar jar = new ClasspathJar(jarFile);
+    File content = Files.createTempFile("content", ".jar").toFile();
+    jar.createFileEntries(Arrays.asList(content));
+    byte[] written = Files.readAllBytes(jarFile.toPath());
+    long lastModified = jarFile.lastModified() - 10_000;
+    jarFile.setLastModified(lastModified);
+
+    jar.createFileEntries(Arrays.asList(content));
+    assertThat(jarFile.lastModified()).as("unchanged jar is not rewritten").isEqualTo(lastModified);
+
+    File otherJarFile = new File(Files.createTempDirectory("other").toFile(), jarFile.getName());
+    Thread.sleep(1000); // other entry time if it were not fixed
+    new ClasspathJar(otherJarFile).createFileEntries(Arrays.asList(content));
+    assertThat(Files.readAllBytes(otherJarFile.toPath()))
+      .as("content is reproducible")
+      .isEqualTo(written);
+
+    jar.createFileEntries(Arrays.asList(content, otherJarFile));
+    assertThat(jarFile.lastModified()).isNotEqualTo(lastModified);
+    assertThat(jar.getFiles()).hasSize(2);
+  }
   
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEngineClasspathIndex
+{
+  private static final List<String> LIB_DIRS = Arrays.asList("lib/boot", "plugins");
+  private File engineDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    engineDir = Files.createTempDirectory("engine").toFile();
+    engineDir.deleteOnExit();
+    FileUtils.touch(new File(engineDir, "lib/boot/boot.jar"));
+    FileUtils.touch(new File(engineDir, "lib/boot/readme.txt"));
+    FileUtils.touch(new File(engineDir, "plugins/a_1.0.0/lib/nested.jar"));
+  }
+
+  @Test
+  public void listJars()
+  {
+    assertThat(EngineClasspathIndex.getJars(engineDir, LIB_DIRS)).containsExactly(
+            new File(engineDir, "lib/boot/boot.jar"),
+            new File(engineDir, "plugins/a_1.0.0/lib/nested.jar"));
+    assertThat(new File(engineDir, EngineClasspathIndex.FILE)).exists();
+  }
+
+  @Test
+  public void rescanChangedDirectory() throws IOException
+  {
+    assertThat(EngineClasspathIndex.getJars(engineDir, LIB_DIRS)).hasSize(2);
+
+    File nestedDir = new File(engineDir, "plugins/a_1.0.0/lib");
+    FileUtils.touch(new File(nestedDir, "added.jar"));
+    nestedDir.setLastModified(nestedDir.lastModified() + 1000); // coarse file system timestamps
+    assertThat(EngineClasspathIndex.getJars(engineDir, LIB_DIRS))
+      .contains(new File(nestedDir, "added.jar"))
+      .hasSize(3);
+  }
+
+  @Test
+  public void listJarsBelow_withoutIndexFile() throws IOException
+  {
+    File stateDir = new File(engineDir, "plugins");
+    assertThat(EngineClasspathIndex.getJarsBelow(stateDir))
+      .containsExactly(new File(stateDir, "a_1.0.0/lib/nested.jar"));
+    assertThat(new File(stateDir, EngineClasspathIndex.FILE)).doesNotExist();
+
+    File unpackedDir = new File(stateDir, "b_1.0.0");
+    FileUtils.touch(new File(unpackedDir, "unpacked.jar"));
+    stateDir.setLastModified(stateDir.lastModified() + 1000); // coarse file system timestamps
+    assertThat(EngineClasspathIndex.getJarsBelow(stateDir))
+      .contains(new File(unpackedDir, "unpacked.jar"))
+      .hasSize(2);
+  }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import org.junit.Test;
+
+public class TestEngineJvmProfile
+{
+  @Test
+  public void fromName()
+  {
+    assertThat(EngineJvmProfile.fromName("Low-Latency")).isEqualTo(EngineJvmProfile.LOW_LATENCY);
+    try
+    {
+      EngineJvmProfile.fromName("fast");
+      failBecauseExceptionWasNotThrown(IllegalArgumentException.class);
+    }
+    catch (IllegalArgumentException ex)
+    {
+      assertThat(ex).hasMessageContaining("throughput");
+    }
+  }
+
+  @Test
+  public void vmOptions()
+  {
+    assertThat(EngineJvmProfile.NONE.getVmOptions("2048m")).isEmpty();
+    assertThat(EngineJvmProfile.THROUGHPUT.getVmOptions("2048m")).contains("-XX:+UseParallelGC", "-Xms2048m");
+    assertThat(EngineJvmProfile.THROUGHPUT.getVmOptions("")).doesNotContain("-Xms");
+    assertThat(EngineJvmProfile.TINY.getVmOptions("512m")).contains("-XX:TieredStopAtLevel=1");
+  }
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.maven.execution.AbstractExecutionListener;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.ExecutionListener;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+public class TestEnginePool
+{
+  private static final MavenProject MODULE = module("first");
+
+  private final EnginePool pool = new EnginePool();
+  private final File engineDir = new File("engine");
+
+  @Test
+  public void startOnce() throws Exception
+  {
+    FakeEngine engine = new FakeEngine();
+    assertThat(pool.lease(engineDir, MODULE, engine, 1, new SystemStreamLog())).isEqualTo("http://localhost:8081/ivy/");
+    pool.release(engineDir);
+    assertThat(pool.lease(engineDir, MODULE, new FakeEngine(), 1, new SystemStreamLog())).isEqualTo("http://localhost:8081/ivy/");
+    pool.release(engineDir);
+    assertThat(engine.starts).isEqualTo(1);
+
+    assertThat(pool.stop(engineDir, engine, 1)).isTrue();
+    assertThat(engine.running).isFalse();
+    assertThat(pool.stop(new File("other"), engine, 1)).as("not pooled").isFalse();
+  }
+
+  @Test
+  public void leaseIsExclusive() throws Exception
+  {
+    pool.lease(engineDir, MODULE, new FakeEngine(), 1, new SystemStreamLog());
+    try
+    {
+      pool.lease(engineDir, MODULE, new FakeEngine(), 0, new SystemStreamLog());
+      failBecauseExceptionWasNotThrown(TimeoutException.class);
+    }
+    catch (TimeoutException ex)
+    {
+      assertThat(ex).hasMessageContaining("leased by another module");
+    }
+    pool.release(engineDir);
+    pool.release(engineDir);
+    pool.lease(engineDir, MODULE, new FakeEngine(), 0, new SystemStreamLog());
+    try
+    {
+      pool.lease(engineDir, MODULE, new FakeEngine(), 0, new SystemStreamLog());
+      failBecauseExceptionWasNotThrown(TimeoutException.class);
+    }
+    catch (TimeoutException ex)
+    { // duplicate release must not grant a second lease
+    }
+  }
+
+  @Test
+  public void restartTerminatedEngine() throws Exception
+  {
+    FakeEngine engine = new FakeEngine();
+    pool.lease(engineDir, MODULE, engine, 1, new SystemStreamLog());
+    pool.release(engineDir);
+    engine.running = false;
+
+    FakeEngine restarted = new FakeEngine();
+    pool.lease(engineDir, MODULE, restarted, 1, new SystemStreamLog());
+    assertThat(restarted.starts).isEqualTo(1);
+  }
+
+  @Test
+  public void failedModuleReleasesItsLease() throws Exception
+  {
+    List<String> forwarded = new ArrayList<>();
+    ExecutionListener listener = new EnginePoolListener(pool, new AbstractExecutionListener()
+      {
+        @Override
+        public void projectFailed(ExecutionEvent event)
+        {
+          forwarded.add(event.getProject().getArtifactId());
+        }
+      });
+    pool.lease(engineDir, MODULE, new FakeEngine(), 1, new SystemStreamLog());
+
+    listener.projectFailed(new ProjectEvent(module("other")));
+    try
+    {
+      pool.lease(engineDir, module("second"), new FakeEngine(), 0, new SystemStreamLog());
+      failBecauseExceptionWasNotThrown(TimeoutException.class);
+    }
+    catch (TimeoutException ex)
+    { // leased by a module that did not fail
+    }
+
+    listener.projectFailed(new ProjectEvent(MODULE));
+    assertThat(pool.lease(engineDir, module("second"), new FakeEngine(), 0, new SystemStreamLog()))
+      .isEqualTo("http://localhost:8081/ivy/");
+    assertThat(forwarded).containsExactly("other", "first");
+  }
+
+  @Test
+  public void logFileOfRunningEngine() throws Exception
+  {
+    assertThat(pool.getLogFile(engineDir)).isNull();
+    pool.lease(engineDir, MODULE, new FakeEngine().withLogFile("first.log"), 1, new SystemStreamLog());
+    pool.release(engineDir);
+    pool.lease(engineDir, module("second"), new FakeEngine().withLogFile("second.log"), 1, new SystemStreamLog());
+    assertThat(pool.getLogFile(engineDir)).as("of the engine started by the first module")
+      .isEqualTo(new File("first.log"));
+  }
+
+  private static MavenProject module(String artifactId)
+  {
+    MavenProject project = new MavenProject();
+    project.setArtifactId(artifactId);
+    return project;
+  }
+
+  private static class ProjectEvent implements ExecutionEvent
+  {
+    private final MavenProject project;
+
+    private ProjectEvent(MavenProject project)
+    {
+      this.project = project;
+    }
+
+    @Override
+    public Type getType()
+    {
+      return Type.ProjectFailed;
+    }
+
+    @Override
+    public MavenSession getSession()
+    {
+      return null;
+    }
+
+    @Override
+    public MavenProject getProject()
+    {
+      return project;
+    }
+
+    @Override
+    public MojoExecution getMojoExecution()
+    {
+      return null;
+    }
+
+    @Override
+    public Exception getException()
+    {
+      return null;
+    }
+  }
+
+  private static class FakeEngine implements EnginePool.Engine
+  {
+    private File logFile = new File("engine.log");
+
+    private FakeEngine withLogFile(String name)
+    {
+      logFile = new File(name);
+      return this;
+    }
+    private int starts = 0;
+    private boolean running = false;
+
+    @Override
+    public String start()
+    {
+      starts++;
+      running = true;
+      return "http://localhost:8081/ivy/";
+    }
+
+    @Override
+    public boolean isRunning()
+    {
+      return running;
+    }
+
+    @Override
+    public void stop()
+    {
+      running = false;
+    }
+
+    @Override
+    public File getLogFile()
+    {
+      return logFile;
+    }
+  }
+
+}
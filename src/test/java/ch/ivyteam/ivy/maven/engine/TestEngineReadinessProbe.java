@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TestEngineReadinessProbe
+{
+  @Test
+  public void notServing() throws Exception
+  {
+    int port;
+    try(ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress()))
+    {
+      port = socket.getLocalPort();
+    }
+    EngineReadinessProbe probe = new EngineReadinessProbe("http://localhost:" + port + "/ivy/");
+    assertThat(probe.isServing()).isFalse();
+    try
+    {
+      probe.awaitServing(200);
+      failBecauseExceptionWasNotThrown(TimeoutException.class);
+    }
+    catch (TimeoutException ex)
+    {
+      assertThat(ex).hasMessageContaining("/ivy/");
+    }
+  }
+
+  @Test
+  public void serving() throws Exception
+  {
+    HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/ivy/", exchange -> {
+      exchange.sendResponseHeaders(302, -1);
+      exchange.close();
+    });
+    server.start();
+    try
+    {
+      EngineReadinessProbe probe = new EngineReadinessProbe("http://localhost:" + server.getAddress().getPort() + "/ivy/");
+      assertThat(probe.isServing()).isTrue();
+      assertThat(probe.awaitServing(1_000)).isLessThan(1_000);
+    }
+    finally
+    {
+      server.stop(0);
+    }
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TestEngineWorkingDirectory
+{
+  private static final File ENGINE = new File("engineA").getAbsoluteFile();
+  private static final File OTHER_ENGINE = new File("engineB").getAbsoluteFile();
+
+  @Test
+  public void parallelCallsShareEngineDirectory() throws Exception
+  {
+    String original = System.getProperty("user.dir");
+    CountDownLatch bothRunning = new CountDownLatch(2);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try
+    {
+      Future<String> first = executor.submit(() -> EngineWorkingDirectory.execute(ENGINE, () -> awaitOther(bothRunning)));
+      Future<String> second = executor.submit(() -> EngineWorkingDirectory.execute(ENGINE, () -> awaitOther(bothRunning)));
+      assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(ENGINE.getPath());
+      assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo(ENGINE.getPath());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+    assertThat(System.getProperty("user.dir")).isEqualTo(original);
+  }
+
+  @Test
+  public void otherEngineDirectoryWaits() throws Exception
+  {
+    String original = System.getProperty("user.dir");
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try
+    {
+      Future<String> first = executor.submit(() -> EngineWorkingDirectory.execute(ENGINE, () -> {
+        running.countDown();
+        release.await(10, TimeUnit.SECONDS);
+        return System.getProperty("user.dir");
+      }));
+      running.await(10, TimeUnit.SECONDS);
+      Future<String> other = executor.submit(() -> EngineWorkingDirectory.execute(OTHER_ENGINE, () -> System.getProperty("user.dir")));
+      Thread.sleep(200);
+      assertThat(other.isDone()).as("must wait until the first engine directory is released").isFalse();
+
+      release.countDown();
+      assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo(ENGINE.getPath());
+      assertThat(other.get(10, TimeUnit.SECONDS)).isEqualTo(OTHER_ENGINE.getPath());
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+    assertThat(System.getProperty("user.dir")).isEqualTo(original);
+  }
+
+  private static String awaitOther(CountDownLatch bothRunning) throws InterruptedException
+  {
+    bothRunning.countDown();
+    assertThat(bothRunning.await(10, TimeUnit.SECONDS)).as("both calls run concurrently").isTrue();
+    return System.getProperty("user.dir");
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestOsgiConfigurationArea
+{
+  private File engineDir;
+  private File areasDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    engineDir = Files.createTempDirectory("engine").toFile();
+    engineDir.deleteOnExit();
+    areasDir = Files.createTempDirectory("areas").toFile();
+    areasDir.deleteOnExit();
+    write("system/plugins/ch.ivyteam.ivy.dataclasses.build_7.4.0.jar", "bundle");
+    write("system/configuration/config.ini", "osgi.bundles=...");
+    write("system/configuration/org.eclipse.osgi/1/0/.cp/lib/nested.jar", "engine state");
+  }
+
+  @Test
+  public void seedOnce() throws IOException
+  {
+    File area = OsgiConfigurationArea.acquire(areasDir, engineDir, new SystemStreamLog());
+    assertThat(area).isEqualTo(OsgiConfigurationArea.locate(areasDir, engineDir));
+    assertThat(new File(area, "config.ini")).hasContent("osgi.bundles=...");
+    assertThat(new File(area, "org.eclipse.osgi")).as("state of the engine is not copied").doesNotExist();
+
+    FileUtils.write(new File(area, "org.eclipse.osgi/1/0/.cp/lib/nested.jar"), "persisted", StandardCharsets.UTF_8);
+    assertThat(OsgiConfigurationArea.acquire(areasDir, engineDir, new SystemStreamLog()))
+      .as("reused by the same process").isEqualTo(area);
+    assertThat(OsgiConfigurationArea.getUnpackedBundleJars(area)).extracting(File::getName).containsOnly("nested.jar");
+  }
+
+  @Test
+  public void renewOnChangedPlugins() throws IOException
+  {
+    File area = OsgiConfigurationArea.locate(areasDir, engineDir);
+    write("system/plugins/ch.ivyteam.ivy.webservice_7.4.0.jar", "bundle");
+    assertThat(OsgiConfigurationArea.locate(areasDir, engineDir)).isNotEqualTo(area);
+  }
+
+  private void write(String path, String content) throws IOException
+  {
+    FileUtils.write(new File(engineDir, path), content, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestTransientBundleStart
+{
+  private List<Bundle> started;
+  private Bundle system;
+  private Bundle jdt;
+  private Bundle core;
+  private Bundle build;
+  private Bundle unrelated;
+  private Context context;
+
+  @Before
+  public void setUp() throws Exception
+  {
+    started = new ArrayList<>();
+    system = new Bundle(0, "org.eclipse.osgi", 0);
+    core = new Bundle(1, "ch.ivyteam.core", 4, system);
+    jdt = new Bundle(2, "org.eclipse.jdt.core", 4, core, system);
+    build = new Bundle(3, "ch.ivyteam.ivy.dataclasses.build", 4, jdt, core);
+    unrelated = new Bundle(4, "ch.ivyteam.ivy.webserver", 4, core);
+    context = new Context(1);
+  }
+
+  @Test
+  public void startRequiredBundles_beforeBundle() throws Exception
+  {
+    List<Object> result = new TransientBundleStart(new OsgiApiLoader()).start(context, build);
+
+    assertThat(result).containsExactly(core, jdt, build);
+    assertThat(started).containsExactly(core, jdt, build);
+    assertThat(build.startOptions)
+      .isEqualTo(TransientBundleStart.START_TRANSIENT | TransientBundleStart.START_ACTIVATION_POLICY);
+    assertThat(unrelated.startOptions).isNull();
+    assertThat(system.startOptions).isNull();
+  }
+
+  @Test
+  public void keepFrameworkStartLevel_lowerStartLevelOfRequiredBundles() throws Exception
+  {
+    new TransientBundleStart(new OsgiApiLoader()).start(context, build);
+
+    assertThat(context.frameworkStartLevel).isEqualTo(1);
+    assertThat(Arrays.asList(core, jdt, build)).extracting(bundle -> bundle.startLevel).containsOnly(1);
+    assertThat(unrelated.startLevel).isEqualTo(4);
+  }
+
+  @Test
+  public void skipFragments() throws Exception
+  {
+    Bundle nls = new Bundle(5, "org.eclipse.jdt.core.nl", 4, jdt);
+    nls.headers.put("Fragment-Host", jdt.name);
+    Bundle bundle = new Bundle(6, "consumer", 4, nls);
+
+    new TransientBundleStart(new OsgiApiLoader()).start(context, bundle);
+
+    assertThat(started).containsExactly(core, jdt, bundle);
+  }
+
+  @Test
+  public void failIfBundleIsNotResolvable() throws Exception
+  {
+    context.resolvable = false;
+    try
+    {
+      new TransientBundleStart(new OsgiApiLoader()).start(context, build);
+      failBecauseExceptionWasNotThrown(Exception.class);
+    }
+    catch (Exception ex)
+    {
+      assertThat(ex).hasMessageContaining("Failed to resolve bundle '" + build.name + "'");
+      assertThat(started).isEmpty();
+    }
+  }
+
+  /** provides the test doubles below under the names of the OSGi API */
+  private static class OsgiApiLoader extends ClassLoader
+  {
+    OsgiApiLoader()
+    {
+      super(TestTransientBundleStart.class.getClassLoader());
+    }
+
+    @Override
+    public Class<?> loadClass(String name) throws ClassNotFoundException
+    {
+      switch (name)
+      {
+        case TransientBundleStart.BUNDLE_START_LEVEL:
+          return BundleStartLevel.class;
+        case TransientBundleStart.FRAMEWORK_START_LEVEL:
+          return FrameworkStartLevel.class;
+        case TransientBundleStart.BUNDLE_WIRING:
+          return BundleWiring.class;
+        case TransientBundleStart.BUNDLE_WIRE:
+          return BundleWire.class;
+        case TransientBundleStart.FRAMEWORK_WIRING:
+          return FrameworkWiring.class;
+        default:
+          return super.loadClass(name);
+      }
+    }
+  }
+
+  public interface BundleStartLevel
+  {
+    int getStartLevel();
+    void setStartLevel(int startLevel);
+  }
+
+  public interface FrameworkStartLevel
+  {
+    int getStartLevel();
+  }
+
+  public interface BundleWiring
+  {
+    List<BundleWire> getRequiredWires(String namespace);
+    Object getBundle();
+  }
+
+  public interface BundleWire
+  {
+    BundleWiring getProviderWiring();
+  }
+
+  public interface FrameworkWiring
+  {
+    boolean resolveBundles(Collection<?> bundles);
+  }
+
+  public class Bundle
+  {
+    private final long id;
+    final String name;
+    private final List<Bundle> required;
+    final Dictionary<String, String> headers = new Hashtable<>();
+    int startLevel;
+    Integer startOptions;
+
+    Bundle(long id, String name, int startLevel, Bundle... required)
+    {
+      this.id = id;
+      this.name = name;
+      this.startLevel = startLevel;
+      this.required = Arrays.asList(required);
+    }
+
+    public long getBundleId()
+    {
+      return id;
+    }
+
+    public String getSymbolicName()
+    {
+      return name;
+    }
+
+    public Dictionary<String, String> getHeaders()
+    {
+      return headers;
+    }
+
+    public Object adapt(Class<?> type)
+    {
+      if (type == BundleStartLevel.class)
+      {
+        return new BundleStartLevel()
+          {
+            @Override
+            public int getStartLevel()
+            {
+              return startLevel;
+            }
+
+            @Override
+            public void setStartLevel(int level)
+            {
+              startLevel = level;
+            }
+          };
+      }
+      if (type == BundleWiring.class && context.resolvable)
+      {
+        return wiring();
+      }
+      if (id == 0 && type == FrameworkStartLevel.class)
+      {
+        return (FrameworkStartLevel) () -> context.frameworkStartLevel;
+      }
+      if (id == 0 && type == FrameworkWiring.class)
+      {
+        return (FrameworkWiring) bundles -> context.resolvable;
+      }
+      return null;
+    }
+
+    private BundleWiring wiring()
+    {
+      return new BundleWiring()
+        {
+          @Override
+          public List<BundleWire> getRequiredWires(String namespace)
+          {
+            return required.stream()
+              .map(provider -> (BundleWire) () -> provider.wiring())
+              .collect(Collectors.toList());
+          }
+
+          @Override
+          public Object getBundle()
+          {
+            return Bundle.this;
+          }
+        };
+    }
+
+    public void start(int options)
+    {
+      if (startLevel > context.frameworkStartLevel && (options & TransientBundleStart.START_TRANSIENT) != 0)
+      {
+        throw new IllegalStateException("Cannot start " + name + " transiently above the active start level");
+      }
+      startOptions = options;
+      started.add(this);
+    }
+
+    @Override
+    public String toString()
+    {
+      return name;
+    }
+  }
+
+  public class Context
+  {
+    final int frameworkStartLevel;
+    boolean resolvable = true;
+
+    Context(int frameworkStartLevel)
+    {
+      this.frameworkStartLevel = frameworkStartLevel;
+    }
+
+    public Object getBundle()
+    {
+      return system;
+    }
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+
+public class TestEngineCache
+{
+  private static final String SHA256 = "3f9a0c1b2d4e5f60718293a4b5c6d7e8f90a1b2c3d4e5f60718293a4b5c6d7e8";
+
+  private File cacheDir;
+  private EngineCache cache;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    cacheDir = Files.createTempDirectory("engineCache").toFile();
+    cacheDir.deleteOnExit();
+    cache = new EngineCache(cacheDir, new SystemStreamLog());
+  }
+
+  @Test
+  public void commit() throws Exception
+  {
+    File staging = createStagedEngine("7.4.0");
+    assertThat(EngineCache.isInternal(staging)).isTrue();
+
+    CachedEngine engine = cache.commit(staging, "7.4.0", SHA256);
+
+    assertThat(staging).doesNotExist();
+    assertThat(engine.getDirectory()).isEqualTo(new File(cacheDir, "7.4.0-3f9a0c1b2d4e"));
+    assertThat(engine.getSha256()).isEqualTo(SHA256);
+    assertThat(engine.getVersion().toString()).isEqualTo("7.4.0");
+    assertThat(new File(engine.getDirectory(), CachedEngine.MANIFEST))
+      .hasContent(EngineCache.sha256(new File(engine.getDirectory(), "bin/AxonIvyEngine")) + "  bin/AxonIvyEngine\n"
+              + EngineCache.sha256(new File(engine.getDirectory(), pluginPath("7.4.0"))) + "  " + pluginPath("7.4.0"));
+  }
+
+  @Test
+  public void find() throws Exception
+  {
+    assertThat(cache.find(SHA256)).isNull();
+    cache.commit(createStagedEngine("7.4.0"), "7.4.0", SHA256);
+
+    CachedEngine engine = cache.find(SHA256);
+    assertThat(engine.getDirectory().getName()).isEqualTo("7.4.0-3f9a0c1b2d4e");
+    assertThat(cache.find(SHA256.replace('3', '4'))).isNull();
+  }
+
+  @Test
+  public void commitOfAnInstalledArchiveKeepsTheInstalledEngine() throws Exception
+  {
+    CachedEngine installed = cache.commit(createStagedEngine("7.4.0"), "7.4.0", SHA256);
+    File marker = new File(installed.getDirectory(), CachedEngine.MARKER);
+    marker.setLastModified(1_500_000_000_000L);
+
+    File secondStaging = createStagedEngine("7.4.0");
+    CachedEngine engine = cache.commit(secondStaging, "7.4.0", SHA256);
+
+    assertThat(engine.getDirectory()).isEqualTo(installed.getDirectory());
+    assertThat(marker.lastModified()).isEqualTo(1_500_000_000_000L);
+    assertThat(secondStaging).doesNotExist();
+  }
+
+  @Test
+  public void verify() throws Exception
+  {
+    CachedEngine engine = cache.commit(createStagedEngine("7.4.0"), "7.4.0", SHA256);
+    assertThat(engine.verify()).isEmpty();
+
+    FileUtils.write(new File(engine.getDirectory(), "bin/AxonIvyEngine"), "modified");
+    new File(engine.getDirectory(), pluginPath("7.4.0")).delete();
+
+    assertThat(engine.verify()).containsExactly("bin/AxonIvyEngine", pluginPath("7.4.0"));
+  }
+
+  private File createStagedEngine(String version) throws IOException
+  {
+    File staging = cache.createStagingDirectory();
+    File plugin = new File(staging, pluginPath(version));
+    plugin.getParentFile().mkdirs();
+    FileUtils.write(plugin, "plugin");
+    FileUtils.write(new File(staging, "bin/AxonIvyEngine"), "#!/bin/sh");
+    return staging;
+  }
+
+  private static String pluginPath(String version)
+  {
+    return OsgiDir.PLUGINS + "/ch.ivyteam.util_" + version + ".51869.jar";
+  }
+
+}
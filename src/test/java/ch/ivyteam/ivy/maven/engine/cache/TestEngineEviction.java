@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEngineEviction
+{
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    cacheDir = Files.createTempDirectory("engineCache").toFile();
+    cacheDir.deleteOnExit();
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() throws Exception
+  {
+    File oldest = createEngine("7.1.0", 3, 10);
+    File recent = createEngine("7.2.0", 1, 10);
+    File older = createEngine("7.3.0", 2, 10);
+
+    EngineEviction eviction = new EngineEviction(cacheDir, new SystemStreamLog());
+    assertThat(eviction.evict(0, 0)).as("no budget").isEmpty();
+    assertThat(eviction.evict(0, 2)).containsExactly(oldest);
+    assertThat(eviction.evict(0, 1)).containsExactly(older);
+
+    assertThat(cacheDir.listFiles(file -> !EngineCache.isInternal(file))).containsOnly(recent);
+    assertThat(new File(cacheDir, EngineUsage.USAGE_DIR + "/" + oldest.getName())).doesNotExist();
+  }
+
+  @Test
+  public void evictBeyondSize() throws Exception
+  {
+    File oldest = createEngine("7.1.0", 3, 1000);
+    File older = createEngine("7.2.0", 2, 1000);
+    File recent = createEngine("7.3.0", 1, 1000);
+
+    assertThat(new EngineEviction(cacheDir, new SystemStreamLog()).evict(2500, 0)).containsExactly(oldest);
+    assertThat(older).exists();
+    assertThat(recent).exists();
+  }
+
+  @Test
+  public void neverEvictEngineInUse() throws Exception
+  {
+    File used = createEngine("7.1.0", 3, 10);
+    File older = createEngine("7.2.0", 2, 10);
+    File recent = createEngine("7.3.0", 1, 10);
+    long lastUse = EngineUsage.getLastUse(used);
+
+    assertThat(EngineUsage.record(used)).isTrue();
+    assertThat(EngineUsage.getLastUse(used)).isGreaterThan(lastUse);
+    new File(cacheDir, EngineUsage.USAGE_DIR + "/" + used.getName()).setLastModified(lastUse);
+
+    assertThat(new EngineEviction(cacheDir, new SystemStreamLog()).evict(0, 1)).containsExactly(older, recent);
+    assertThat(used).exists();
+  }
+
+  @Test
+  public void evictIarJarsWithLastEngineOfVersion() throws Exception
+  {
+    File oldest = createEngine("7.1.0", 3, 10);
+    File older = createEngine("7.1.0-copy", 2, 10);
+    File recent = createEngine("7.2.0", 1, 10);
+    EngineVersionIndex index = EngineVersionIndex.of(cacheDir, new SystemStreamLog());
+    index.put(oldest, new DefaultArtifactVersion("7.1.0"));
+    index.put(older, new DefaultArtifactVersion("7.1.0"));
+    index.put(recent, new DefaultArtifactVersion("7.2.0"));
+    File iarJars = new File(cacheDir, IarJarCache.DIRECTORY);
+    File iarJarOf71 = new File(iarJars, StringUtils.repeat('a', 64) + "-7.1.0");
+    File iarJarOf72 = new File(iarJars, StringUtils.repeat('a', 64) + "-7.2.0");
+    FileUtils.touch(new File(iarJarOf71, "base.iar.jar"));
+    FileUtils.touch(new File(iarJarOf72, "base.iar.jar"));
+
+    EngineEviction eviction = new EngineEviction(cacheDir, new SystemStreamLog());
+    assertThat(eviction.evict(0, 2)).containsExactly(oldest);
+    assertThat(iarJarOf71).as("still used by another cached engine of the version").exists();
+
+    assertThat(eviction.evict(0, 1)).containsExactly(older);
+    assertThat(iarJarOf71).doesNotExist();
+    assertThat(iarJarOf72).exists();
+  }
+
+  @Test
+  public void recordUsageOfEvictedEngine() throws Exception
+  {
+    File evicted = new File(cacheDir, "7.1.0");
+    assertThat(EngineUsage.record(evicted)).isFalse();
+  }
+
+  private File createEngine(String name, int daysSinceLastUse, int size) throws IOException
+  {
+    File engine = new File(cacheDir, name);
+    FileUtils.write(new File(engine, "system/plugins/lib.jar"), StringUtils.repeat('x', size));
+    engine.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(daysSinceLastUse));
+    return engine;
+  }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestEngineLinker
+{
+  private File workDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    workDir = Files.createTempDirectory("link").toFile();
+    workDir.deleteOnExit();
+  }
+
+  @Test
+  public void link() throws Exception
+  {
+    File engine = new File(workDir, "cache/7.4.0-3f9a0c1b2d4e");
+    write(engine, "system/plugins/ch.ivyteam.util_7.4.0.jar");
+    write(engine, "lib/shared/driver.jar");
+    write(engine, "configuration/ivy.yaml");
+    write(engine, CachedEngine.MARKER);
+    write(engine, CachedEngine.MANIFEST);
+    File target = new File(workDir, "workspace/engine");
+
+    EngineLinker linker = new EngineLinker(new SystemStreamLog());
+    linker.link(engine, target);
+
+    assertThat(linker.getLinkedFiles()).isEqualTo(2);
+    assertThat(linker.getCopiedFiles()).isEqualTo(1);
+    assertThat(isLinked(engine, target, "system/plugins/ch.ivyteam.util_7.4.0.jar")).isTrue();
+    assertThat(isLinked(engine, target, "lib/shared/driver.jar")).isTrue();
+    assertThat(new File(target, "configuration/ivy.yaml")).hasContent("configuration/ivy.yaml");
+    assertThat(isLinked(engine, target, "configuration/ivy.yaml")).as("mutable files are copied").isFalse();
+    assertThat(new File(target, CachedEngine.MARKER)).doesNotExist();
+    assertThat(new File(target, CachedEngine.MANIFEST)).doesNotExist();
+  }
+
+  private static boolean isLinked(File engine, File target, String path) throws IOException
+  {
+    return Files.isSameFile(new File(engine, path).toPath(), new File(target, path).toPath());
+  }
+
+  private static void write(File dir, String path) throws IOException
+  {
+    FileUtils.write(new File(dir, path), path);
+  }
+
+}
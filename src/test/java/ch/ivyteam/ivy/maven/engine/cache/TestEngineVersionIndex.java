@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.maven.artifact.versioning.ArtifactVersion;
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ivyteam.ivy.maven.engine.EngineClassLoaderFactory.OsgiDir;
+
+public class TestEngineVersionIndex
+{
+  private File cacheDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    cacheDir = Files.createTempDirectory("engineCache").toFile();
+    cacheDir.deleteOnExit();
+  }
+
+  @Test
+  public void evaluateEngineDirectories() throws Exception
+  {
+    File osgiEngine = createEngine("7.2.0", "7.2.0");
+    File nonOsgiEngine = new File(cacheDir, "6.0.0");
+    nonOsgiEngine.mkdirs();
+    new File(cacheDir, ".staging-1").mkdirs();
+
+    Map<File, ArtifactVersion> versions = new EngineVersionIndex(cacheDir, new SystemStreamLog()).getEngineVersions();
+
+    assertThat(versions).containsOnly(entry(osgiEngine, new DefaultArtifactVersion("7.2.0")), entry(nonOsgiEngine, null));
+    assertThat(new File(cacheDir, ".index/versions.properties")).exists();
+  }
+
+  @Test
+  public void trustIndexedVersionOfUnmodifiedEngine() throws Exception
+  {
+    File engine = createEngine("7.2.0", "7.2.0");
+    new EngineVersionIndex(cacheDir, new SystemStreamLog()).getEngineVersions();
+
+    File plugins = new File(engine, OsgiDir.PLUGINS);
+    long unmodified = plugins.lastModified();
+    new File(plugins, pluginName("7.2.0")).renameTo(new File(plugins, pluginName("7.3.0")));
+    plugins.setLastModified(unmodified);
+
+    assertThat(new EngineVersionIndex(cacheDir, new SystemStreamLog()).getEngineVersions())
+      .as("read from persistent index")
+      .containsOnly(entry(engine, new DefaultArtifactVersion("7.2.0")));
+
+    plugins.setLastModified(unmodified + 2000);
+    assertThat(new EngineVersionIndex(cacheDir, new SystemStreamLog()).getEngineVersions())
+      .as("modified engine is evaluated again")
+      .containsOnly(entry(engine, new DefaultArtifactVersion("7.3.0")));
+  }
+
+  @Test
+  public void detectAddedAndRemovedEngines() throws Exception
+  {
+    EngineVersionIndex index = new EngineVersionIndex(cacheDir, new SystemStreamLog());
+    File oldEngine = createEngine("7.1.0", "7.1.0");
+    assertThat(index.getEngineVersions()).containsOnlyKeys(oldEngine);
+
+    File newEngine = createEngine("7.2.0", "7.2.0");
+    oldEngine.renameTo(new File(cacheDir, "7.1.0-old"));
+    cacheDir.setLastModified(cacheDir.lastModified() + 2000);
+
+    assertThat(index.getEngineVersions()).containsOnlyKeys(newEngine, new File(cacheDir, "7.1.0-old"));
+  }
+
+  @Test
+  public void sessionIndexIsShared() throws Exception
+  {
+    assertThat(EngineVersionIndex.of(cacheDir, new SystemStreamLog()))
+      .isSameAs(EngineVersionIndex.of(new File(cacheDir, "../" + cacheDir.getName()), new SystemStreamLog()));
+  }
+
+  private File createEngine(String dirName, String version) throws IOException
+  {
+    File engine = new File(cacheDir, dirName);
+    File plugin = new File(engine, OsgiDir.PLUGINS + "/" + pluginName(version));
+    plugin.getParentFile().mkdirs();
+    plugin.createNewFile();
+    return engine;
+  }
+
+  private static String pluginName(String version)
+  {
+    return "ch.ivyteam.util_" + version + ".51869.jar";
+  }
+
+}
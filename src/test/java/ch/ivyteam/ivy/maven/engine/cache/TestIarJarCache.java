@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+
+public class TestIarJarCache
+{
+  private File cacheDir;
+  private File workspace;
+  private List<File> converted;
+  private int engineCalls;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    cacheDir = Files.createTempDirectory("engineCache").toFile();
+    cacheDir.deleteOnExit();
+    workspace = Files.createTempDirectory("workspace").toFile();
+    workspace.deleteOnExit();
+    converted = new ArrayList<>();
+    engineCalls = 0;
+  }
+
+  @Test
+  public void convertOnlyOnce() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    File other = createIar("other.iar", "other");
+    IarJarCache cache = new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog());
+
+    List<File> jars = cache.getIarJars(Arrays.asList(base, other), new FakeBuilder());
+    assertThat(converted).containsExactly(base, other);
+    assertThat(jars).extracting(File::getName).containsExactly("base.iar.jar", "other.iar.jar");
+    assertThat(jars.get(0).getParentFile().getParentFile()).isEqualTo(new File(cacheDir, IarJarCache.DIRECTORY));
+
+    File copy = createIar("copy-of-base.iar", "base");
+    assertThat(cache.getIarJars(Arrays.asList(copy, other), new FakeBuilder())).isEqualTo(jars);
+    assertThat(converted).as("same content is converted only once").containsExactly(base, other);
+  }
+
+  @Test
+  public void convertMissingInOneEngineCall() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    File other = createIar("other.iar", "other");
+    File third = createIar("third.iar", "third");
+    IarJarCache cache = new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog());
+    cache.getIarJars(Arrays.asList(other), new FakeBuilder());
+
+    List<File> jars = cache.getIarJars(Arrays.asList(base, other, third), new FakeBuilder());
+    assertThat(jars).extracting(File::getName).containsExactly("base.iar.jar", "other.iar.jar", "third.iar.jar");
+    assertThat(converted).containsExactly(other, base, third);
+    assertThat(engineCalls).isEqualTo(2);
+  }
+
+  @Test
+  public void assignReorderedJarsByName() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    File other = createIar("other.iar", "other");
+    IarJarCache cache = new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog());
+
+    FakeBuilder reversing = new FakeBuilder()
+    {
+      @Override
+      public List<File> createIarJars(List<File> iarDependencies) throws Exception
+      {
+        List<File> jars = new ArrayList<>(super.createIarJars(iarDependencies));
+        Collections.reverse(jars);
+        return jars;
+      }
+    };
+    List<File> jars = cache.getIarJars(Arrays.asList(base, other), reversing);
+    assertThat(jars).extracting(File::getName).containsExactly("base.iar.jar", "other.iar.jar");
+    assertThat(new File(cacheDir, IarJarCache.DIRECTORY + "/" + EngineCache.sha256(base) + "-7.4.0/base.iar.jar")).exists();
+    assertThat(engineCalls).isEqualTo(1);
+  }
+
+  @Test
+  public void convertOneByOneIfJarsAreNotNamedAfterIars() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    File other = createIar("other.iar", "other");
+    IarJarCache cache = new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog());
+
+    FakeBuilder anonymous = new FakeBuilder()
+    {
+      @Override
+      public List<File> createIarJars(List<File> iarDependencies) throws Exception
+      {
+        if (iarDependencies.size() == 1)
+        {
+          return super.createIarJars(iarDependencies);
+        }
+        engineCalls++;
+        return Arrays.asList(new File(workspace, "jars/a.jar"), new File(workspace, "jars/b.jar"));
+      }
+    };
+    List<File> jars = cache.getIarJars(Arrays.asList(base, other), anonymous);
+    assertThat(jars).extracting(File::getName).containsExactly("base.iar.jar", "other.iar.jar");
+    assertThat(engineCalls).isEqualTo(3);
+  }
+
+  @Test
+  public void evictEngineVersion() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    new IarJarCache(cacheDir, "7.3.0", new SystemStreamLog()).getIarJars(Arrays.asList(base), new FakeBuilder());
+    new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog()).getIarJars(Arrays.asList(base), new FakeBuilder());
+
+    assertThat(IarJarCache.evict(cacheDir, Collections.singleton("7.3.0"), new SystemStreamLog())).isEqualTo(1);
+    assertThat(new File(cacheDir, IarJarCache.DIRECTORY).list())
+      .containsOnly(EngineCache.sha256(base) + "-7.4.0");
+  }
+
+  @Test
+  public void convertForOtherEngineVersion() throws Exception
+  {
+    File base = createIar("base.iar", "base");
+    new IarJarCache(cacheDir, "7.3.0", new SystemStreamLog()).getIarJars(Arrays.asList(base), new FakeBuilder());
+    new IarJarCache(cacheDir, "7.4.0", new SystemStreamLog()).getIarJars(Arrays.asList(base), new FakeBuilder());
+    assertThat(converted).containsExactly(base, base);
+  }
+
+  private File createIar(String name, String content) throws IOException
+  {
+    File iar = new File(workspace, name);
+    FileUtils.write(iar, content, StandardCharsets.UTF_8);
+    return iar;
+  }
+
+  private class FakeBuilder implements ProjectBuilder
+  {
+    @Override
+    public List<File> createIarJars(List<File> iarDependencies) throws Exception
+    {
+      engineCalls++;
+      List<File> jars = new ArrayList<>();
+      for (File iar : iarDependencies)
+      {
+        converted.add(iar);
+        File jar = new File(workspace, "jars/" + iar.getName() + ".jar");
+        FileUtils.write(jar, "jar of " + iar.getName(), StandardCharsets.UTF_8);
+        jars.add(jar);
+      }
+      return jars;
+    }
+
+    @Override
+    public Map<String, Object> compile(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> validate(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> testCompile(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      throw new UnsupportedOperationException();
+    }
+  }
+
+}
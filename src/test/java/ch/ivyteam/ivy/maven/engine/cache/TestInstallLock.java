@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestInstallLock
+{
+  private File lockFile;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    File dir = Files.createTempDirectory("lock").toFile();
+    dir.deleteOnExit();
+    lockFile = new File(dir, ".install.lock");
+  }
+
+  @Test
+  public void ownerIsRecordedWhileLocked() throws Exception
+  {
+    try(InstallLock lock = InstallLock.acquire(lockFile, 1000, new SystemStreamLog()))
+    {
+      assertThat(lock.getStaleOwner()).isNull();
+      assertThat(FileUtils.readFileToString(lockFile)).contains("@");
+    }
+    assertThat(lockFile).exists().hasContent("");
+  }
+
+  @Test
+  public void timeoutWhileLockedByOtherThread() throws Exception
+  {
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> holder = CompletableFuture.runAsync(() -> {
+      try(InstallLock lock = InstallLock.acquire(lockFile, 1000, new SystemStreamLog()))
+      {
+        locked.countDown();
+        release.await();
+      }
+      catch (Exception ex)
+      {
+        throw new RuntimeException(ex);
+      }
+    });
+    assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+    try
+    {
+      InstallLock.acquire(lockFile, 200, new SystemStreamLog());
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageStartingWith("Timed out after 200ms");
+    }
+    finally
+    {
+      release.countDown();
+      holder.get(5, TimeUnit.SECONDS);
+    }
+
+    try(InstallLock lock = InstallLock.acquire(lockFile, 1000, new SystemStreamLog()))
+    {
+      assertThat(lock.getStaleOwner()).isNull();
+    }
+  }
+
+  @Test
+  public void staleOwnerIsDetected() throws Exception
+  {
+    FileUtils.write(lockFile, "4711@buildagent since 2018-06-01T10:15:30Z");
+
+    try(InstallLock lock = InstallLock.acquire(lockFile, 1000, new SystemStreamLog()))
+    {
+      assertThat(lock.getStaleOwner()).isEqualTo("4711@buildagent since 2018-06-01T10:15:30Z");
+    }
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ivyteam.ivy.maven.engine.unpack.EngineArchiveExtractor;
+import ch.ivyteam.ivy.maven.engine.unpack.ExtractionProfile;
+
+public class TestPartialEngine
+{
+  private static final String PLUGIN = "system/plugins/ch.ivyteam.util_7.4.0.jar";
+  private static final String LAUNCHER = "bin/AxonIvyEngine";
+
+  private File workDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    workDir = Files.createTempDirectory("partial").toFile();
+    workDir.deleteOnExit();
+  }
+
+  @Test
+  public void complete() throws Exception
+  {
+    File engine = new File(workDir, "engine");
+    File archive = createZip(new File(workDir, "engine.zip"), PLUGIN, LAUNCHER);
+    new EngineArchiveExtractor(archive, 1, new SystemStreamLog()).extract(engine, ExtractionProfile.COMPILE);
+    PartialEngine.record(engine, ExtractionProfile.COMPILE, archive);
+
+    assertThat(new File(engine, PLUGIN)).exists();
+    assertThat(new File(engine, LAUNCHER)).doesNotExist();
+    assertThat(new File(engine, PartialEngine.ARCHIVE)).exists();
+    assertThat(archive).as("moved into the engine").doesNotExist();
+
+    PartialEngine.read(engine).complete(2, new SystemStreamLog());
+
+    assertThat(new File(engine, LAUNCHER)).hasContent(LAUNCHER);
+    assertThat(PartialEngine.read(engine)).isNull();
+    assertThat(engine.list()).containsOnly("system", "bin", PartialEngine.LOCK);
+  }
+
+  @Test
+  public void completeCachedEngine() throws Exception
+  {
+    File cacheDir = new File(workDir, "cache");
+    EngineCache cache = new EngineCache(cacheDir, new SystemStreamLog());
+    File staging = cache.createStagingDirectory();
+    File archive = createZip(new File(workDir, "engine.zip"), PLUGIN, LAUNCHER);
+    String sha256 = EngineCache.sha256(archive);
+    new EngineArchiveExtractor(archive, 1, new SystemStreamLog()).extract(staging, ExtractionProfile.COMPILE);
+    PartialEngine.record(staging, ExtractionProfile.COMPILE, archive);
+    CachedEngine cached = cache.commit(staging, "7.4.0", sha256);
+
+    assertThat(Files.readAllLines(new File(cached.getDirectory(), CachedEngine.MANIFEST).toPath()))
+      .as("the kept archive is not part of the engine")
+      .hasSize(1);
+
+    PartialEngine.read(cached.getDirectory()).complete(1, new SystemStreamLog());
+
+    assertThat(Files.readAllLines(new File(cached.getDirectory(), CachedEngine.MANIFEST).toPath())).hasSize(2);
+    assertThat(CachedEngine.read(cached.getDirectory()).verify()).isEmpty();
+  }
+
+  private static File createZip(File zipFile, String... entries) throws IOException
+  {
+    try(ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile)))
+    {
+      for (String name : entries)
+      {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(name.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+      }
+    }
+    return zipFile;
+  }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.daemon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ch.ivyteam.ivy.maven.engine.ProjectBuilder;
+
+public class TestBuildDaemon
+{
+  private File daemonDir;
+  private Thread daemonThread;
+  private List<File> workspaces = Collections.synchronizedList(new ArrayList<>());
+
+  @Before
+  public void setUp() throws IOException
+  {
+    File daemonsDir = Files.createTempDirectory("buildDaemons").toFile();
+    daemonsDir.deleteOnExit();
+    daemonDir = new File(daemonsDir, "daemon");
+    PrivateDirectory.create(daemonDir);
+  }
+
+  @After
+  public void tearDown() throws Exception
+  {
+    if (daemonThread != null && daemonThread.isAlive())
+    {
+      client(new File("workspace")).stop();
+      daemonThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+  }
+
+  @Test
+  public void buildInDaemon() throws Exception
+  {
+    startDaemon(TimeUnit.MINUTES.toMillis(1));
+    File workspace = new File("workspace");
+    BuildDaemonClient client = client(workspace);
+
+    List<File> iarJars = client.createIarJars(Arrays.asList(new File("base.iar")));
+    assertThat(iarJars).containsExactly(new File("base.iar.jar"));
+
+    Map<String, String> options = new HashMap<>();
+    options.put("encoding", "UTF-8");
+    Map<String, Object> result = client.testCompile(new File("project"), iarJars, options);
+    assertThat(result).containsEntry("testOutputDir", new File("project", "classes-test").toString()).containsEntry("encoding", "UTF-8");
+    assertThat(workspaces).containsOnly(workspace);
+  }
+
+  @Test
+  public void failureInDaemon() throws Exception
+  {
+    startDaemon(TimeUnit.MINUTES.toMillis(1));
+    try
+    {
+      client(new File("workspace")).compile(new File("project"), Collections.emptyList(), Collections.emptyMap());
+      fail("compile failure must be propagated to the client");
+    }
+    catch (Exception ex)
+    {
+      assertThat(ex.getMessage()).contains("COMPILE").contains("IllegalStateException: broken project");
+    }
+  }
+
+  @Test
+  public void rejectInvalidToken() throws Exception
+  {
+    startDaemon(TimeUnit.MINUTES.toMillis(1));
+    DaemonState state = DaemonState.read(daemonDir);
+    try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), state.port))
+    {
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      out.writeUTF("guessed");
+      out.flush();
+      assertThat(socket.getInputStream().read()).as("closed before any object is read").isEqualTo(-1);
+    }
+    assertThat(daemonThread.isAlive()).isTrue();
+    assertThat(client(new File("workspace")).createIarJars(Collections.emptyList())).isEmpty();
+  }
+
+  @Test
+  public void privateDaemonDirectory() throws Exception
+  {
+    assumeTrue(daemonDir.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+    assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(daemonDir.toPath()))).isEqualTo("rwx------");
+    assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(daemonDir.getParentFile().toPath()))).isEqualTo("rwx------");
+
+    File linked = new File(daemonDir.getParentFile(), "linked");
+    Files.createSymbolicLink(linked.toPath(), daemonDir.toPath());
+    try
+    {
+      PrivateDirectory.create(linked);
+      fail("symbolic links must be refused");
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageContaining("is not a directory");
+    }
+  }
+
+  @Test
+  public void stopAllDaemons() throws Exception
+  {
+    startDaemon(TimeUnit.MINUTES.toMillis(1));
+
+    assertThat(BuildDaemonClient.stopAll(daemonDir.getParentFile(), new SystemStreamLog())).isEqualTo(1);
+    daemonThread.join(TimeUnit.SECONDS.toMillis(10));
+    assertThat(daemonThread.isAlive()).isFalse();
+    assertThat(BuildDaemonClient.stopAll(daemonDir.getParentFile(), new SystemStreamLog())).isEqualTo(0);
+  }
+
+  @Test
+  public void exitWhenIdle() throws Exception
+  {
+    startDaemon(500);
+    assertThat(new File(daemonDir, DaemonState.FILE)).exists();
+
+    daemonThread.join(TimeUnit.SECONDS.toMillis(10));
+    assertThat(daemonThread.isAlive()).isFalse();
+    assertThat(new File(daemonDir, DaemonState.FILE)).doesNotExist();
+  }
+
+  private BuildDaemonClient client(File workspace)
+  {
+    return new BuildDaemonClient(daemonDir, new File("engine"), Collections.emptyList(), null, false, workspace, 60, 60, new SystemStreamLog());
+  }
+
+  private void startDaemon(long idleTimeoutMillis) throws Exception
+  {
+    BuildDaemon daemon = new BuildDaemon(daemonDir, idleTimeoutMillis, workspace -> {
+      workspaces.add(workspace);
+      return new FakeBuilder();
+    }, null);
+    daemonThread = new Thread(() -> {
+      try
+      {
+        daemon.serve(new SystemStreamLog());
+      }
+      catch (IOException ex)
+      {
+        throw new RuntimeException(ex);
+      }
+    });
+    daemonThread.start();
+    long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (!new File(daemonDir, DaemonState.FILE).exists() && System.currentTimeMillis() < deadline)
+    {
+      Thread.sleep(50);
+    }
+  }
+
+  private static class FakeBuilder implements ProjectBuilder
+  {
+    @Override
+    public List<File> createIarJars(List<File> iarDependencies)
+    {
+      List<File> jars = new ArrayList<>();
+      iarDependencies.forEach(iar -> jars.add(new File(iar.getPath() + ".jar")));
+      return jars;
+    }
+
+    @Override
+    public Map<String, Object> compile(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      throw new IllegalStateException("broken project");
+    }
+
+    @Override
+    public Map<String, Object> validate(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      return new HashMap<>();
+    }
+
+    @Override
+    public Map<String, Object> testCompile(File projectDirToBuild, List<File> iarJars, Map<String, String> options)
+    {
+      Map<String, Object> result = new HashMap<>(options);
+      result.put("testOutputDir", new File(projectDirToBuild, "classes-test"));
+      return result;
+    }
+  }
+
+}
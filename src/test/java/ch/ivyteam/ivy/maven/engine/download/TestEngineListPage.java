@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.junit.Test;
+
+public class TestEngineListPage
+{
+  private static final String HTML =
+          "<a href=\"7.0.0/AxonIvyEngine7.0.0.46949_Windows_x64.zip\">windows</a>"
+        + "<a href='7.0.0/AxonIvyEngine7.0.0.46949_Slim_All_x64.zip'>slim</a>"
+        + "<a href=\"https://download.axonivy.com/7.1.0/AxonIvyEngine7.1.0.51869_Slim_All_x64.zip\">slim</a>"
+        + "<a href=\"7.1.0/AxonIvyDesigner7.1.0.51869_Windows_x64.zip\">designer</a>";
+
+  @Test
+  public void findEngineUrl() throws Exception
+  {
+    URL pageUrl = new URL("http://localhost/download/maven.html");
+    EngineListPage page = EngineListPage.parse(pageUrl, IOUtils.toInputStream(HTML));
+
+    assertThat(page.findEngineUrl(VersionRange.createFromVersionSpec("[7.0.0,8.0.0)"), "Slim_All_x64"))
+      .isEqualTo(new URL("http://localhost/download/7.0.0/AxonIvyEngine7.0.0.46949_Slim_All_x64.zip"));
+    assertThat(page.findEngineUrl(VersionRange.createFromVersionSpec("[7.1.0]"), "Slim_All_x64"))
+      .isEqualTo(new URL("https://download.axonivy.com/7.1.0/AxonIvyEngine7.1.0.51869_Slim_All_x64.zip"));
+    assertThat(page.findEngineUrl(VersionRange.createFromVersionSpec("[7.1.0]"), "Windows_x64")).isNull();
+  }
+
+  @Test
+  public void storeAndLoad() throws Exception
+  {
+    URL pageUrl = new URL("http://localhost/download/maven.html");
+    EngineListPage page = EngineListPage.parse(pageUrl, IOUtils.toInputStream(HTML));
+    page.setValidators("\"abc\"", 1_500_000_000_000L);
+    File file = new File(Files.createTempDirectory("cache").toFile(), ".index/engine-list.properties");
+    file.getParentFile().getParentFile().deleteOnExit();
+
+    page.store(file);
+    EngineListPage loaded = EngineListPage.load(file, pageUrl);
+
+    assertThat(loaded.getETag()).isEqualTo("\"abc\"");
+    assertThat(loaded.getLastModified()).isEqualTo(1_500_000_000_000L);
+    assertThat(loaded.isFresh(TimeUnit.MINUTES.toMillis(1))).isTrue();
+    assertThat(loaded.findEngineUrl(VersionRange.createFromVersionSpec("[7.1.0]"), "Slim_All_x64"))
+      .isEqualTo(new URL("https://download.axonivy.com/7.1.0/AxonIvyEngine7.1.0.51869_Slim_All_x64.zip"));
+    assertThat(EngineListPage.load(file, new URL("http://localhost/other.html")))
+      .as("stored page of another url")
+      .isNull();
+  }
+
+  @Test
+  public void isFresh() throws Exception
+  {
+    EngineListPage page = EngineListPage.parse(new URL("http://localhost/"), IOUtils.toInputStream(HTML));
+    assertThat(page.isFresh(TimeUnit.HOURS.toMillis(1))).isTrue();
+    assertThat(page.isFresh(0)).isFalse();
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+public class TestSegmentedDownload
+{
+  private static final int CHUNK_SIZE = 16_384;
+
+  private HttpServer server;
+  private byte[] content;
+  private URL url;
+  private File downloadDir;
+  private final List<String> requestedRanges = Collections.synchronizedList(new ArrayList<>());
+  private volatile boolean supportRanges = true;
+  private volatile boolean unknownLength = false;
+  private volatile long dropChunkStartingAt = -1;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    content = new byte[100_000];
+    new Random(42).nextBytes(content);
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/engine.zip", this::serve);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    url = new URL("http://localhost:" + server.getAddress().getPort() + "/engine.zip");
+    downloadDir = Files.createTempDirectory("download").toFile();
+    downloadDir.deleteOnExit();
+  }
+
+  @After
+  public void tearDown()
+  {
+    server.stop(0);
+  }
+
+  @Test
+  public void downloadInConcurrentChunks() throws Exception
+  {
+    File target = new File(downloadDir, "engine.zip");
+    File partsDir = new File(downloadDir, "engine.zip" + SegmentedDownload.PARTS_DIR_SUFFIX);
+
+    new SegmentedDownload(url, 4, CHUNK_SIZE, new SystemStreamLog()).download(partsDir, target);
+
+    assertThat(Files.readAllBytes(target.toPath())).isEqualTo(content);
+    assertThat(requestedRanges)
+      .as("one probe plus one request per chunk")
+      .hasSize(1 + 7)
+      .contains("bytes=0-0", "bytes=0-16383", "bytes=98304-99999");
+    assertThat(partsDir).as("parts are removed after a complete download").doesNotExist();
+  }
+
+  @Test
+  public void resumeIncompleteChunks() throws Exception
+  {
+    File target = new File(downloadDir, "engine.zip");
+    File partsDir = new File(downloadDir, "engine.zip" + SegmentedDownload.PARTS_DIR_SUFFIX);
+    dropChunkStartingAt = 3 * CHUNK_SIZE;
+    try
+    {
+      new SegmentedDownload(url, 4, CHUNK_SIZE, new SystemStreamLog()).download(partsDir, target);
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageContaining("bytes 49152-65535");
+    }
+    assertThat(Files.readAllBytes(new File(partsDir, "chunk-0").toPath()))
+      .as("completed chunks are kept")
+      .isEqualTo(Arrays.copyOf(content, CHUNK_SIZE));
+
+    dropChunkStartingAt = -1;
+    requestedRanges.clear();
+    new SegmentedDownload(url, 4, CHUNK_SIZE, new SystemStreamLog()).download(partsDir, target);
+
+    assertThat(Files.readAllBytes(target.toPath())).isEqualTo(content);
+    assertThat(requestedRanges)
+      .as("only the missing bytes of the dropped chunk are requested again")
+      .containsExactly("bytes=0-0", "bytes=" + (3 * CHUNK_SIZE + 3 * 100) + "-65535");
+  }
+
+  @Test
+  public void singleConnectionIfRangesAreNotSupported() throws Exception
+  {
+    supportRanges = false;
+    File target = new File(downloadDir, "engine.zip");
+    File partsDir = new File(downloadDir, "engine.zip" + SegmentedDownload.PARTS_DIR_SUFFIX);
+
+    new SegmentedDownload(url, 4, CHUNK_SIZE, new SystemStreamLog()).download(partsDir, target);
+
+    assertThat(Files.readAllBytes(target.toPath())).isEqualTo(content);
+    assertThat(requestedRanges).hasSize(1);
+    assertThat(partsDir).doesNotExist();
+  }
+
+  @Test
+  public void singleConnectionIfLengthIsUnknown() throws Exception
+  {
+    unknownLength = true;
+    File target = new File(downloadDir, "engine.zip");
+    File partsDir = new File(downloadDir, "engine.zip" + SegmentedDownload.PARTS_DIR_SUFFIX);
+
+    new SegmentedDownload(url, 4, CHUNK_SIZE, new SystemStreamLog()).download(partsDir, target);
+
+    assertThat(Files.readAllBytes(target.toPath()))
+      .as("not the partial content of the probe")
+      .isEqualTo(content);
+    assertThat(requestedRanges).containsExactly("bytes=0-0", null);
+    assertThat(partsDir).doesNotExist();
+  }
+
+  @Test
+  public void parseTotalLength()
+  {
+    assertThat(SegmentedDownload.parseTotalLength("bytes 0-0/1234")).isEqualTo(1234);
+    assertThat(SegmentedDownload.parseTotalLength("bytes 0-0/*")).isEqualTo(-1);
+    assertThat(SegmentedDownload.parseTotalLength(null)).isEqualTo(-1);
+  }
+
+  private void serve(HttpExchange exchange) throws IOException
+  {
+    String range = exchange.getRequestHeaders().getFirst("Range");
+    requestedRanges.add(range);
+    try(OutputStream body = exchange.getResponseBody())
+    {
+      if (!supportRanges || range == null)
+      {
+        exchange.sendResponseHeaders(200, content.length);
+        body.write(content);
+        return;
+      }
+
+      long start = Long.parseLong(StringUtils.substringBetween(range, "bytes=", "-"));
+      long end = Long.parseLong(StringUtils.substringAfter(range, "-"));
+      int length = (int) (end - start + 1);
+      exchange.getResponseHeaders().add("ETag", "\"v1\"");
+      exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + (unknownLength ? "*" : content.length));
+      exchange.sendResponseHeaders(206, length);
+      if (dropChunkStartingAt >= 0 && start >= dropChunkStartingAt && start < dropChunkStartingAt + CHUNK_SIZE)
+      { // simulate a dropped connection after 100 bytes
+        body.write(content, (int) start, 100);
+        body.flush();
+        throw new IOException("connection dropped");
+      }
+      body.write(content, (int) start, length);
+    }
+  }
+
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.lingala.zip4j.core.ZipFile;
+
+/**
+ * Compares the single threaded zip4j extraction with the {@link ParallelZipExtractor}
+ * on an archive shaped like an engine: a thousand plugin jars.
+ *
+ * <p>Run it with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ch.ivyteam.ivy.maven.engine.unpack.EngineUnpackBenchmark</code></p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EngineUnpackBenchmark
+{
+  private static final int PLUGINS = 1000;
+
+  private File workDir;
+  private File zip;
+  private File targetDir;
+
+  @State(Scope.Benchmark)
+  public static class Parallelism
+  {
+    @Param({"2", "4", "8"})
+    public int threads;
+  }
+
+  @Setup(Level.Trial)
+  public void createEngineZip() throws IOException
+  {
+    workDir = Files.createTempDirectory("unpackBenchmark").toFile();
+    zip = new File(workDir, "engine.zip");
+    Random random = new Random(42);
+    try(ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip)))
+    {
+      for (int i = 0; i < PLUGINS; i++)
+      {
+        out.putNextEntry(new ZipEntry("system/plugins/plugin" + i + ".jar"));
+        out.write(compressibleContent(random, 10_000 + random.nextInt(90_000)));
+        out.closeEntry();
+      }
+    }
+  }
+
+  private static byte[] compressibleContent(Random random, int size)
+  {
+    byte[] content = new byte[size];
+    for (int i = 0; i < size; i++)
+    {
+      content[i] = (byte) ('a' + random.nextInt(8));
+    }
+    return content;
+  }
+
+  @Setup(Level.Invocation)
+  public void prepareTarget() throws IOException
+  {
+    targetDir = new File(workDir, "engine");
+    FileUtils.deleteDirectory(targetDir);
+  }
+
+  @TearDown(Level.Trial)
+  public void cleanup() throws IOException
+  {
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Benchmark
+  public void zip4j() throws Exception
+  {
+    new ZipFile(zip).extractAll(targetDir.getAbsolutePath());
+  }
+
+  @Benchmark
+  public int parallel(Parallelism parallelism) throws IOException
+  {
+    return new ParallelZipExtractor(zip, parallelism.threads).extractAll(targetDir);
+  }
+
+  public static void main(String[] args) throws RunnerException
+  {
+    new Runner(new OptionsBuilder().include(EngineUnpackBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
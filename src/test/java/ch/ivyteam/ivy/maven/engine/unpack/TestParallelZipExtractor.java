@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.lingala.zip4j.core.ZipFile;
+import net.lingala.zip4j.model.ZipParameters;
+import net.lingala.zip4j.util.Zip4jConstants;
+
+public class TestParallelZipExtractor
+{
+  private static final long TIMESTAMP = 1_500_000_000_000L;
+
+  private File workDir;
+  private File targetDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    workDir = Files.createTempDirectory("zip").toFile();
+    workDir.deleteOnExit();
+    targetDir = new File(workDir, "engine");
+  }
+
+  @Test
+  public void extractAll() throws Exception
+  {
+    File zip = new File(workDir, "engine.zip");
+    Random random = new Random(42);
+    try(ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip)))
+    {
+      addDirectory(out, "system/");
+      addDirectory(out, "system/plugins/");
+      for (int i = 0; i < 50; i++)
+      {
+        byte[] content = new byte[random.nextInt(100_000)];
+        random.nextBytes(content);
+        addFile(out, "system/plugins/plugin" + i + ".jar", content, i % 2 == 0 ? ZipEntry.DEFLATED : ZipEntry.STORED);
+      }
+      addFile(out, "empty.txt", new byte[0], ZipEntry.DEFLATED);
+    }
+
+    int entries = new ParallelZipExtractor(zip, 4).extractAll(targetDir);
+
+    assertThat(entries).isEqualTo(53);
+    File expected = new File(workDir, "expected");
+    new ZipFile(zip).extractAll(expected.getAbsolutePath());
+    for (File file : FileUtils.listFiles(expected, null, true))
+    {
+      File unpacked = new File(targetDir, expected.toPath().relativize(file.toPath()).toString());
+      assertThat(FileUtils.contentEquals(file, unpacked)).as("content of " + unpacked).isTrue();
+      assertThat(unpacked.lastModified()).isEqualTo(TIMESTAMP);
+    }
+    assertThat(new File(targetDir, "system/plugins").lastModified()).isEqualTo(TIMESTAMP);
+  }
+
+  @Test
+  public void preservePermissions() throws Exception
+  {
+    assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+    File engine = new File(workDir, "source");
+    File launcher = new File(engine, "bin/AxonIvyEngine");
+    launcher.getParentFile().mkdirs();
+    FileUtils.write(launcher, "#!/bin/sh");
+    File zip = new File(workDir, "engine.zip");
+    ZipParameters parameters = new ZipParameters();
+    parameters.setCompressionMethod(Zip4jConstants.COMP_DEFLATE);
+    new ZipFile(zip).addFolder(new File(engine, "bin"), parameters);
+    setUnixMode(zip, "bin/AxonIvyEngine", 0100750);
+
+    new ParallelZipExtractor(zip, 2).extractAll(targetDir);
+
+    assertThat(Files.getPosixFilePermissions(new File(targetDir, "bin/AxonIvyEngine").toPath()))
+      .containsOnly(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE,
+              PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE);
+  }
+
+  @Test
+  public void corruptEntryIsRejected() throws Exception
+  {
+    File zip = new File(workDir, "engine.zip");
+    byte[] content = new byte[1000];
+    try(ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip)))
+    {
+      addFile(out, "lib.jar", content, ZipEntry.STORED);
+    }
+    try(RandomAccessFile file = new RandomAccessFile(zip, "rw"))
+    { // flip a byte of the stored content
+      file.seek(30 + "lib.jar".length() + 10);
+      file.write(1);
+    }
+    try
+    {
+      new ParallelZipExtractor(zip, 2).extractAll(targetDir);
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessage("CRC mismatch of zip entry 'lib.jar'");
+    }
+  }
+
+  @Test
+  public void toPermissions()
+  {
+    assertThat(PosixFilePermissions.toString(ParallelZipExtractor.toPermissions(0755))).isEqualTo("rwxr-xr-x");
+    assertThat(PosixFilePermissions.toString(ParallelZipExtractor.toPermissions(0100640))).isEqualTo("rw-r-----");
+  }
+
+  private static void addDirectory(ZipOutputStream out, String name) throws IOException
+  {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setTime(TIMESTAMP);
+    out.putNextEntry(entry);
+    out.closeEntry();
+  }
+
+  private static void addFile(ZipOutputStream out, String name, byte[] content, int method) throws IOException
+  {
+    ZipEntry entry = new ZipEntry(name);
+    entry.setTime(TIMESTAMP);
+    entry.setMethod(method);
+    if (method == ZipEntry.STORED)
+    {
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      entry.setCrc(crc.getValue());
+      entry.setSize(content.length);
+    }
+    out.putNextEntry(entry);
+    out.write(content);
+    out.closeEntry();
+  }
+
+  /**
+   * Marks the entry as created on unix with the given mode in its central directory header.
+   */
+  private static void setUnixMode(File zip, String entryName, int mode) throws IOException
+  {
+    byte[] bytes = Files.readAllBytes(zip.toPath());
+    byte[] name = entryName.getBytes("UTF-8");
+    for (int i = 0; i < bytes.length - 46; i++)
+    {
+      if (ZipEntries.readInt(bytes, i) == 0x02014b50
+              && new String(bytes, i + 46, name.length, "UTF-8").equals(entryName))
+      {
+        bytes[i + 5] = 3; // made by unix
+        bytes[i + 40] = (byte) mode;
+        bytes[i + 41] = (byte) (mode >> 8);
+      }
+    }
+    Files.write(zip.toPath(), bytes);
+  }
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.engine.unpack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.failBecauseExceptionWasNotThrown;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestStreamingZipExtractor
+{
+  private static final long TIMESTAMP = 1_500_000_000_000L;
+
+  private File targetDir;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    targetDir = Files.createTempDirectory("engine").toFile();
+    targetDir.deleteOnExit();
+  }
+
+  @Test
+  public void extract() throws Exception
+  {
+    byte[] zip = createZip("system/", "system/plugins/ch.ivyteam.util_7.4.0.jar", "bin/AxonIvyEngine");
+
+    StreamingZipExtractor extractor = new StreamingZipExtractor(targetDir);
+    extractor.extract(new ByteArrayInputStream(zip), zip.length);
+
+    assertThat(extractor.getEntryCount()).isEqualTo(3);
+    assertThat(extractor.getByteCount()).isEqualTo(zip.length);
+    File lib = new File(targetDir, "system/plugins/ch.ivyteam.util_7.4.0.jar");
+    assertThat(lib).hasContent("system/plugins/ch.ivyteam.util_7.4.0.jar");
+    assertThat(lib.lastModified()).isEqualTo(TIMESTAMP);
+    assertThat(new File(targetDir, "system")).isDirectory();
+  }
+
+  @Test
+  public void extractProfile() throws Exception
+  {
+    byte[] zip = createZip("system/plugins/ch.ivyteam.util_7.4.0.jar", "system/configuration/config.ini", 
+            "webapps/ivy/WEB-INF/lib/ivy.jar", "bin/AxonIvyEngine");
+
+    StreamingZipExtractor extractor = new StreamingZipExtractor(targetDir, ExtractionProfile.COMPILE);
+    extractor.extract(new ByteArrayInputStream(zip), zip.length);
+
+    assertThat(extractor.getEntryCount()).isEqualTo(4);
+    assertThat(extractor.getExtractedEntryCount()).isEqualTo(3);
+    assertThat(new File(targetDir, "system/plugins/ch.ivyteam.util_7.4.0.jar")).exists();
+    assertThat(new File(targetDir, "system/configuration/config.ini")).exists();
+    assertThat(new File(targetDir, "webapps/ivy/WEB-INF/lib/ivy.jar")).exists();
+    assertThat(new File(targetDir, "bin")).doesNotExist();
+  }
+
+  @Test
+  public void truncatedArchiveIsRejected() throws Exception
+  {
+    byte[] zip = createZip("system/plugins/a.jar", "system/plugins/b.jar");
+    byte[] truncated = Arrays.copyOf(zip, zip.length - 10);
+    try
+    {
+      new StreamingZipExtractor(targetDir).extract(new ByteArrayInputStream(truncated), -1);
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageStartingWith("Archive is incomplete");
+    }
+  }
+
+  @Test
+  public void unexpectedLengthIsRejected() throws Exception
+  {
+    byte[] zip = createZip("system/plugins/a.jar");
+    try
+    {
+      new StreamingZipExtractor(targetDir).extract(new ByteArrayInputStream(zip), zip.length + 1);
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageContaining("read " + zip.length + " of " + (zip.length + 1) + " bytes");
+    }
+  }
+
+  @Test
+  public void entriesOutsideOfTargetAreRejected() throws Exception
+  {
+    byte[] zip = createZip("../evil.sh");
+    try
+    {
+      new StreamingZipExtractor(targetDir).extract(new ByteArrayInputStream(zip), zip.length);
+      failBecauseExceptionWasNotThrown(IOException.class);
+    }
+    catch (IOException ex)
+    {
+      assertThat(ex).hasMessageContaining("outside of the target directory");
+    }
+    assertThat(new File(targetDir.getParentFile(), "evil.sh")).doesNotExist();
+  }
+
+  static byte[] createZip(String... entries) throws IOException
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try(ZipOutputStream zip = new ZipOutputStream(bytes))
+    {
+      for (String name : entries)
+      {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTime(TIMESTAMP);
+        zip.putNextEntry(entry);
+        if (!entry.isDirectory())
+        {
+          zip.write(name.getBytes(StandardCharsets.UTF_8));
+        }
+        zip.closeEntry();
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+}
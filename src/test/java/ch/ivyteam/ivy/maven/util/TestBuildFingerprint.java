@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ch.ivyteam.ivy.maven.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestBuildFingerprint
+{
+  private File projectDir;
+  private List<File> generated;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    projectDir = Files.createTempDirectory("fingerprintProject").toFile();
+    projectDir.deleteOnExit();
+    generated = Collections.singletonList(new File(projectDir, "classes").getAbsoluteFile());
+    write("src/ch/ivyteam/Hello.java", "class Hello {}");
+    write("processes/main.p.json", "{}");
+  }
+
+  @Test
+  public void sameInputsSameFingerprint() throws IOException
+  {
+    String fingerprint = fingerprint();
+    write("classes/ch/ivyteam/Hello.class", "bytecode");
+    assertThat(fingerprint()).as("excluded generated directory").isEqualTo(fingerprint);
+
+    File fingerprintFile = new File(projectDir, "target/fingerprint");
+    assertThat(BuildFingerprint.matches(fingerprintFile, fingerprint)).isFalse();
+    BuildFingerprint.store(fingerprintFile, fingerprint);
+    assertThat(BuildFingerprint.matches(fingerprintFile, fingerprint)).isTrue();
+  }
+
+  @Test
+  public void changedInputsChangeFingerprint() throws IOException
+  {
+    String fingerprint = fingerprint();
+    write("src/ch/ivyteam/Hello.java", "class Hello { }");
+    String changedContent = fingerprint();
+    assertThat(changedContent).isNotEqualTo(fingerprint);
+
+    write("dataclasses/Data.d.json", "{}");
+    String addedFile = fingerprint();
+    assertThat(addedFile).isNotEqualTo(changedContent);
+
+    assertThat(new BuildFingerprint().add("encoding", "UTF-8").addDirectory(projectDir, generated).compute())
+      .as("changed option")
+      .isNotEqualTo(addedFile);
+  }
+
+  private String fingerprint() throws IOException
+  {
+    return new BuildFingerprint().addDirectory(projectDir, generated).compute();
+  }
+
+  private void write(String path, String content) throws IOException
+  {
+    FileUtils.write(new File(projectDir, path), content, StandardCharsets.UTF_8);
+  }
+
+}
@@ -4,10 +4,16 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpServer;
+
 /**
  * Url: developer.axonivy.com/download/maven.html must be available for http
  * and https without any redirections. Old versions of project-build-plugin
@@ -29,6 +35,51 @@ public class TestUrlRedirectionResolver
     assertRedirection("http://answers.axonivy.com/", "http://answers.axonivy.com/", "https://answers.axonivy.com/");
   }
 
+  @Test
+  public void conditionalRequest() throws IOException
+  {
+    HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/moved.html", exchange -> {
+      exchange.getResponseHeaders().add("Location", "/list.html");
+      exchange.sendResponseHeaders(302, -1);
+      exchange.close();
+    });
+    server.createContext("/list.html", exchange -> {
+      if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match")))
+      {
+        exchange.sendResponseHeaders(304, -1);
+        exchange.close();
+        return;
+      }
+      byte[] content = "the list".getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().add("ETag", "\"v1\"");
+      exchange.sendResponseHeaders(200, content.length);
+      try(OutputStream out = exchange.getResponseBody())
+      {
+        out.write(content);
+      }
+    });
+    server.start();
+    try
+    {
+      URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/moved.html");
+      UrlRedirectionResolver resolver = new UrlRedirectionResolver();
+      try(InputStream stream = resolver.followRedirections(url, null, 0))
+      {
+        assertThat(IOUtils.toString(stream, StandardCharsets.UTF_8)).isEqualTo("the list");
+      }
+      assertThat(resolver.getETag()).isEqualTo("\"v1\"");
+
+      assertThat(new UrlRedirectionResolver().followRedirections(url, "\"v1\"", 0))
+        .as("not modified")
+        .isNull();
+    }
+    finally
+    {
+      server.stop(0);
+    }
+  }
+
   private static void assertRedirection(String initUrl, String... openendUrls) throws IOException
   {
     URL url = new URL(initUrl);
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.util.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link LineOrientedOutputStream} with the {@link LegacyLineOrientedOutputStream} on the output
+ * of an engine start: tens of thousands of log lines, pumped in blocks like the streams of a process.
+ *
+ * <p>Run it with: <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=ch.ivyteam.ivy.maven.util.stream.LineSplittingBenchmark</code></p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class LineSplittingBenchmark
+{
+  private static final int LINES = 50_000;
+  /** block size of the commons-exec stream pumper */
+  private static final int BLOCK_SIZE = 1024;
+  private static final byte[] EOL = System.getProperty("line.separator").getBytes();
+
+  private byte[] engineLog;
+
+  @Setup
+  public void createEngineLog()
+  {
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; i < LINES; i++)
+    {
+      log.append("2018-06-01 10:15:").append(i % 60).append(" INFO  [ch.ivyteam.ivy.bundle.Activator] ")
+         .append("Started bundle ch.ivyteam.ivy.plugin").append(i).append("\r\n");
+    }
+    engineLog = log.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public void legacyRedirect() throws IOException
+  {
+    pump(new LegacyLineOrientedOutputStream()
+      {
+        @Override
+        protected void processLine(byte[] line) throws IOException
+        {
+          NullOutputStream.NULL_OUTPUT_STREAM.write(line);
+          NullOutputStream.NULL_OUTPUT_STREAM.write(EOL);
+        }
+
+        @Override
+        protected void processLine(String line)
+        {
+        }
+      });
+  }
+
+  @Benchmark
+  public void redirect() throws IOException
+  {
+    pump(new LineOrientedOutputStreamRedirector(NullOutputStream.NULL_OUTPUT_STREAM));
+  }
+
+  @Benchmark
+  public int legacyDecode() throws IOException
+  {
+    int[] chars = new int[1];
+    pump(new LegacyLineOrientedOutputStream()
+      {
+        @Override
+        protected void processLine(String line)
+        {
+          chars[0] += line.length();
+        }
+      });
+    return chars[0];
+  }
+
+  @Benchmark
+  public int decode() throws IOException
+  {
+    int[] chars = new int[1];
+    pump(new LineOrientedOutputStream(StandardCharsets.UTF_8)
+      {
+        @Override
+        protected void processLine(byte[] line, int offset, int length)
+        {
+          chars[0] += decode(line, offset, length).length();
+        }
+
+        @Override
+        protected void processLine(String line)
+        {
+        }
+      });
+    return chars[0];
+  }
+
+  private void pump(OutputStream out) throws IOException
+  {
+    for (int offset = 0; offset < engineLog.length; offset += BLOCK_SIZE)
+    {
+      out.write(engineLog, offset, Math.min(BLOCK_SIZE, engineLog.length - offset));
+    }
+    out.close();
+  }
+
+  public static void main(String[] args) throws RunnerException
+  {
+    new Runner(new OptionsBuilder().include(LineSplittingBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
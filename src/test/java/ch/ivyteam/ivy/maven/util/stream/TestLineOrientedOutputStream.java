@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018 AXON Ivy AG
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ch.ivyteam.ivy.maven.util.stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TestLineOrientedOutputStream
+{
+  @Test
+  public void splitLines() throws IOException
+  {
+    List<String> lines = new ArrayList<>();
+    try(LineOrientedOutputStream out = new Lines(lines))
+    {
+      out.write("first\nsecond\r\nthird\r".getBytes(StandardCharsets.UTF_8));
+      out.write("\nfourth\n\nsixth".getBytes(StandardCharsets.UTF_8));
+    }
+    assertThat(lines).containsExactly("first", "second", "third", "fourth", "", "sixth");
+  }
+
+  @Test
+  public void sameLinesAsSingleByteWrites() throws IOException
+  {
+    Random random = new Random(42);
+    byte[] content = new byte[100_000];
+    byte[] alphabet = "ab c\r\n".getBytes(StandardCharsets.US_ASCII);
+    for (int i = 0; i < content.length; i++)
+    {
+      content[i] = alphabet[random.nextInt(alphabet.length)];
+    }
+
+    List<String> expected = new ArrayList<>();
+    try(LegacyLineOrientedOutputStream legacy = new LegacyLines(expected))
+    {
+      for (byte b : content)
+      {
+        legacy.write(b);
+      }
+    }
+    List<String> lines = new ArrayList<>();
+    try(LineOrientedOutputStream out = new Lines(lines))
+    {
+      int offset = 0;
+      while (offset < content.length)
+      {
+        int length = Math.min(random.nextInt(300), content.length - offset);
+        out.write(content, offset, length);
+        offset += length;
+      }
+    }
+    assertThat(lines).isEqualTo(expected);
+  }
+
+  @Test
+  public void decodeWithCharset() throws IOException
+  {
+    List<String> lines = new ArrayList<>();
+    try(LineOrientedOutputStream out = new Lines(lines))
+    {
+      out.write("Z\u00fcrich\n".getBytes(StandardCharsets.UTF_8));
+    }
+    assertThat(lines).containsExactly("Z\u00fcrich");
+  }
+
+  @Test
+  public void redirect() throws IOException
+  {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    try(LineOrientedOutputStreamRedirector out = new LineOrientedOutputStreamRedirector(target))
+    {
+      out.write("a\r\nb".getBytes(StandardCharsets.UTF_8));
+    }
+    String eol = System.getProperty("line.separator");
+    assertThat(target.toString("UTF-8")).isEqualTo("a" + eol + "b" + eol);
+  }
+
+  private static class Lines extends LineOrientedOutputStream
+  {
+    private final List<String> lines;
+
+    private Lines(List<String> lines)
+    {
+      super(StandardCharsets.UTF_8);
+      this.lines = lines;
+    }
+
+    @Override
+    protected void processLine(String line)
+    {
+      lines.add(line);
+    }
+  }
+
+  private static class LegacyLines extends LegacyLineOrientedOutputStream
+  {
+    private final List<String> lines;
+
+    private LegacyLines(List<String> lines)
+    {
+      this.lines = lines;
+    }
+
+    @Override
+    protected void processLine(String line)
+    {
+      lines.add(line);
+    }
+  }
+
+}